@@ -18,10 +18,22 @@ import (
 	"google.golang.org/grpc/credentials/insecure"
 )
 
+const (
+	// 서버의 AgentDispatchQueue와 같은 consumer group 이름
+	dispatchGroup      = "daemons"
+	maxConcurrentTasks = 2
+	// 처리 타임아웃(30분)보다 길어야 처리 중인 항목을 다른 consumer가 가져가지 않는다
+	claimMinIdle  = 40 * time.Minute
+	claimInterval = time.Minute
+	// 서버 presence TTL(prism.presence.ttl-ms, 30초)보다 충분히 짧게
+	heartbeatInterval = 10 * time.Second
+)
+
 type Config struct {
-	AgentID   string
-	RedisAddr string
-	GrpcAddr  string
+	AgentID      string
+	ConsumerName string
+	RedisAddr    string
+	GrpcAddr     string
 }
 
 type Worker struct {
@@ -70,22 +82,147 @@ func (w *Worker) Start() {
 		log.Printf("⚠️  Failed to register agent: %v", err)
 	}
 
-	channel := fmt.Sprintf("tasks:%s", w.cfg.AgentID)
-	log.Printf("👂 Listening on Redis channel: %s", channel)
+	ctx = context.Background()
+	stream := dispatchStream(w.cfg.AgentID)
+
+	// 서버보다 먼저 떠도 읽을 수 있도록 group을 만든다 (이미 있으면 BUSYGROUP)
+	if err := w.redisClient.XGroupCreateMkStream(ctx, stream, dispatchGroup, "0").Err(); err != nil &&
+		!strings.HasPrefix(err.Error(), "BUSYGROUP") {
+		log.Fatalf("Failed to create consumer group: %v", err)
+	}
+	log.Printf("👂 Consuming Redis stream: %s (group %s, consumer %s)", stream, dispatchGroup, w.cfg.ConsumerName)
+
+	// 동시에 처리할 수 있는 만큼만 읽는다. 나머지는 스트림에 남아 있다 (backpressure)
+	slots := make(chan struct{}, maxConcurrentTasks)
+	go w.heartbeatLoop(slots)
 
-	pubsub := w.redisClient.Subscribe(context.Background(), channel)
-	defer pubsub.Close()
+	// 재시작 전에 이 consumer가 받고 ack하지 못한 항목부터 다시 처리한다
+	w.resumePending(ctx, stream, slots)
 
-	ch := pubsub.Channel()
+	var lastClaim time.Time
+	for {
+		if time.Since(lastClaim) > claimInterval {
+			w.reclaimStale(ctx, stream, slots)
+			lastClaim = time.Now()
+		}
 
-	for msg := range ch {
-		log.Printf("📨 Received task: %s", msg.Payload)
-		go w.processTask(msg.Payload)
+		slots <- struct{}{}
+		res, err := w.redisClient.XReadGroup(ctx, &redis.XReadGroupArgs{
+			Group:    dispatchGroup,
+			Consumer: w.cfg.ConsumerName,
+			Streams:  []string{stream, ">"},
+			Count:    1,
+			Block:    5 * time.Second,
+		}).Result()
+		if err != nil {
+			<-slots
+			if err != redis.Nil {
+				log.Printf("⚠️  Failed to read dispatch stream: %v", err)
+				time.Sleep(time.Second)
+			}
+			continue
+		}
+		if len(res) == 0 || len(res[0].Messages) == 0 {
+			<-slots
+			continue
+		}
+		go w.handle(ctx, stream, res[0].Messages[0], slots)
 	}
 }
 
-func (w *Worker) processTask(payload string) {
-	taskId := w.parseTaskId(payload)
+// heartbeatLoop는 서버 presence 레지스트리에 주기적으로 상태(IDLE/BUSY)를 알린다.
+func (w *Worker) heartbeatLoop(slots chan struct{}) {
+	ticker := time.NewTicker(heartbeatInterval)
+	defer ticker.Stop()
+	for range ticker.C {
+		status := "IDLE"
+		if len(slots) > 0 {
+			status = "BUSY"
+		}
+		ctx, cancel := context.WithTimeout(context.Background(), 5*time.Second)
+		_, err := w.grpcClient.Heartbeat(ctx, &pb.HeartbeatRequest{
+			AgentId: w.cfg.AgentID,
+			Status:  status,
+		})
+		cancel()
+		if err != nil {
+			log.Printf("⚠️  Heartbeat failed: %v", err)
+		}
+	}
+}
+
+// resumePending는 이 consumer의 pending 목록(PEL)을 처음부터 다시 읽어 처리한다.
+func (w *Worker) resumePending(ctx context.Context, stream string, slots chan struct{}) {
+	start := "0"
+	for {
+		res, err := w.redisClient.XReadGroup(ctx, &redis.XReadGroupArgs{
+			Group:    dispatchGroup,
+			Consumer: w.cfg.ConsumerName,
+			Streams:  []string{stream, start},
+			Count:    maxConcurrentTasks,
+		}).Result()
+		if err != nil || len(res) == 0 || len(res[0].Messages) == 0 {
+			return
+		}
+		for _, msg := range res[0].Messages {
+			log.Printf("🔁 Resuming pending task entry %s", msg.ID)
+			slots <- struct{}{}
+			go w.handle(ctx, stream, msg, slots)
+			start = msg.ID
+		}
+	}
+}
+
+// reclaimStale는 claimMinIdle 동안 ack되지 않은 항목(죽은 consumer 등)을 이 consumer로 가져온다.
+func (w *Worker) reclaimStale(ctx context.Context, stream string, slots chan struct{}) {
+	start := "0-0"
+	for {
+		msgs, next, err := w.redisClient.XAutoClaim(ctx, &redis.XAutoClaimArgs{
+			Stream:   stream,
+			Group:    dispatchGroup,
+			Consumer: w.cfg.ConsumerName,
+			MinIdle:  claimMinIdle,
+			Start:    start,
+			Count:    maxConcurrentTasks,
+		}).Result()
+		if err != nil {
+			log.Printf("⚠️  Failed to reclaim stale entries: %v", err)
+			return
+		}
+		for _, msg := range msgs {
+			log.Printf("🔁 Reclaimed stale task entry %s", msg.ID)
+			slots <- struct{}{}
+			go w.handle(ctx, stream, msg, slots)
+		}
+		if next == "0-0" {
+			return
+		}
+		start = next
+	}
+}
+
+// handle은 배정 항목 하나를 처리하고 ack한 뒤 슬롯을 반환한다.
+func (w *Worker) handle(ctx context.Context, stream string, msg redis.XMessage, slots chan struct{}) {
+	defer func() { <-slots }()
+
+	taskId, _ := msg.Values["taskId"].(string)
+	if taskId == "" {
+		log.Printf("⚠️  Dropping malformed dispatch entry %s", msg.ID)
+	} else {
+		log.Printf("📨 Received task: %s (entry %s)", taskId, msg.ID)
+		w.processTask(taskId)
+	}
+
+	if err := w.redisClient.XAck(ctx, stream, dispatchGroup, msg.ID).Err(); err != nil {
+		log.Printf("⚠️  Failed to ack entry %s: %v", msg.ID, err)
+	}
+}
+
+func dispatchStream(agentID string) string {
+	return fmt.Sprintf("prism:dispatch:%s", agentID)
+}
+
+func (w *Worker) processTask(taskId string) {
 
 	log.Printf("\n🚀 ========================================")
 	log.Printf("   Processing Task: %s", taskId)
@@ -219,15 +356,6 @@ Generate the complete code now.`, taskId)
 	)
 }
 
-func (w *Worker) parseTaskId(payload string) string {
-	for i, c := range payload {
-		if c == ':' {
-			return payload[:i]
-		}
-	}
-	return payload
-}
-
 func (w *Worker) generateFallbackCode(taskId string, err error) string {
 	return fmt.Sprintf(`package com.prism.generated;
 
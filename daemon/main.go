@@ -3,6 +3,7 @@ package main
 import (
 	"flag"
 	"log"
+	"os"
 
 	"github.com/prism/daemon/internal/agent"
 )
@@ -11,6 +12,7 @@ func main() {
 	agentID := flag.String("agent-id", "", "The UUID of the agent this daemon represents")
 	redisAddr := flag.String("redis-addr", "localhost:6379", "Redis address")
 	grpcAddr := flag.String("grpc-addr", "localhost:9090", "Prism Server gRPC address")
+	consumer := flag.String("consumer", "", "Consumer name in the agent's dispatch stream group (default: hostname)")
 
 	flag.Parse()
 
@@ -18,10 +20,19 @@ func main() {
 		log.Fatal("Please provide --agent-id")
 	}
 
+	if *consumer == "" {
+		hostname, err := os.Hostname()
+		if err != nil {
+			log.Fatalf("Failed to resolve hostname, please provide --consumer: %v", err)
+		}
+		*consumer = hostname
+	}
+
 	cfg := agent.Config{
-		AgentID:   *agentID,
-		RedisAddr: *redisAddr,
-		GrpcAddr:  *grpcAddr,
+		AgentID:      *agentID,
+		ConsumerName: *consumer,
+		RedisAddr:    *redisAddr,
+		GrpcAddr:     *grpcAddr,
 	}
 
 	w := agent.NewWorker(cfg)
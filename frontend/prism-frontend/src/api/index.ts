@@ -41,17 +41,28 @@ export interface Task {
   gitPrUrl?: string;
 }
 
-export const getTasks = async (filters?: any): Promise<Task[]> => {
-  const response = await api.get('/tasks', { params: filters });
+export interface TaskPage {
+  items: Task[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
+export const getTaskPage = async (filters?: any, cursor?: string): Promise<TaskPage> => {
+  const response = await api.get('/tasks', { params: { ...filters, cursor } });
   return response.data;
 };
 
+export const getTasks = async (filters?: any): Promise<Task[]> => {
+  return (await getTaskPage(filters)).items;
+};
+
 export const createTask = async (task: any): Promise<Task> => {
   const response = await api.post('/tasks', task);
   return response.data;
 };
 
 export interface ActivityLog {
+  id?: string;
   action: string;
   timestamp: string;
   details: any;
@@ -60,6 +71,13 @@ export interface ActivityLog {
 export interface TaskDetail {
   task: Task;
   timeline: ActivityLog[];
+  timelineNextCursor: string | null;
+}
+
+export interface TimelinePage {
+  items: ActivityLog[];
+  nextCursor: string | null;
+  hasMore: boolean;
 }
 
 export const getTask = async (taskId: string): Promise<TaskDetail> => {
@@ -67,11 +85,40 @@ export const getTask = async (taskId: string): Promise<TaskDetail> => {
   return response.data;
 };
 
-export const exportToNotion = async (taskId: string): Promise<{ pageId: string }> => {
-  const response = await api.post(`/tasks/${taskId}/documents/notion`);
+export const getTimeline = async (taskId: string, cursor: string, limit?: number): Promise<TimelinePage> => {
+  const response = await api.get(`/tasks/${taskId}/timeline`, { params: { cursor, limit } });
   return response.data;
 };
 
+export interface PublishJob {
+  jobId: string;
+  taskId: string;
+  destination: string;
+  status: 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED';
+  attempts: number;
+  pageId: string | null;
+  lastError: string | null;
+  nextAttemptAt: string | null;
+}
+
+export const getPublishJob = async (taskId: string, jobId: string): Promise<PublishJob> => {
+  const response = await api.get(`/tasks/${taskId}/documents/jobs/${jobId}`);
+  return response.data;
+};
+
+// 발행은 서버에서 비동기 Job으로 처리되므로 완료될 때까지 상태를 폴링한다
+export const exportToNotion = async (taskId: string, pollIntervalMs = 1000): Promise<{ pageId: string }> => {
+  let job: PublishJob = (await api.post(`/tasks/${taskId}/documents/notion`)).data;
+  while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+    await new Promise((resolve) => setTimeout(resolve, pollIntervalMs));
+    job = await getPublishJob(taskId, job.jobId);
+  }
+  if (job.status === 'FAILED' || !job.pageId) {
+    throw new Error(job.lastError ?? 'Notion export failed');
+  }
+  return { pageId: job.pageId };
+};
+
 export const downloadMarkdown = async (taskId: string) => {
   const response = await api.get(`/tasks/${taskId}/documents/raw`, { responseType: 'blob' });
   const url = window.URL.createObjectURL(new Blob([response.data]));
@@ -88,7 +135,9 @@ export const getDashboardStats = async () => {
   return response.data;
 };
 
-export const getChartData = async (type: string) => {
-  const response = await api.get(`/dashboard/charts/${type}`);
+export type ChartGranularity = 'MINUTE' | 'HOUR' | 'DAY';
+
+export const getChartData = async (type: string, granularity: ChartGranularity = 'DAY', range?: string) => {
+  const response = await api.get(`/dashboard/charts/${type}`, { params: { granularity, range } });
   return response.data;
 };
@@ -0,0 +1,76 @@
+package com.prism.benchmark;
+
+import com.prism.domain.ActivityLog;
+import com.prism.domain.Agent;
+import com.prism.domain.Project;
+import com.prism.domain.Task;
+import com.prism.domain.enums.GitPhase;
+import com.prism.domain.enums.TaskStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벤치마크 입력 데이터 (실제 응답과 비슷한 크기의 필드 값을 채운다)
+ */
+public final class BenchmarkFixtures {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2025, 1, 1, 9, 0);
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    public static Task task(int i) {
+        return Task.builder()
+            .id(String.format("00000000-0000-0000-0000-%012d", i))
+            .title("Implement feature #" + i)
+            .description("Add the requested behaviour, update the docs and cover it with tests. ".repeat(4))
+            .priority(i % 3 == 0 ? "HIGH" : "MEDIUM")
+            .assignedTo(Agent.builder().id("agent-" + (i % 8)).name("agent-" + (i % 8)).build())
+            .project(Project.builder().id("project-1").name("Prism").build())
+            .taskStatus(STATUSES[i % STATUSES.length])
+            .gitPhase(GitPhase.values()[i % GitPhase.values().length])
+            .projectPath("/home/dev/projects/prism")
+            .targetRepo("prism/prism-service")
+            .gitBranch("feat/task-" + i)
+            .gitCommitHash("3f2a9c1d8e7b6a5f4e3d2c1b0a9f8e7d6c5b4a3" + (i % 10))
+            .status(i % 2 == 0 ? "IN_PROGRESS" : "TODO")
+            .createdAt(BASE_TIME.plusMinutes(i))
+            .updatedAt(BASE_TIME.plusMinutes(i))
+            .startedAt(BASE_TIME.plusMinutes(i + 1))
+            .build();
+    }
+
+    public static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(task(i));
+        }
+        return tasks;
+    }
+
+    /**
+     * 최신순으로 정렬된 타임라인 (repository의 정렬 쿼리 결과와 같은 순서)
+     */
+    public static List<ActivityLog> timeline(String taskId, int count) {
+        List<ActivityLog> logs = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            logs.add(ActivityLog.builder()
+                .id(String.format("%024x", i))
+                .taskId(taskId)
+                .agentId("agent-1")
+                .action("TASK_STATUS_UPDATE")
+                .timestamp(BASE_TIME.plusSeconds(i))
+                .details(Map.of(
+                    "status", "IN_PROGRESS",
+                    "details", "Running step " + i + " of the build pipeline",
+                    "git_branch", "feat/task-1",
+                    "git_commit", ""))
+                .build());
+        }
+        return logs;
+    }
+}
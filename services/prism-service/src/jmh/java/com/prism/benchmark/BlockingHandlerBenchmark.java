@@ -0,0 +1,200 @@
+package com.prism.benchmark;
+
+import com.prism.domain.TaskLogSegment;
+import com.prism.dto.TaskLogResponse;
+import com.prism.repository.TaskLogSegmentRepository;
+import com.prism.service.tasklog.TaskLogStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 블로킹 핸들러 실행 모드 비교 (spring.threads.virtual.enabled false/true)
+ *
+ * 요청 하나는 GET /api/v1/tasks/{id}/logs?tail= 의 처리 경로인 TaskLogStore.tail이다.
+ * 마지막 세그먼트 조회와 범위 조회를 Hikari 풀에서 커넥션을 빌려 H2에 실행하고, 각 statement는 dbLatencyMs 동안
+ * 커넥션을 잡고 있다 (MySQL 왕복 시간). 한 invocation은 동시 요청 concurrency개를 실행기에 넣고 모두 끝날 때까지 기다린다.
+ * - PLATFORM: Tomcat 기본 워커 풀(server.tomcat.threads.max=200)과 같은 고정 풀
+ * - VIRTUAL: 요청마다 virtual thread (Tomcat/gRPC virtual thread 모드)
+ * - poolSize: Hikari maximum-pool-size (10은 기본값, 40은 application.yml 값)
+ * virtual thread에서는 동시 요청이 풀 크기에서 막히므로 poolSize에 따른 차이가 처리량을 결정한다.
+ * ops/s가 burst 처리량, SampleTime의 p0.99가 burst 안 마지막 요청까지의 p99 지연이다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BlockingHandlerBenchmark {
+
+    private static final int PLATFORM_WORKERS = 200;
+    private static final int TASK_COUNT = 100;
+    private static final int SEGMENTS_PER_TASK = 20;
+
+    public enum ExecutionMode {
+        PLATFORM, VIRTUAL
+    }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private ExecutionMode mode;
+
+    @Param({"200", "2000"})
+    private int concurrency;
+
+    @Param({"10", "40"})
+    private int poolSize;
+
+    @Param({"2"})
+    private long dbLatencyMs;
+
+    private ExecutorService executor;
+    private HikariDataSource pool;
+    private TaskLogStore taskLogStore;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:blocking-handler-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate setup = new JdbcTemplate(h2);
+        setup.execute("CREATE TABLE task_log_segments (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, task_id VARCHAR(36) NOT NULL, sequence_no BIGINT NOT NULL, " +
+            "start_offset BIGINT NOT NULL, end_offset BIGINT NOT NULL, content CLOB, created_at TIMESTAMP, " +
+            "UNIQUE (task_id, sequence_no))");
+
+        pool = new HikariDataSource();
+        pool.setPoolName("benchmark");
+        pool.setDataSource(new LatencyDataSource(h2, dbLatencyMs));
+        pool.setMaximumPoolSize(poolSize);
+        pool.setConnectionTimeout(60_000);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+
+        // TaskLogSegmentRepository의 두 쿼리를 같은 풀의 JDBC로 실행한다 (JPA 없이 커넥션 점유만 재현)
+        RowMapper<TaskLogSegment> rowMapper = (rs, rowNum) -> TaskLogSegment.builder()
+            .taskId(rs.getString("task_id"))
+            .sequenceNo(rs.getLong("sequence_no"))
+            .startOffset(rs.getLong("start_offset"))
+            .endOffset(rs.getLong("end_offset"))
+            .content(rs.getString("content"))
+            .build();
+        TaskLogSegmentRepository segmentRepository = InMemoryRepositories.of(TaskLogSegmentRepository.class, Map.of(
+            "findFirstByTaskIdOrderBySequenceNoDesc", args -> jdbcTemplate.query(
+                "SELECT * FROM task_log_segments WHERE task_id = ? ORDER BY sequence_no DESC LIMIT 1",
+                rowMapper, args[0]).stream().findFirst(),
+            "findFromOffset", args -> jdbcTemplate.query(
+                "SELECT * FROM task_log_segments WHERE task_id = ? AND end_offset > ? ORDER BY end_offset LIMIT ?",
+                rowMapper, args[0], args[1], ((Pageable) args[2]).getPageSize())));
+        taskLogStore = new TaskLogStore(jdbcTemplate, segmentRepository, 262144);
+
+        // 세그먼트는 지연 없이 채운다
+        TaskLogStore seeder = new TaskLogStore(setup, InMemoryRepositories.of(TaskLogSegmentRepository.class, Map.of(
+            "findFirstByTaskIdOrderBySequenceNoDesc", args -> Optional.empty())), 262144);
+        for (int i = 0; i < SEGMENTS_PER_TASK; i++) {
+            int segment = i;
+            seeder.appendAll(IntStream.range(0, TASK_COUNT).boxed().collect(Collectors.toMap(
+                BlockingHandlerBenchmark::taskId, task -> "step " + segment + " of the build pipeline finished")));
+        }
+
+        executor = mode == ExecutionMode.VIRTUAL
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(PLATFORM_WORKERS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        pool.close();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String taskId = taskId(sequence.getAndIncrement() % TASK_COUNT);
+            executor.execute(() -> {
+                try {
+                    TaskLogResponse response = taskLogStore.tail(taskId, 4096);
+                    if (response.getContent().isEmpty()) {
+                        throw new IllegalStateException("Empty log for " + taskId);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private static String taskId(int i) {
+        return "task-" + i;
+    }
+
+    /**
+     * statement를 만들 때마다 dbLatencyMs 동안 대기하는 커넥션 (DB 왕복 동안 커넥션을 잡고 있는 것을 재현)
+     */
+    private static final class LatencyDataSource extends DelegatingDataSource {
+        private final long latencyMs;
+
+        LatencyDataSource(DataSource target, long latencyMs) {
+            super(target);
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return withLatency(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return withLatency(super.getConnection(username, password));
+        }
+
+        private Connection withLatency(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (self, method, args) -> {
+                    if (method.getName().equals("prepareStatement") || method.getName().equals("createStatement")) {
+                        Thread.sleep(latencyMs);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.prism.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 벤치마크용 인메모리 Repository
+ *
+ * Spring Data Repository 인터페이스를 동적 프록시로 구현하고, 벤치마크 경로에서 호출되는 메서드만
+ * 이름으로 연결한다. 그 외 메서드는 UnsupportedOperationException을 던져 의도치 않은 호출을 드러낸다.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Function<Object[], Object> impl = methods.get(method.getName());
+            if (impl != null) {
+                return impl.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "InMemory" + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == args[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+        return type.cast(proxy);
+    }
+}
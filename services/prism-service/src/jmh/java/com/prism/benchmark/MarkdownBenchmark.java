@@ -0,0 +1,79 @@
+package com.prism.benchmark;
+
+import com.prism.domain.ActivityLog;
+import com.prism.domain.Task;
+import com.prism.repository.ActivityLogRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.document.DocumentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DocumentService 마크다운 생성 (큰 타임라인)
+ *
+ * Repository는 인메모리이므로 DB/Mongo 비용 없이 렌더링 비용만 측정한다.
+ * - generateMarkdown: 발행용 문자열 렌더링
+ * - exportStreaming: 다운로드 스트리밍 (캐시 없음, 매번 렌더링)
+ * - exportCached: 다운로드 반복 (version이 같아 캐시된 사본을 그대로 쓴다)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarkdownBenchmark {
+
+    @Param({"100", "10000"})
+    private int timelineSize;
+
+    private DocumentService documentService;
+    private DocumentService uncachedDocumentService;
+    private String taskId;
+
+    @Setup
+    public void setUp() {
+        Task task = BenchmarkFixtures.task(1);
+        taskId = task.getId();
+        List<ActivityLog> timeline = BenchmarkFixtures.timeline(taskId, timelineSize);
+
+        TaskRepository taskRepository = InMemoryRepositories.of(TaskRepository.class, Map.of(
+            "findWithAssociationsById", args -> Optional.of(task)));
+        ActivityLogRepository activityLogRepository = InMemoryRepositories.of(ActivityLogRepository.class, Map.of(
+            "streamByTaskIdOrderByTimestampDescIdDesc", args -> timeline.stream()));
+
+        documentService = new DocumentService(taskRepository, activityLogRepository, 64L << 20, 16 << 20);
+        uncachedDocumentService = new DocumentService(taskRepository, activityLogRepository, 64L << 20, 0);
+    }
+
+    @Benchmark
+    public String generateMarkdown() {
+        return documentService.renderForPublish(taskId).markdown();
+    }
+
+    @Benchmark
+    public void exportStreaming() throws IOException {
+        uncachedDocumentService.exportMarkdown(taskId).body().writeTo(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void exportCached() throws IOException {
+        documentService.exportMarkdown(taskId).body().writeTo(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,50 @@
+package com.prism.benchmark;
+
+import com.prism.domain.Task;
+import com.prism.dto.TaskResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskResponse.from: 단건 변환과 목록 페이지(기본/최대 페이지 크기) 변환
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskResponseBenchmark {
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchmarkFixtures.tasks(pageSize);
+    }
+
+    @Benchmark
+    public TaskResponse single() {
+        return TaskResponse.from(tasks.get(0));
+    }
+
+    @Benchmark
+    public List<TaskResponse> page() {
+        return tasks.stream().map(TaskResponse::from).toList();
+    }
+}
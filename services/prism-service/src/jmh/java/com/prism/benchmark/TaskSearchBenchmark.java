@@ -0,0 +1,126 @@
+package com.prism.benchmark;
+
+import com.prism.service.search.TaskSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task 전문 검색 (1M Task 코퍼스)
+ *
+ * 단어 빈도가 치우친(Zipf 비슷한) 고정 시드 어휘로 title/description/targetRepo/gitBranch를 만든다.
+ * - searchIndex: TaskSearchIndex 검색 (상위 20개)
+ * - searchScan: 비교용 전체 스캔 (LIKE '%term%' AND ... 와 같은 부분 문자열 검사, 순위 없음)
+ * - indexNewTask: 생성 직후 색인 비용
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TaskSearchBenchmark {
+
+    private static final String[] REPOS = {"prism-service", "prism-web", "prism-daemon", "notion-sync", "infra"};
+
+    @Param({"1000000"})
+    private int corpusSize;
+
+    // 흔한 단어 하나 / 흔한 + 드문 단어 / 드문 단어 둘
+    @Param({"login", "login timeout", "w4150 w4870"})
+    private String query;
+
+    private String[] vocabulary;
+    private TaskSearchIndex index;
+    private List<TaskSearchIndex.TaskDocument> documents;
+    private List<String> queryTerms;
+    private int nextTaskId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[5000];
+        String[] common = {"login", "timeout", "dashboard", "metrics", "refactor", "fix", "add", "api", "cache", "test"};
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = i < common.length ? common[i] : "w" + i;
+        }
+
+        index = new TaskSearchIndex(new JdbcTemplate(), false, 5000, 2000, 60_000);
+        documents = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            TaskSearchIndex.TaskDocument document = new TaskSearchIndex.TaskDocument("task-" + i,
+                words(random, 5), words(random, 40), REPOS[random.nextInt(REPOS.length)],
+                random.nextInt(4) == 0 ? "feature/" + word(random) : null, 0);
+            documents.add(document);
+            index.index(document);
+        }
+        nextTaskId = corpusSize;
+        queryTerms = List.of(query.toLowerCase(Locale.ROOT).split(" "));
+    }
+
+    @Benchmark
+    public TaskSearchIndex.SearchResult searchIndex() {
+        return index.search(query, 0, 20);
+    }
+
+    @Benchmark
+    public int searchScan() {
+        int matches = 0;
+        for (TaskSearchIndex.TaskDocument document : documents) {
+            String text = (document.title() + " " + document.description() + " " + document.targetRepo() + " "
+                + document.gitBranch()).toLowerCase(Locale.ROOT);
+            boolean all = true;
+            for (String term : queryTerms) {
+                if (!text.contains(term)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int indexNewTask() {
+        Random random = new Random(nextTaskId);
+        index.index(new TaskSearchIndex.TaskDocument("task-" + nextTaskId++, words(random, 5), words(random, 40),
+            REPOS[random.nextInt(REPOS.length)], null, 0));
+        return nextTaskId;
+    }
+
+    private String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(word(random));
+        }
+        return text.toString();
+    }
+
+    // 앞쪽 어휘일수록 자주 나온다
+    private String word(Random random) {
+        double skewed = Math.pow(random.nextDouble(), 3);
+        return vocabulary[(int) (skewed * vocabulary.length)];
+    }
+}
@@ -0,0 +1,206 @@
+package com.prism.service.update;
+
+import com.prism.benchmark.InMemoryRepositories;
+import com.prism.grpc.UpdateTaskStatusRequest;
+import com.prism.grpc.UpdateTaskStatusResponse;
+import com.prism.grpc.service.GrpcAgentService;
+import com.prism.repository.ActivityBucketRepository;
+import com.prism.repository.ActivityLogRepository;
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskLogSegmentRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.repository.TokenUsageDailyRepository;
+import com.prism.service.DashboardCounters;
+import com.prism.service.TaskStatusUpdateService;
+import com.prism.service.activity.ActivityRollupService;
+import com.prism.service.broadcast.BroadcastMetrics;
+import com.prism.service.broadcast.TopicBroadcaster;
+import com.prism.service.broadcast.TopicSubscriptions;
+import com.prism.service.dispatch.AgentLoadBalancer;
+import com.prism.service.dispatch.AssignmentWatchService;
+import com.prism.service.presence.AgentPresenceRegistry;
+import com.prism.service.hierarchy.TaskHierarchyService;
+import com.prism.service.hierarchy.TaskRollupCounters;
+import com.prism.service.search.TaskSearchIndex;
+import com.prism.service.tasklog.TaskLogStore;
+import com.prism.service.usage.UsageAccumulator;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * GrpcAgentService.updateTaskStatus 처리 경로 (인메모리 H2 + 인메모리 Repository)
+ *
+ * - handleUpdate: Daemon 업데이트 1건 접수 비용 (write-behind 병합 + WebSocket 프레임 병합). 4 스레드 동시 호출.
+ *   백그라운드 flush도 실제로 H2에 내려쓰므로 그 경합이 함께 반영된다.
+ * - flushBatch: batch-size만큼의 Task 업데이트를 접수한 뒤 flush 한 번 (batch UPDATE + 로그 세그먼트 INSERT)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskUpdateHandlerBenchmark {
+
+    private static final int TASK_COUNT = 1000;
+    private static final int BATCH_SIZE = 500;
+
+    private static final StreamObserver<UpdateTaskStatusResponse> NO_OP_OBSERVER = new StreamObserver<>() {
+        @Override
+        public void onNext(UpdateTaskStatusResponse value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    };
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private JdbcDataSource dataSource;
+    private TaskUpdateWriteBehind writeBehind;
+    private GrpcAgentService grpcAgentService;
+    private UpdateTaskStatusRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:task-update-bench;DB_CLOSE_DELAY=-1;MODE=MySQL");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        createSchema(jdbcTemplate);
+
+        TaskLogStore taskLogStore = new TaskLogStore(jdbcTemplate,
+            InMemoryRepositories.of(TaskLogSegmentRepository.class, Map.of(
+                "findFirstByTaskIdOrderBySequenceNoDesc", args -> Optional.empty())),
+            262144);
+        DashboardCounters dashboardCounters = new DashboardCounters(new NoOpRedisTemplate(),
+            InMemoryRepositories.of(TaskRepository.class, Map.of()),
+            InMemoryRepositories.of(TokenUsageDailyRepository.class, Map.of()));
+        ActivityRollupService activityRollupService = new ActivityRollupService(
+            InMemoryRepositories.of(ActivityBucketRepository.class, Map.of("incrementAll", args -> null)),
+            new ConcurrentMapCacheManager(), 48, 90);
+        ActivityLogRepository activityLogRepository = InMemoryRepositories.of(ActivityLogRepository.class, Map.of(
+            "insert", args -> args[0]));
+
+        AgentPresenceRegistry agentPresenceRegistry = new AgentPresenceRegistry(new NoOpRedisTemplate(), 30000);
+        AgentRepository agentRepository = InMemoryRepositories.of(AgentRepository.class, Map.of());
+        AgentLoadBalancer agentLoadBalancer = new AgentLoadBalancer(agentRepository,
+            InMemoryRepositories.of(TaskRepository.class, Map.of()), agentPresenceRegistry);
+
+        // 벤치마크의 Task는 모두 최상위라 롤업 갱신은 일어나지 않는다
+        TaskHierarchyService taskHierarchyService = new TaskHierarchyService(jdbcTemplate,
+            new TaskRollupCounters(new NoOpRedisTemplate(), InMemoryRepositories.of(TaskRepository.class, Map.of()),
+                600000), 500);
+        writeBehind = new TaskUpdateWriteBehind(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            activityLogRepository, taskLogStore, dashboardCounters, activityRollupService, agentLoadBalancer,
+            new TaskSearchIndex(jdbcTemplate, false, 5000, 2000, 60_000),
+            taskHierarchyService, 200, BATCH_SIZE, 4);
+        writeBehind.start();
+
+        // 프레임 flush 스레드는 띄우지 않는다 (topic당 대기 프레임은 max-events-per-frame으로 상한)
+        TopicBroadcaster topicBroadcaster = new TopicBroadcaster(
+            new SimpMessagingTemplate((message, timeout) -> true), new TopicSubscriptions(),
+            new BroadcastMetrics(new SimpleMeterRegistry()), 100, 100, 10000);
+        // 요청에 토큰 수가 없으므로 누적기는 아무것도 하지 않는다 (flush 스레드도 띄우지 않는다)
+        UsageAccumulator usageAccumulator = new UsageAccumulator(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            InMemoryRepositories.of(TaskRepository.class, Map.of()), agentRepository,
+            dashboardCounters, activityRollupService, 5000);
+        grpcAgentService = new GrpcAgentService(agentRepository,
+            new TaskStatusUpdateService(InMemoryRepositories.of(TaskRepository.class, Map.of(
+                "existsById", args -> true)), writeBehind, topicBroadcaster, usageAccumulator), agentPresenceRegistry,
+            new AssignmentWatchService(new NoOpRedisTemplate(), InMemoryRepositories.of(TaskRepository.class, Map.of()),
+                agentRepository, 500, 100));
+
+        requests = new UpdateTaskStatusRequest[TASK_COUNT];
+        for (int i = 0; i < TASK_COUNT; i++) {
+            requests[i] = UpdateTaskStatusRequest.newBuilder()
+                .setTaskId(taskId(i))
+                .setAgentId("agent-" + (i % 8))
+                .setStatus("IN_PROGRESS")
+                .setDetails("Running step " + i + " of the build pipeline")
+                .setGitBranch("feat/task-" + i)
+                .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+        new JdbcTemplate(dataSource).execute("DROP ALL OBJECTS");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void handleUpdate() {
+        grpcAgentService.updateTaskStatus(requests[(int) (sequence.getAndIncrement() % TASK_COUNT)], NO_OP_OBSERVER);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void flushBatch() {
+        long offset = sequence.getAndAdd(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            grpcAgentService.updateTaskStatus(requests[(int) ((offset + i) % TASK_COUNT)], NO_OP_OBSERVER);
+        }
+        writeBehind.flush();
+    }
+
+    private static String taskId(int i) {
+        return String.format("00000000-0000-0000-0000-%012d", i);
+    }
+
+    private static void createSchema(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE tasks (" +
+            "id VARCHAR(36) PRIMARY KEY, status VARCHAR(32), started_at TIMESTAMP, completed_at TIMESTAMP, " +
+            "git_branch VARCHAR(255), git_commit_hash VARCHAR(255), git_pr_url VARCHAR(255), " +
+            "git_pr_status VARCHAR(255), updated_at TIMESTAMP, assigned_to VARCHAR(36), parent_task_id VARCHAR(36), " +
+            "last_activity_id VARCHAR(24), version BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE task_log_segments (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, task_id VARCHAR(36) NOT NULL, sequence_no BIGINT NOT NULL, " +
+            "start_offset BIGINT NOT NULL, end_offset BIGINT NOT NULL, content CLOB, created_at TIMESTAMP, " +
+            "UNIQUE (task_id, sequence_no))");
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, status) VALUES (?, 'TODO')",
+            IntStream.range(0, TASK_COUNT).mapToObj(i -> new Object[]{taskId(i)}).toList());
+    }
+
+    /**
+     * 카운터 갱신 스크립트를 무시하는 Redis 템플릿 (Redis 없이 실행)
+     */
+    private static class NoOpRedisTemplate extends StringRedisTemplate {
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            return null;
+        }
+    }
+}
@@ -1,9 +1,50 @@
 package com.prism.config;
 
+import com.prism.service.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
+import java.time.Duration;
+
+/**
+ * 2단계 캐시 (L1: 인스턴스별 Caffeine, L2: Redis)
+ *
+ * prism.cache.redis-enabled=false면 L1만 쓴다 (테스트용).
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(StringRedisTemplate redisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${prism.cache.redis-enabled:true}") boolean redisEnabled,
+                                             @Value("${prism.cache.l1-max-entries:1000}") long l1MaxEntries,
+                                             @Value("${prism.cache.l1-ttl-ms:30000}") long l1TtlMs,
+                                             @Value("${prism.cache.l2-ttl-ms:300000}") long l2TtlMs,
+                                             @Value("${prism.cache.generation-refresh-ms:5000}") long generationRefreshMs) {
+        return new TwoLevelCacheManager(redisEnabled ? redisTemplate : null, meterRegistry,
+            l1MaxEntries, Duration.ofMillis(l1TtlMs), l2TtlMs, generationRefreshMs);
+    }
+
+    /**
+     * 다른 replica가 보낸 무효화 메시지 수신
+     */
+    @Bean
+    @ConditionalOnProperty(name = "prism.cache.redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
 }
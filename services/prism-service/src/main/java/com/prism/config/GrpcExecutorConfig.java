@@ -0,0 +1,37 @@
+package com.prism.config;
+
+import jakarta.annotation.PreDestroy;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * gRPC 핸들러 실행 모드
+ *
+ * spring.threads.virtual.enabled=true면 Tomcat 요청 스레드와 마찬가지로 RPC 호출도 호출마다 새 virtual thread에서
+ * 실행한다 (JPA/Mongo/Redis 대기 중에는 carrier 스레드를 돌려준다). false면 grpc-java 기본 실행기를 그대로 쓴다.
+ *
+ * 실행기는 빈으로 노출하지 않는다: Executor 빈이 있으면 Spring Boot 기본 applicationTaskExecutor가 만들어지지 않는다.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class GrpcExecutorConfig {
+
+    private final ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-vt-", 0).factory());
+
+    @Bean
+    public GrpcServerConfigurer virtualThreadGrpcServerConfigurer() {
+        return serverBuilder -> serverBuilder.executor(executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
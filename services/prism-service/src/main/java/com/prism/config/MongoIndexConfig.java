@@ -0,0 +1,39 @@
+package com.prism.config;
+
+import com.prism.domain.ActivityLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * 애플리케이션이 관리하는 MongoDB 인덱스
+ *
+ * 기동 시 한 번 생성을 보장한다 (이미 있으면 no-op). 실패해도 기동은 계속한다.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "prism.mongo.ensure-indexes", havingValue = "true", matchIfMissing = true)
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoTemplate.indexOps(ActivityLog.class).ensureIndex(new Index()
+                .on("taskId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(ActivityLog.TIMELINE_INDEX));
+        } catch (RuntimeException e) {
+            log.warn("Failed to ensure MongoDB indexes: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.prism.config;
+
+import com.prism.service.replica.ReadYourWritesFilter;
+import com.prism.service.replica.ReplicaLagMonitor;
+import com.prism.service.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 replica 라우팅 (prism.datasource.replicas.urls를 설정했을 때만)
+ *
+ * spring.datasource는 primary가 되고, HTTP 요청(ReadYourWritesFilter) 안의 @Transactional(readOnly = true) 트랜잭션만
+ * 지연이 허용 범위인 replica에서 읽는다. gRPC/스케줄러/백그라운드 스레드는 모두 primary를 쓴다.
+ * DataSource 빈은 하나(LazyConnectionDataSourceProxy → ReplicaRoutingDataSource)만 노출하고 커넥션 풀은 여기서 직접 만든다.
+ * 그래서 spring.datasource.hikari.* 중 maximum-pool-size/connection-timeout만 읽어 모든 풀에 같게 적용한다.
+ * Hibernate는 트랜잭션이 끝날 때마다 연결을 돌려주게 해서 트랜잭션마다 새로 라우팅되게 한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "prism.datasource.replicas.urls")
+public class ReadReplicaConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final int maximumPoolSize;
+    private final long connectionTimeoutMs;
+    private ReplicaLagMonitor lagMonitor;
+
+    public ReadReplicaConfig(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+                             @Value("${spring.datasource.hikari.connection-timeout:30000}") long connectionTimeoutMs) {
+        this.maximumPoolSize = maximumPoolSize;
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${prism.datasource.replicas.urls}") List<String> urls,
+                                 @Value("${prism.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                                 @Value("${prism.datasource.replicas.password:${spring.datasource.password:}}") String password,
+                                 @Value("${prism.datasource.replicas.max-lag-ms:2000}") long maxLagMs,
+                                 @Value("${prism.datasource.replicas.check-interval-ms:500}") long checkIntervalMs) {
+        String driverClassName = properties.determineDriverClassName();
+        HikariDataSource primary = pool("prism-primary", properties.determineUrl(), properties.determineUsername(),
+            properties.determinePassword(), driverClassName, false);
+
+        List<ReplicaLagMonitor.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "prism-replica-" + replicas.size();
+            replicas.add(new ReplicaLagMonitor.Replica(name, pool(name, url.trim(), username, password, driverClassName, true)));
+        }
+        lagMonitor = new ReplicaLagMonitor(primary, replicas, meterRegistry, maxLagMs, checkIntervalMs);
+        lagMonitor.start();
+
+        // 첫 SQL 때 연결을 가져오므로 그 시점의 트랜잭션 readOnly 여부로 라우팅된다
+        LazyConnectionDataSourceProxy proxy =
+            new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, lagMonitor, meterRegistry));
+        proxy.setDefaultAutoCommit(true);
+        return proxy;
+    }
+
+    /**
+     * HibernateJpaVendorAdapter 기본값(DELAYED_ACQUISITION_AND_HOLD)은 EntityManager가 닫힐 때까지 연결을 잡는다.
+     * open-in-view처럼 요청 동안 EntityManager가 살아 있으면 먼저 읽은 replica 연결에 뒤의 쓰기 트랜잭션까지 실린다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+        @Value("${prism.datasource.replicas.stickiness-ms:5000}") long stickinessMs) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+            new FilterRegistrationBean<>(new ReadYourWritesFilter(stickinessMs));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (lagMonitor != null) {
+            lagMonitor.shutdown();
+        }
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password, String driverClassName,
+                                  boolean readOnly) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setDriverClassName(driverClassName);
+        pool.setReadOnly(readOnly);
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setConnectionTimeout(connectionTimeoutMs);
+        pools.add(pool);
+        return pool;
+    }
+}
@@ -1,6 +1,7 @@
 package com.prism.controller;
 
 import com.prism.dto.CreateAgentRequest;
+import com.prism.dto.AgentDispatchStats;
 import com.prism.dto.AgentResponse;
 import com.prism.service.AgentService;
 import lombok.RequiredArgsConstructor;
@@ -26,4 +27,14 @@ public class AgentController {
     public List<AgentResponse> getAllAgents() {
         return agentService.getAllAgents();
     }
+
+    @GetMapping("/dispatch")
+    public List<AgentDispatchStats> getAllDispatchStats() {
+        return agentService.getAllDispatchStats();
+    }
+
+    @GetMapping("/{agentId}/dispatch")
+    public AgentDispatchStats getDispatchStats(@PathVariable String agentId) {
+        return agentService.getDispatchStats(agentId);
+    }
 }
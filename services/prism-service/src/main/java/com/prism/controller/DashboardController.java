@@ -1,10 +1,12 @@
 package com.prism.controller;
 
+import com.prism.domain.enums.BucketGranularity;
 import com.prism.service.DashboardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,7 +25,18 @@ public class DashboardController {
 
     @GetMapping("/charts/{type}")
     @Operation(summary = "Get chart data by type (activity/cost)")
-    public Map<String, Object> getChartData(@PathVariable String type) {
-        return dashboardService.getChartData(type);
+    public Map<String, Object> getChartData(
+            @PathVariable String type,
+            @RequestParam(defaultValue = "DAY") BucketGranularity granularity,
+            @RequestParam(required = false) String range) {
+        return dashboardService.getChartData(type, granularity, range);
+    }
+
+    @GetMapping("/usage")
+    @Operation(summary = "Get token usage and cost totals grouped by agent/provider/project")
+    public List<Map<String, Object>> getUsage(
+            @RequestParam(defaultValue = "agent") String groupBy,
+            @RequestParam(defaultValue = "7") int days) {
+        return dashboardService.getUsage(groupBy, days);
     }
 }
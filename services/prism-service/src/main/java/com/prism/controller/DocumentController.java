@@ -1,13 +1,19 @@
 package com.prism.controller;
 
+import com.prism.dto.PublishJobResponse;
+import com.prism.service.document.DocumentPublishService;
 import com.prism.service.document.DocumentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Map;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/v1/tasks")
@@ -15,21 +21,52 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class DocumentController {
     private final DocumentService documentService;
+    private final DocumentPublishService documentPublishService;
 
+    /**
+     * Notion 발행 Job 접수 (202). 결과는 Location의 Job 상태를 폴링해서 확인한다.
+     */
     @PostMapping("/{taskId}/documents/notion")
-    public Map<String, String> exportToNotion(@PathVariable String taskId) {
-        String pageId = documentService.publishTaskToNotion(taskId);
-        return Map.of("pageId", pageId, "status", "PUBLISHED");
+    public ResponseEntity<PublishJobResponse> exportToNotion(@PathVariable String taskId) {
+        PublishJobResponse job = documentPublishService.requestNotionPublish(taskId);
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/tasks/" + taskId + "/documents/jobs/" + job.getJobId()))
+            .body(job);
     }
 
+    @GetMapping("/{taskId}/documents/jobs/{jobId}")
+    public PublishJobResponse getPublishJob(@PathVariable String taskId, @PathVariable String jobId) {
+        PublishJobResponse job = documentPublishService.getJob(jobId);
+        if (!job.getTaskId().equals(taskId)) {
+            throw new IllegalArgumentException("Job not found");
+        }
+        return job;
+    }
+
+    /**
+     * 마크다운 다운로드 (스트리밍). 문서 version을 ETag로 주고, If-None-Match가 같으면 304를 반환한다.
+     * 마지막 이벤트가 아직 Mongo에 쓰이지 않아 타임라인이 완전하지 않으면 ETag 없이 보낸다
+     * (빠진 본문이 클라이언트에 새 ETag로 남아 이후 요청이 계속 304가 되지 않도록).
+     */
     @GetMapping("/{taskId}/documents/raw")
-    public ResponseEntity<String> downloadMarkdown(@PathVariable String taskId) {
-        String content = documentService.getRawMarkdown(taskId);
+    public ResponseEntity<StreamingResponseBody> downloadMarkdown(
+            @PathVariable String taskId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DocumentService.MarkdownExport export = documentService.exportMarkdown(taskId);
+        String etag = export.version() != null ? "\"" + export.version() + "\"" : null;
+        if (etag != null && etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         String filename = "task-" + taskId + ".md";
 
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-            .contentType(MediaType.TEXT_MARKDOWN)
-            .body(content);
+            .contentType(new MediaType(MediaType.TEXT_MARKDOWN, StandardCharsets.UTF_8));
+        if (etag != null) {
+            response.eTag(etag);
+        } else {
+            response.cacheControl(CacheControl.noStore());
+        }
+        return response.body(export.body());
     }
 }
@@ -1,7 +1,18 @@
 package com.prism.controller;
 
+import com.prism.domain.enums.GitPhase;
+import com.prism.domain.enums.TaskStatus;
+import com.prism.dto.BulkCreateTaskRequest;
+import com.prism.dto.BulkCreateTaskResponse;
 import com.prism.dto.CreateTaskRequest;
+import com.prism.dto.TaskLogResponse;
+import com.prism.dto.TaskPageResponse;
 import com.prism.dto.TaskResponse;
+import com.prism.dto.TaskRollupResponse;
+import com.prism.dto.TaskSearchResponse;
+import com.prism.dto.TaskSubtreeResponse;
+import com.prism.dto.TimelinePageResponse;
+import com.prism.service.TaskBulkService;
 import com.prism.service.TaskService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -18,6 +29,7 @@ import java.util.List;
 @Tag(name = "Tasks", description = "Task Management API")
 public class TaskController {
     private final TaskService taskService;
+    private final TaskBulkService taskBulkService;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -26,14 +38,40 @@ public class TaskController {
         return taskService.createTask(request);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Create many tasks at once (per-item results, invalid items are skipped)")
+    public BulkCreateTaskResponse createTasks(@RequestBody BulkCreateTaskRequest request) {
+        return taskBulkService.createTasks(request.getTasks());
+    }
+
     @GetMapping
-    @Operation(summary = "Get all tasks with optional filters")
-    public List<TaskResponse> getAllTasks(
+    @Operation(summary = "Get tasks with optional filters, newest first (cursor pagination)")
+    public TaskPageResponse getAllTasks(
         @RequestParam(required = false) String status,
+        @RequestParam(required = false) TaskStatus taskStatus,
+        @RequestParam(required = false) GitPhase gitPhase,
         @RequestParam(required = false) String priority,
-        @RequestParam(required = false) String agentId
+        @RequestParam(required = false) String agentId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        return taskService.getAllTasks(status, taskStatus, gitPhase, priority, agentId, cursor, limit);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Full-text search over title, description, repository and branch (ranked, paginated)")
+    public TaskSearchResponse searchTasks(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "" + TaskService.DEFAULT_SEARCH_PAGE_SIZE) int size
     ) {
-        return taskService.getAllTasks(status, priority, agentId);
+        return taskService.searchTasks(q, page, size);
+    }
+
+    @GetMapping("/pending-approvals")
+    @Operation(summary = "Get tasks waiting for commit/push approval")
+    public List<TaskResponse> getPendingApprovalTasks(@RequestParam(required = false) String agentId) {
+        return taskService.getPendingApprovalTasks(agentId);
     }
 
     @GetMapping("/{taskId}")
@@ -41,4 +79,51 @@ public class TaskController {
     public com.prism.dto.TaskDetailResponse getTask(@PathVariable String taskId) {
         return taskService.getTask(taskId);
     }
+
+    @GetMapping("/{taskId}/timeline")
+    @Operation(summary = "Get task activity timeline, newest first (cursor pagination)")
+    public TimelinePageResponse getTimeline(
+        @PathVariable String taskId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        return taskService.getTimeline(taskId, cursor, limit);
+    }
+
+    @GetMapping("/{taskId}/subtree")
+    @Operation(summary = "Get descendant tasks, shallowest first (optionally depth-limited)")
+    public TaskSubtreeResponse getSubtree(
+        @PathVariable String taskId,
+        @RequestParam(required = false) Integer maxDepth,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + TaskService.DEFAULT_PAGE_SIZE) int limit
+    ) {
+        return taskService.getSubtree(taskId, maxDepth, cursor, limit);
+    }
+
+    @GetMapping("/{taskId}/rollup")
+    @Operation(summary = "Get status counts and completion rate of all descendant tasks")
+    public TaskRollupResponse getRollup(@PathVariable String taskId) {
+        return taskService.getRollup(taskId);
+    }
+
+    @PutMapping("/{taskId}/parent")
+    @Operation(summary = "Move a task (with its subtree) under another parent, or to the top level without parentTaskId")
+    public TaskResponse moveTask(
+        @PathVariable String taskId,
+        @RequestParam(required = false) String parentTaskId
+    ) {
+        return taskService.moveTask(taskId, parentTaskId);
+    }
+
+    @GetMapping("/{taskId}/logs")
+    @Operation(summary = "Read task log by byte offset, or the last `tail` bytes")
+    public TaskLogResponse getTaskLog(
+        @PathVariable String taskId,
+        @RequestParam(defaultValue = "0") long offset,
+        @RequestParam(defaultValue = "65536") int limit,
+        @RequestParam(required = false) Integer tail
+    ) {
+        return taskService.getTaskLog(taskId, offset, limit, tail);
+    }
 }
@@ -0,0 +1,45 @@
+package com.prism.domain;
+
+import com.prism.domain.enums.BucketGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ActivityLog 시간 버킷 롤업 (분/시/일)
+ *
+ * _id는 "{granularity}:{yyyy-MM-dd'T'HH:mm}" 형식이라 같은 단위 안에서 사전순이 곧 시간순이다.
+ * 범위 조회와 upsert가 모두 기본 _id 인덱스만 사용하므로 별도 인덱스가 필요 없다.
+ */
+@Document(collection = "activity_buckets")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityBucket {
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+
+    @Id
+    private String id;
+
+    private BucketGranularity granularity;
+    private LocalDateTime bucketStart;
+
+    private long count;
+    private double cost;
+
+    @Builder.Default
+    private Map<String, Long> actions = new HashMap<>();
+
+    public static String idFor(BucketGranularity granularity, LocalDateTime bucketStart) {
+        return granularity.name() + ":" + ID_FORMAT.format(bucketStart);
+    }
+}
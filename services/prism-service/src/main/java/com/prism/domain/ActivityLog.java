@@ -9,12 +9,19 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 import java.util.Map;
 
+/**
+ * Task/Agent 활동 이벤트
+ *
+ * 타임라인 조회는 (taskId, timestamp desc, _id desc) 인덱스를 사용한다 (MongoIndexConfig에서 생성).
+ */
 @Document(collection = "activities")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ActivityLog {
+    public static final String TIMELINE_INDEX = "task_timeline";
+
     @Id
     private String id;
 
@@ -0,0 +1,84 @@
+package com.prism.domain;
+
+import com.prism.domain.enums.PublishJobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * 외부 문서 시스템(Notion 등)으로의 Task 발행 작업
+ *
+ * API는 Job을 만들고 바로 반환하며, DocumentPublishService의 워커가 재시도/backoff를 포함해 실행한다.
+ * 클라이언트는 id로 상태를 폴링한다.
+ *
+ * - activeKey: 진행 중(QUEUED/RUNNING)일 때만 "taskId:destination", 끝나면 null. unique 제약으로
+ *   같은 Task/목적지의 진행 중 Job이 둘 생기지 않게 한다 (NULL은 여럿 허용)
+ * - claimToken/leaseUntil: 실행 중인 인스턴스의 시도 표식. 실행은 조건부 UPDATE로 선점하고,
+ *   결과도 같은 token일 때만 기록한다. lease가 지난 RUNNING Job은 다른 인스턴스가 다시 선점할 수 있다
+ */
+@Entity
+@Table(name = "document_publish_jobs", indexes = {
+    @Index(name = "idx_document_publish_jobs_task", columnList = "task_id, status"),
+    @Index(name = "idx_document_publish_jobs_status", columnList = "status")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_document_publish_jobs_active", columnNames = "active_key")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentPublishJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "task_id", nullable = false, length = 36)
+    private String taskId;
+
+    @Column(nullable = false, length = 32)
+    private String destination;              // "notion"
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    @Builder.Default
+    private PublishJobStatus status = PublishJobStatus.QUEUED;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    private String pageId;                   // 발행된 외부 페이지 ID
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime nextAttemptAt;     // 재시도 예정 시각 (QUEUED일 때만)
+
+    @Column(name = "active_key", length = 80)
+    private String activeKey;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    private LocalDateTime leaseUntil;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public static String activeKey(String taskId, String destination) {
+        return taskId + ":" + destination;
+    }
+}
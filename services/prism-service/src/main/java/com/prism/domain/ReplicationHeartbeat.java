@@ -0,0 +1,30 @@
+package com.prism.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 복제 지연 측정용 heartbeat (행 하나)
+ *
+ * ReplicaLagMonitor가 primary에 현재 시각(epoch ms)을 주기적으로 쓰고, 각 replica에서 읽은 값과의 차이를 지연으로 본다.
+ * 스키마는 primary에서 만들어져 복제된다.
+ */
+@Entity
+@Table(name = "replication_heartbeat")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicationHeartbeat {
+    @Id
+    private Integer id;
+
+    @Column(name = "beat_ms", nullable = false)
+    private long beatMs;
+}
@@ -4,12 +4,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,12 +24,25 @@ import com.prism.domain.enums.TaskStatus;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@NamedEntityGraph(name = Task.RESPONSE_GRAPH, attributeNodes = {
+    @NamedAttributeNode("assignedTo"),
+    @NamedAttributeNode("project")
+})
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_created_at_id", columnList = "created_at, id"),  // keyset 페이지네이션
+    @Index(name = "idx_tasks_updated_at_id", columnList = "updated_at, id")   // 검색 색인 catch-up
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
+    /**
+     * TaskResponse 변환에 필요한 연관만 fetch join 하는 graph.
+     * 연관은 모두 LAZY이므로 목록/상세 쿼리는 이 graph로 N+1 없이 조회한다.
+     */
+    public static final String RESPONSE_GRAPH = "Task.response";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -34,15 +52,15 @@ public class Task {
     @Column(columnDefinition = "LONGTEXT")
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_to")
     private Agent assignedTo;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id")
     private Project project;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
 
@@ -103,9 +121,18 @@ public class Task {
     @Column(columnDefinition = "LONGTEXT")
     private String buildLog;
 
+    // 레거시: Daemon 로그는 task_log_segments(TaskLogStore)에 append-only로 저장된다
     @Column(columnDefinition = "LONGTEXT")
     private String deploymentLog;
 
+    // 마지막으로 기록된 ActivityLog id. 문서 캐시 version에 쓰인다 (ActivityLog는 커밋 뒤 Mongo에 쓰이므로 늦을 수 있다)
+    @Column(length = 24)
+    private String lastActivityId;
+
+    // 낙관적 잠금. JDBC로 쓰는 경로(write-behind, bulk insert)도 직접 올린다
+    @Version
+    private Long version;
+
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
     @Builder.Default
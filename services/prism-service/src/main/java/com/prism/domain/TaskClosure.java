@@ -0,0 +1,53 @@
+package com.prism.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Task 계층의 닫힘 테이블 (closure table)
+ *
+ * 조상-자손 쌍마다 한 행이며, 자기 자신도 depth 0으로 들어간다. Task.parentTaskId가 원본이고
+ * 이 테이블은 TaskHierarchyService가 생성/이동 시 같은 트랜잭션에서 맞춘다.
+ * - 하위 트리/깊이 제한 조회: (ancestor_id, depth) 인덱스
+ * - 조상 경로 조회(롤업 갱신, 이동): (descendant_id, depth) 인덱스
+ */
+@Entity
+@IdClass(TaskClosure.Key.class)
+@Table(name = "task_closure", indexes = {
+    @Index(name = "idx_task_closure_ancestor_depth", columnList = "ancestor_id, depth"),
+    @Index(name = "idx_task_closure_descendant_depth", columnList = "descendant_id, depth")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskClosure {
+    @Id
+    @Column(name = "ancestor_id", length = 36)
+    private String ancestorId;
+
+    @Id
+    @Column(name = "descendant_id", length = 36)
+    private String descendantId;
+
+    @Column(nullable = false)
+    private int depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String ancestorId;
+        private String descendantId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.prism.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Task 로그의 append-only 조각
+ *
+ * 한 Task의 세그먼트를 sequenceNo 순서로 이어붙이면 전체 로그가 된다.
+ * startOffset/endOffset은 UTF-8 바이트 기준이며, (taskId, endOffset) 인덱스로 offset 범위를 조회한다.
+ */
+@Entity
+@Table(name = "task_log_segments",
+    uniqueConstraints = @UniqueConstraint(name = "uk_task_log_segments_seq", columnNames = {"task_id", "sequence_no"}),
+    indexes = @Index(name = "idx_task_log_segments_end", columnList = "task_id, end_offset"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskLogSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false, length = 36)
+    private String taskId;
+
+    @Column(name = "sequence_no", nullable = false)
+    private long sequenceNo;
+
+    @Column(name = "start_offset", nullable = false)
+    private long startOffset;
+
+    @Column(name = "end_offset", nullable = false)
+    private long endOffset;
+
+    @Column(columnDefinition = "LONGTEXT")
+    private String content;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,57 @@
+package com.prism.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 일별 토큰 사용량/비용 집계 (날짜 x Agent x Provider x Project)
+ *
+ * UsageAccumulator가 메모리에서 합친 값을 주기적으로 upsert(+=)한다.
+ * 값이 없는 차원(provider 미설정 Agent, project 없는 Task)은 빈 문자열로 저장해 unique key에 포함시킨다.
+ */
+@Entity
+@Table(name = "token_usage_daily",
+    uniqueConstraints = @UniqueConstraint(name = "uk_token_usage_daily",
+        columnNames = {"usage_date", "agent_id", "provider_id", "project_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsageDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "usage_date", nullable = false)
+    private LocalDate usageDate;
+
+    @Column(name = "agent_id", nullable = false, length = 36)
+    private String agentId;
+
+    @Column(name = "provider_id", nullable = false, length = 36)
+    private String providerId;
+
+    @Column(name = "project_id", nullable = false, length = 36)
+    private String projectId;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private long completionTokens;
+
+    @Column(nullable = false, precision = 19, scale = 6)
+    @Builder.Default
+    private BigDecimal cost = BigDecimal.ZERO;
+}
@@ -0,0 +1,34 @@
+package com.prism.domain.enums;
+
+import com.prism.domain.Agent;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 자동 배정 시 Task가 요구할 수 있는 Agent 능력 (Agent의 can* 플래그와 1:1)
+ */
+public enum AgentCapability {
+    WRITE_CODE(Agent::isCanWriteCode),
+    RUN_TESTS(Agent::isCanRunTests),
+    DEPLOY(Agent::isCanDeploy),
+    CREATE_DOCUMENTS(Agent::isCanCreateDocuments),
+    MERGE_PR(Agent::isCanMergePr);
+
+    private final Predicate<Agent> flag;
+
+    AgentCapability(Predicate<Agent> flag) {
+        this.flag = flag;
+    }
+
+    public static Set<AgentCapability> of(Agent agent) {
+        EnumSet<AgentCapability> capabilities = EnumSet.noneOf(AgentCapability.class);
+        for (AgentCapability capability : values()) {
+            if (capability.flag.test(agent)) {
+                capabilities.add(capability);
+            }
+        }
+        return capabilities;
+    }
+}
@@ -0,0 +1,38 @@
+package com.prism.domain.enums;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Activity 롤업 버킷 단위
+ *
+ * MINUTE: 1분 버킷 (최근 구간 상세 조회용, 보존 기간 짧음)
+ * HOUR: 1시간 버킷
+ * DAY: 1일 버킷 (삭제하지 않음)
+ */
+public enum BucketGranularity {
+    MINUTE(ChronoUnit.MINUTES, "HH:mm"),
+    HOUR(ChronoUnit.HOURS, "MM-dd HH:00"),
+    DAY(ChronoUnit.DAYS, "MM-dd");
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter labelFormat;
+
+    BucketGranularity(ChronoUnit unit, String labelPattern) {
+        this.unit = unit;
+        this.labelFormat = DateTimeFormatter.ofPattern(labelPattern);
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public String label(LocalDateTime bucketStart) {
+        return labelFormat.format(bucketStart);
+    }
+}
@@ -0,0 +1,20 @@
+package com.prism.domain.enums;
+
+/**
+ * 문서 발행 Job 상태
+ *
+ * QUEUED: 실행 대기 (최초 접수 또는 재시도 backoff 대기)
+ * RUNNING: 외부 API 호출 중
+ * SUCCEEDED: 발행 완료 (pageId 기록됨)
+ * FAILED: 재시도 한도 초과 또는 재시도 불가능한 오류
+ */
+public enum PublishJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
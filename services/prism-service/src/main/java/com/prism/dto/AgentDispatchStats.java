@@ -0,0 +1,20 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Agent 배정 스트림 상태
+ */
+@Data
+@Builder
+public class AgentDispatchStats {
+    private String agentId;
+    private boolean online;             // Daemon heartbeat가 살아 있는지 (AgentPresenceRegistry)
+    private long streamLength;          // 스트림에 남아 있는 항목 수 (MAXLEN으로 상한)
+    private long pending;               // Daemon이 받았지만 아직 ack하지 않은 항목 수
+    private Long lag;                   // 아직 Daemon에 전달되지 않은 항목 수 (Redis가 모르면 null)
+    private long oldestPendingIdleMs;   // 가장 오래된 미ack 항목의 경과 시간
+    private int assignedQueued;         // 배정됐지만 시작 전(TODO)인 Task 수 (AgentLoadBalancer)
+    private int assignedRunning;        // 실행 중(IN_PROGRESS)인 Task 수
+}
@@ -1,9 +1,11 @@
 package com.prism.dto;
 
 import com.prism.domain.Agent;
+import com.prism.service.presence.AgentPresence;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Data
@@ -19,6 +21,12 @@ public class AgentResponse {
     private Integer maxTokens;
     private LocalDateTime createdAt;
 
+    // Daemon presence (heartbeat 기준)
+    private boolean online;
+    private String presenceStatus;
+    private String daemonVersion;
+    private Instant lastSeenAt;
+
     public static AgentResponse from(Agent agent) {
         return AgentResponse.builder()
             .id(agent.getId())
@@ -32,4 +40,15 @@ public class AgentResponse {
             .createdAt(agent.getCreatedAt())
             .build();
     }
+
+    public static AgentResponse from(Agent agent, AgentPresence presence) {
+        AgentResponse response = from(agent);
+        if (presence != null) {
+            response.setOnline(presence.isOnline(Instant.now()));
+            response.setPresenceStatus(presence.status());
+            response.setDaemonVersion(presence.version());
+            response.setLastSeenAt(presence.lastSeen());
+        }
+        return response;
+    }
 }
@@ -0,0 +1,12 @@
+package com.prism.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Task 일괄 생성 요청 (각 항목은 단건 생성과 같은 형식)
+ */
+@Data
+public class BulkCreateTaskRequest {
+    private List<CreateTaskRequest> tasks;
+}
@@ -0,0 +1,27 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Task 일괄 생성 결과
+ *
+ * results는 요청 순서와 같고, 항목별로 생성된 Task 또는 실패 사유를 담는다.
+ */
+@Data
+@Builder
+public class BulkCreateTaskResponse {
+    private int created;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @Builder
+    public static class ItemResult {
+        private int index;
+        private boolean success;
+        private TaskResponse task;   // 성공 시
+        private String error;        // 실패 시
+    }
+}
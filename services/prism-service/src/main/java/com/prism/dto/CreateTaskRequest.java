@@ -1,7 +1,10 @@
 package com.prism.dto;
 
+import com.prism.domain.enums.AgentCapability;
 import lombok.Data;
 
+import java.util.Set;
+
 /**
  * Task 생성 요청 DTO (3-Phase Git Workflow 지원)
  * 
@@ -19,6 +22,28 @@ public class CreateTaskRequest {
     private String projectId;
     private String assignedTo;     // Agent ID
     
+    /**
+     * 상위 Task ID (하위 작업으로 만들 때). 없으면 최상위 Task
+     */
+    private String parentTaskId;
+    
+    // ========== 자동 배정 (assignedTo가 없을 때) ==========
+    
+    /**
+     * true면 assignedTo 대신 AgentLoadBalancer가 가장 한가한 Agent를 고른다
+     */
+    private Boolean autoAssign;
+    
+    /**
+     * 자동 배정 대상 Agent role (예: "BACKEND"). 없으면 모든 role
+     */
+    private String agentRole;
+    
+    /**
+     * 자동 배정 시 Agent에게 요구하는 능력 (기본: WRITE_CODE)
+     */
+    private Set<AgentCapability> requiredCapabilities;
+    
     // ========== Local 작업 관련 (Phase 1) ==========
     
     /**
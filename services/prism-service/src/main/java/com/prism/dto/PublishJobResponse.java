@@ -0,0 +1,40 @@
+package com.prism.dto;
+
+import com.prism.domain.DocumentPublishJob;
+import com.prism.domain.enums.PublishJobStatus;
+import lombok.Builder;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 문서 발행 Job 상태 (폴링용)
+ */
+@Data
+@Builder
+public class PublishJobResponse {
+    private String jobId;
+    private String taskId;
+    private String destination;
+    private PublishJobStatus status;
+    private int attempts;
+    private String pageId;                   // SUCCEEDED일 때만
+    private String lastError;
+    private LocalDateTime nextAttemptAt;     // 재시도 대기 중일 때만
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public static PublishJobResponse from(DocumentPublishJob job) {
+        return PublishJobResponse.builder()
+            .jobId(job.getId())
+            .taskId(job.getTaskId())
+            .destination(job.getDestination())
+            .status(job.getStatus())
+            .attempts(job.getAttempts())
+            .pageId(job.getPageId())
+            .lastError(job.getLastError())
+            .nextAttemptAt(job.getNextAttemptAt())
+            .createdAt(job.getCreatedAt())
+            .updatedAt(job.getUpdatedAt())
+            .build();
+    }
+}
@@ -11,17 +11,20 @@ import java.util.stream.Collectors;
 @Builder
 public class TaskDetailResponse {
     private TaskResponse task;
-    private List<ActivityLogDTO> timeline;
+    private List<ActivityLogDTO> timeline;       // 최신 이벤트 한 페이지 (최신순)
+    private String timelineNextCursor;           // 더 오래된 이벤트 조회용 (GET /tasks/{id}/timeline?cursor=)
 
     @Data
     @Builder
     public static class ActivityLogDTO {
+        private String id;
         private String action;
         private String timestamp;
         private Object details;
 
         public static ActivityLogDTO from(ActivityLog log) {
             return ActivityLogDTO.builder()
+                .id(log.getId())
                 .action(log.getAction())
                 .timestamp(log.getTimestamp().toString())
                 .details(log.getDetails())
@@ -0,0 +1,20 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Task 로그 범위 조회 응답
+ *
+ * content는 UTF-8 바이트 범위 [offset, nextOffset)에 해당한다.
+ * 새 로그만 받으려면 nextOffset을 다음 요청의 offset으로 넘긴다.
+ */
+@Data
+@Builder
+public class TaskLogResponse {
+    private String taskId;
+    private long offset;
+    private long nextOffset;
+    private long totalBytes;   // 조회 시점의 전체 로그 크기
+    private String content;
+}
@@ -21,6 +21,7 @@ public class TaskResponse {
     private String priority;
     private String assignedToName;
     private String projectName;
+    private String parentTaskId;
     
     // ========== 3-Phase 상태 정보 ==========
     
@@ -91,6 +92,7 @@ public class TaskResponse {
             .priority(task.getPriority())
             .assignedToName(task.getAssignedTo() != null ? task.getAssignedTo().getName() : null)
             .projectName(task.getProject() != null ? task.getProject().getName() : null)
+            .parentTaskId(task.getParentTaskId())
             
             // 3-Phase 상태
             .taskStatus(task.getTaskStatus())
@@ -0,0 +1,21 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.Map;
+
+/**
+ * 하위 Task 전체(자기 자신 제외)의 상태별 수와 완료율
+ *
+ * completed는 레거시 status가 DONE인 하위 Task 수이며, 하위 Task가 없으면 completionRate는 0.
+ */
+@Data
+@Builder
+public class TaskRollupResponse {
+    private String taskId;
+    private long total;
+    private long completed;
+    private double completionRate;
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byTaskStatus;
+}
@@ -0,0 +1,28 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Task 전문 검색 결과 (점수 내림차순, page/size 페이지네이션)
+ *
+ * total은 모든 검색어를 포함하는 Task 수다.
+ */
+@Data
+@Builder
+public class TaskSearchResponse {
+    private String query;
+    private long total;
+    private int page;
+    private int size;
+    private boolean hasMore;
+    private List<Hit> items;
+
+    @Data
+    @Builder
+    public static class Hit {
+        private TaskResponse task;
+        private double score;
+    }
+}
@@ -0,0 +1,28 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * 하위 Task 목록 (얕은 것부터, 같은 depth는 생성 순서)
+ *
+ * depth는 기준 Task에서의 거리(자식 = 1)다. limit에 걸려 잘렸으면 hasMore가 true이고,
+ * nextCursor로 다음 페이지를 요청한다.
+ */
+@Data
+@Builder
+public class TaskSubtreeResponse {
+    private String rootTaskId;
+    private int maxDepth;
+    private List<Node> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    @Data
+    @Builder
+    public static class Node {
+        private TaskResponse task;
+        private int depth;
+    }
+}
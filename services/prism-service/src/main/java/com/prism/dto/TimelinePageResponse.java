@@ -0,0 +1,18 @@
+package com.prism.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Task 타임라인 페이지 응답 (최신순 keyset 페이지네이션)
+ *
+ * 더 오래된 이벤트는 nextCursor를 cursor 파라미터로 넘겨서 조회한다. 마지막 페이지면 nextCursor는 null.
+ */
+@Data
+@Builder
+public class TimelinePageResponse {
+    private List<TaskDetailResponse.ActivityLogDTO> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
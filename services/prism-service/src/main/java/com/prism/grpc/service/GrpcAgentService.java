@@ -1,20 +1,15 @@
 package com.prism.grpc.service;
 
-import com.prism.domain.ActivityLog;
 import com.prism.grpc.*;
-import com.prism.repository.ActivityLogRepository;
 import com.prism.repository.AgentRepository;
-import com.prism.repository.TaskRepository;
+import com.prism.service.TaskStatusUpdateService;
+import com.prism.service.dispatch.AssignmentWatchService;
+import com.prism.service.presence.AgentPresenceRegistry;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.time.LocalDateTime;
-import java.util.Map;
 
 @Slf4j
 @GrpcService
@@ -22,15 +17,14 @@ import java.util.Map;
 public class GrpcAgentService extends AgentServiceGrpc.AgentServiceImplBase {
 
     private final AgentRepository agentRepository;
-    private final TaskRepository taskRepository;
-    private final ActivityLogRepository activityLogRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final TaskStatusUpdateService taskStatusUpdateService;
+    private final AgentPresenceRegistry agentPresenceRegistry;
+    private final AssignmentWatchService assignmentWatchService;
 
     @Override
     public void registerAgent(RegisterAgentRequest request, StreamObserver<RegisterAgentResponse> responseObserver) {
         log.info("Registering agent: {}", request.getAgentId());
-        // Simple logic: Check if exists, update heartbeat or just acknowledge
-        // In real app, might update status to ONLINE
+        agentPresenceRegistry.register(request.getAgentId(), request.getVersion());
 
         responseObserver.onNext(RegisterAgentResponse.newBuilder()
             .setSuccess(true)
@@ -41,79 +35,32 @@ public class GrpcAgentService extends AgentServiceGrpc.AgentServiceImplBase {
 
     @Override
     public void heartbeat(HeartbeatRequest request, StreamObserver<HeartbeatResponse> responseObserver) {
-        // Update last seen timestamp in DB
+        agentPresenceRegistry.heartbeat(request.getAgentId(), request.getStatus());
         responseObserver.onNext(HeartbeatResponse.newBuilder()
             .setAcknowledged(true)
             .build());
         responseObserver.onCompleted();
     }
 
+    /**
+     * 레거시 단건 RPC (스트리밍을 지원하지 않는 구버전 Daemon용)
+     */
     @Override
-    @Transactional
-    @CacheEvict(value = {"dashboardStats", "dashboardCharts"}, allEntries = true)
     public void updateTaskStatus(UpdateTaskStatusRequest request, StreamObserver<UpdateTaskStatusResponse> responseObserver) {
-        log.info("Received status update for Task {}: {}", request.getTaskId(), request.getStatus());
-
-        taskRepository.findById(request.getTaskId()).ifPresentOrElse(task -> {
-            task.setStatus(request.getStatus());
-            if ("DONE".equals(request.getStatus())) {
-                task.setCompletedAt(LocalDateTime.now());
-            } else if ("IN_PROGRESS".equals(request.getStatus()) && task.getStartedAt() == null) {
-                task.setStartedAt(LocalDateTime.now());
-            }
-
-            // Append log if present
-            request.getDetails();
-            if (!request.getDetails().isEmpty()) {
-                String existing = task.getDeploymentLog() == null ? "" : task.getDeploymentLog() + "\n";
-                task.setDeploymentLog(existing + request.getDetails());
-            }
-
-            request.getGitBranch();
-            if (!request.getGitBranch().isEmpty()) {
-                task.setGitBranch(request.getGitBranch());
-            }
-            request.getGitCommitHash();
-            if (!request.getGitCommitHash().isEmpty()) {
-                task.setGitCommitHash(request.getGitCommitHash());
-            }
-            request.getGitPrUrl();
-            if (!request.getGitPrUrl().isEmpty()) {
-                task.setGitPrUrl(request.getGitPrUrl());
-                task.setGitPrStatus("OPEN"); // Assume OPEN if URL is sent
-            }
-
-            taskRepository.save(task);
-
-            activityLogRepository.save(ActivityLog.builder()
-                .taskId(task.getId())
-                .agentId(request.getAgentId())
-                .action("TASK_STATUS_UPDATE")
-                .details(Map.of(
-                    "status", request.getStatus(),
-                    "details", request.getDetails(),
-                    "git_branch", request.getGitBranch(),
-                    "git_commit", request.getGitCommitHash()
-                ))
-                .build());
-
-            // Broadcast to WebSocket
-            messagingTemplate.convertAndSend("/topic/tasks/" + task.getId(), Map.of(
-                "type", "STATUS_UPDATE",
-                "status", request.getStatus(),
-                "details", request.getDetails(),
-                "gitBranch", request.getGitBranch(),
-                "gitCommitHash", request.getGitCommitHash(),
-                "gitPrUrl", request.getGitPrUrl(),
-                "timestamp", java.time.LocalDateTime.now().toString()
-            ));
+        boolean applied = taskStatusUpdateService.applyUpdate(request);
+        responseObserver.onNext(UpdateTaskStatusResponse.newBuilder().setSuccess(applied).build());
+        responseObserver.onCompleted();
+    }
 
-            responseObserver.onNext(UpdateTaskStatusResponse.newBuilder().setSuccess(true).build());
-        }, () -> {
-            log.warn("Task not found: {}", request.getTaskId());
-            responseObserver.onNext(UpdateTaskStatusResponse.newBuilder().setSuccess(false).build());
-        });
+    @Override
+    public StreamObserver<TaskUpdateEnvelope> streamTaskUpdates(StreamObserver<TaskUpdateAck> responseObserver) {
+        return new TaskUpdateStreamObserver(
+            (ServerCallStreamObserver<TaskUpdateAck>) responseObserver, taskStatusUpdateService);
+    }
 
-        responseObserver.onCompleted();
+    @Override
+    public void watchAssignments(WatchAssignmentsRequest request, StreamObserver<Assignment> responseObserver) {
+        assignmentWatchService.watch(request.getAgentId(), request.getResumeAfter(),
+            (ServerCallStreamObserver<Assignment>) responseObserver);
     }
 }
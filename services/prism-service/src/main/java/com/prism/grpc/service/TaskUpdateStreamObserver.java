@@ -0,0 +1,81 @@
+package com.prism.grpc.service;
+
+import com.prism.grpc.TaskUpdateAck;
+import com.prism.grpc.TaskUpdateEnvelope;
+import com.prism.service.TaskStatusUpdateService;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StreamTaskUpdates 스트림 하나를 처리하는 Observer
+ *
+ * 자동 request를 끄고, 업데이트 하나를 처리해서 ack를 보낸 뒤에만 다음 메시지를 요청한다.
+ * 응답 버퍼가 차 있으면(isReady == false) onReady 콜백이 올 때까지 읽기를 멈춘다.
+ * gRPC가 onNext/onReady 호출을 직렬화하므로 ack는 수신 순서대로 나간다.
+ */
+@Slf4j
+class TaskUpdateStreamObserver implements StreamObserver<TaskUpdateEnvelope> {
+
+    private final ServerCallStreamObserver<TaskUpdateAck> responseObserver;
+    private final TaskStatusUpdateService taskStatusUpdateService;
+
+    // onReady 콜백과 onNext는 같은 직렬 executor에서 호출되므로 동기화가 필요 없다
+    private boolean wasReady = false;
+
+    TaskUpdateStreamObserver(ServerCallStreamObserver<TaskUpdateAck> responseObserver,
+                             TaskStatusUpdateService taskStatusUpdateService) {
+        this.responseObserver = responseObserver;
+        this.taskStatusUpdateService = taskStatusUpdateService;
+
+        responseObserver.disableAutoRequest();
+        responseObserver.setOnReadyHandler(this::onReady);
+        responseObserver.setOnCancelHandler(() -> log.info("Task update stream cancelled by client"));
+    }
+
+    private void onReady() {
+        if (responseObserver.isReady() && !wasReady) {
+            wasReady = true;
+            responseObserver.request(1);
+        }
+    }
+
+    @Override
+    public void onNext(TaskUpdateEnvelope envelope) {
+        TaskUpdateAck.Builder ack = TaskUpdateAck.newBuilder().setSequence(envelope.getSequence());
+        try {
+            if (taskStatusUpdateService.applyUpdate(envelope.getUpdate())) {
+                ack.setSuccess(true);
+            } else {
+                ack.setSuccess(false).setMessage("Task not found");
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to apply streamed update #{} for Task {}",
+                envelope.getSequence(), envelope.getUpdate().getTaskId(), e);
+            ack.setSuccess(false).setMessage(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+
+        if (responseObserver.isCancelled()) {
+            return;
+        }
+        responseObserver.onNext(ack.build());
+
+        if (responseObserver.isReady()) {
+            responseObserver.request(1);
+        } else {
+            wasReady = false;
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.warn("Task update stream failed: {}", t.getMessage());
+    }
+
+    @Override
+    public void onCompleted() {
+        if (!responseObserver.isCancelled()) {
+            responseObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.prism.repository;
+
+import com.prism.domain.ActivityBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ActivityBucketRepository extends MongoRepository<ActivityBucket, String>, ActivityBucketRepositoryCustom {
+
+    /**
+     * [fromId, toId) 범위의 버킷을 시간순으로 조회 (ActivityBucket.idFor로 만든 id 사용)
+     */
+    @Query(value = "{ '_id': { $gte: ?0, $lt: ?1 } }", sort = "{ '_id': 1 }")
+    List<ActivityBucket> findRange(String fromId, String toId);
+}
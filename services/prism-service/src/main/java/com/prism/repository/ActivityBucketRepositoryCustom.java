@@ -0,0 +1,22 @@
+package com.prism.repository;
+
+import com.prism.domain.ActivityBucket;
+import com.prism.domain.enums.BucketGranularity;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ActivityBucketRepositoryCustom {
+
+    /**
+     * 버킷별 증가분(count, cost, actions)을 unordered bulk upsert 한 번으로 $inc 한다
+     */
+    void incrementAll(Collection<ActivityBucket> deltas);
+
+    /**
+     * 해당 단위에서 before 이전에 시작한 버킷을 삭제한다
+     *
+     * @return 삭제된 버킷 수
+     */
+    long deleteOlderThan(BucketGranularity granularity, LocalDateTime before);
+}
@@ -0,0 +1,45 @@
+package com.prism.repository;
+
+import com.prism.domain.ActivityBucket;
+import com.prism.domain.enums.BucketGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+class ActivityBucketRepositoryCustomImpl implements ActivityBucketRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementAll(Collection<ActivityBucket> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ActivityBucket.class);
+        for (ActivityBucket delta : deltas) {
+            Update update = new Update()
+                .setOnInsert("granularity", delta.getGranularity())
+                .setOnInsert("bucketStart", delta.getBucketStart())
+                .inc("count", delta.getCount())
+                .inc("cost", delta.getCost());
+            delta.getActions().forEach((action, count) -> update.inc("actions." + action, count));
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public long deleteOlderThan(BucketGranularity granularity, LocalDateTime before) {
+        Query query = Query.query(Criteria.where("_id")
+            .gte(granularity.name() + ":")
+            .lt(ActivityBucket.idFor(granularity, before)));
+        return mongoTemplate.remove(query, ActivityBucket.class).getDeletedCount();
+    }
+}
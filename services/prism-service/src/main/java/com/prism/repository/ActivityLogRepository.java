@@ -4,8 +4,14 @@ import com.prism.domain.ActivityLog;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface ActivityLogRepository extends MongoRepository<ActivityLog, String> {
+public interface ActivityLogRepository extends MongoRepository<ActivityLog, String>, ActivityLogRepositoryCustom {
     List<ActivityLog> findByTaskId(String taskId);
+
+    /**
+     * 전체 타임라인을 최신순으로 커서 스트리밍 (호출 측에서 반드시 close)
+     */
+    Stream<ActivityLog> streamByTaskIdOrderByTimestampDescIdDesc(String taskId);
 }
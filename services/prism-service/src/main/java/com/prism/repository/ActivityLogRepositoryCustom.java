@@ -0,0 +1,16 @@
+package com.prism.repository;
+
+import com.prism.domain.ActivityLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ActivityLogRepositoryCustom {
+
+    /**
+     * Task 타임라인을 최신순(timestamp desc, _id desc)으로 limit건 조회한다.
+     * beforeTimestamp/beforeId가 주어지면 그 이벤트보다 오래된 것만 반환한다 (keyset).
+     * (taskId, timestamp desc, _id desc) 인덱스를 그대로 타므로 정렬 비용이 없다.
+     */
+    List<ActivityLog> findTimeline(String taskId, LocalDateTime beforeTimestamp, String beforeId, int limit);
+}
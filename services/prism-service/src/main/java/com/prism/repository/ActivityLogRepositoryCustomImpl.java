@@ -0,0 +1,33 @@
+package com.prism.repository;
+
+import com.prism.domain.ActivityLog;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ActivityLogRepositoryCustomImpl implements ActivityLogRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ActivityLog> findTimeline(String taskId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("taskId").is(taskId);
+        if (beforeTimestamp != null) {
+            Object id = ObjectId.isValid(beforeId) ? new ObjectId(beforeId) : beforeId;
+            criteria = criteria.orOperator(
+                Criteria.where("timestamp").lt(beforeTimestamp),
+                Criteria.where("timestamp").is(beforeTimestamp).and("_id").lt(id));
+        }
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "timestamp", "_id"))
+            .limit(limit);
+        return mongoTemplate.find(query, ActivityLog.class);
+    }
+}
@@ -1,9 +1,29 @@
 package com.prism.repository;
 
 import com.prism.domain.Agent;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AgentRepository extends JpaRepository<Agent, String> {
+
+    /**
+     * Agent 목록 (AgentResponse에 필요한 provider를 함께 조회)
+     */
+    @Override
+    @EntityGraph(attributePaths = "provider")
+    List<Agent> findAll();
+
+    /**
+     * Agent별 provider와 1k 토큰당 단가 (토큰 사용량 집계용)
+     * 결과: [agentId, providerId(null 가능), costPer1kTokens(null 가능)]
+     */
+    @Query("SELECT a.id, p.id, p.costPer1kTokens FROM Agent a LEFT JOIN a.provider p WHERE a.id IN :ids")
+    List<Object[]> findProviderRates(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,60 @@
+package com.prism.repository;
+
+import com.prism.domain.DocumentPublishJob;
+import com.prism.domain.enums.PublishJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentPublishJobRepository extends JpaRepository<DocumentPublishJob, String> {
+
+    /**
+     * 같은 Task/목적지로 진행 중인 Job (중복 요청 시 재사용)
+     */
+    Optional<DocumentPublishJob> findByActiveKey(String activeKey);
+
+    List<DocumentPublishJob> findByStatusIn(Collection<PublishJobStatus> statuses);
+
+    /**
+     * 실행 선점: 대기 시각이 된 QUEUED Job이나 lease가 끝난 RUNNING Job만 RUNNING으로 바꾼다.
+     * 여러 인스턴스가 동시에 호출해도 한 곳만 1을 받는다.
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE DocumentPublishJob j SET j.status = :running, j.claimToken = :claimToken, " +
+        "j.leaseUntil = :leaseUntil, j.attempts = j.attempts + 1, j.nextAttemptAt = null, j.updatedAt = :now " +
+        "WHERE j.id = :id AND ((j.status = :queued AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now)) " +
+        "OR (j.status = :running AND (j.leaseUntil IS NULL OR j.leaseUntil < :now)))")
+    int claim(@Param("id") String id,
+              @Param("claimToken") String claimToken,
+              @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("now") LocalDateTime now,
+              @Param("queued") PublishJobStatus queued,
+              @Param("running") PublishJobStatus running);
+
+    /**
+     * 선점한 시도의 결과 기록. 그 사이 lease가 끝나 다른 인스턴스가 선점했으면 0
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE DocumentPublishJob j SET j.status = :status, j.pageId = :pageId, j.lastError = :lastError, " +
+        "j.nextAttemptAt = :nextAttemptAt, j.activeKey = :activeKey, j.claimToken = null, j.leaseUntil = null, " +
+        "j.updatedAt = :now WHERE j.id = :id AND j.claimToken = :claimToken")
+    int release(@Param("id") String id,
+                @Param("claimToken") String claimToken,
+                @Param("status") PublishJobStatus status,
+                @Param("pageId") String pageId,
+                @Param("lastError") String lastError,
+                @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                @Param("activeKey") String activeKey,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,31 @@
+package com.prism.repository;
+
+import com.prism.domain.TaskLogSegment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskLogSegmentRepository extends JpaRepository<TaskLogSegment, Long> {
+
+    /**
+     * offset 바이트를 포함하거나 그 이후에 있는 세그먼트를 순서대로 조회
+     */
+    @Query("SELECT s FROM TaskLogSegment s WHERE s.taskId = :taskId " +
+           "AND s.endOffset > :offset ORDER BY s.endOffset")
+    List<TaskLogSegment> findFromOffset(
+        @Param("taskId") String taskId,
+        @Param("offset") long offset,
+        Pageable pageable
+    );
+
+    /**
+     * 마지막 세그먼트 (다음 sequence / 전체 크기 계산용)
+     */
+    Optional<TaskLogSegment> findFirstByTaskIdOrderBySequenceNoDesc(String taskId);
+}
@@ -3,16 +3,34 @@ package com.prism.repository;
 import com.prism.domain.Task;
 import com.prism.domain.enums.GitPhase;
 import com.prism.domain.enums.TaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, String> {
 
+    /**
+     * 상세 조회용: TaskResponse에 필요한 연관(assignedTo, project)을 함께 조회 (SQL 1회)
+     */
+    @EntityGraph(Task.RESPONSE_GRAPH)
+    Optional<Task> findWithAssociationsById(String id);
+
+    /**
+     * 검색 결과 페이지용: 여러 Task를 연관과 함께 조회 (순서는 보장하지 않는다)
+     */
+    @EntityGraph(Task.RESPONSE_GRAPH)
+    List<Task> findWithAssociationsByIdIn(Collection<String> ids);
+
     // ========== 레거시 메서드 (기존 호환성 유지) ==========
     
     @Query("SELECT t FROM Task t WHERE " +
@@ -25,6 +43,34 @@ public interface TaskRepository extends JpaRepository<Task, String> {
         @Param("agentId") String agentId
     );
 
+    /**
+     * 목록 조회용 keyset 페이지 (createdAt DESC, id DESC)
+     *
+     * 레거시 status와 TaskStatus/GitPhase 필터를 함께 지원한다.
+     * cursorCreatedAt/cursorId는 이전 페이지의 마지막 Task이며, 첫 페이지는 null.
+     * 페이지 크기는 pageable의 size만 사용한다 (count 쿼리 없음).
+     */
+    @EntityGraph(Task.RESPONSE_GRAPH)
+    @Query("SELECT t FROM Task t WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(:taskStatus IS NULL OR t.taskStatus = :taskStatus) AND " +
+           "(:gitPhase IS NULL OR t.gitPhase = :gitPhase) AND " +
+           "(:priority IS NULL OR t.priority = :priority) AND " +
+           "(:agentId IS NULL OR t.assignedTo.id = :agentId) AND " +
+           "(:cursorCreatedAt IS NULL OR t.createdAt < :cursorCreatedAt OR " +
+           " (t.createdAt = :cursorCreatedAt AND t.id < :cursorId)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Task> findPage(
+        @Param("status") String status,
+        @Param("taskStatus") TaskStatus taskStatus,
+        @Param("gitPhase") GitPhase gitPhase,
+        @Param("priority") String priority,
+        @Param("agentId") String agentId,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") String cursorId,
+        Pageable pageable
+    );
+
     @Query("SELECT t.status, COUNT(t) FROM Task t GROUP BY t.status")
     List<Object[]> countTasksByStatus();
     
@@ -82,9 +128,19 @@ public interface TaskRepository extends JpaRepository<Task, String> {
         @Param("taskStatus") TaskStatus taskStatus
     );
     
+    /**
+     * Agent별 대기(TODO)/실행 중(IN_PROGRESS) Task 수 (AgentLoadBalancer 초기화/보정용)
+     * 결과: [agentId, status, count]
+     */
+    @Query("SELECT t.assignedTo.id, t.status, COUNT(t) FROM Task t " +
+           "WHERE t.assignedTo IS NOT NULL AND t.status IN ('TODO', 'IN_PROGRESS') " +
+           "GROUP BY t.assignedTo.id, t.status")
+    List<Object[]> countOpenTasksByAgent();
+    
     /**
      * 사용자 승인 대기 중인 Task 조회 (GENERATED, COMMIT_PENDING, PUSH_PENDING)
      */
+    @EntityGraph(Task.RESPONSE_GRAPH)
     @Query("SELECT t FROM Task t WHERE t.taskStatus IN ('GENERATED', 'COMMIT_PENDING', 'PUSH_PENDING') " +
            "AND (:agentId IS NULL OR t.assignedTo.id = :agentId) " +
            "ORDER BY t.createdAt DESC")
@@ -107,4 +163,46 @@ public interface TaskRepository extends JpaRepository<Task, String> {
      */
     @Query("SELECT t FROM Task t WHERE t.gitPhase = 'PR_CREATED' AND t.gitPrUrl IS NOT NULL")
     List<Task> findTasksWithPR();
+
+    /**
+     * Notion 페이지 ID만 갱신 (엔티티를 로드하지 않는 짧은 UPDATE)
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.notionPageId = :pageId, t.updatedAt = :updatedAt, t.version = t.version + 1 WHERE t.id = :taskId")
+    int updateNotionPageId(@Param("taskId") String taskId,
+                           @Param("pageId") String pageId,
+                           @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 하위 Task keyset 페이지 (task_closure 조인 한 번). depth 1..maxDepth, (depth, createdAt, id) 오름차순.
+     * cursorDepth/cursorCreatedAt/cursorId는 이전 페이지의 마지막 항목이며, 첫 페이지는 null.
+     * 결과: [Task(assignedTo/project 포함), depth]
+     */
+    @Query("SELECT t, c.depth FROM Task t LEFT JOIN FETCH t.assignedTo LEFT JOIN FETCH t.project " +
+           "JOIN TaskClosure c ON c.descendantId = t.id " +
+           "WHERE c.ancestorId = :ancestorId AND c.depth BETWEEN 1 AND :maxDepth AND " +
+           "(:cursorDepth IS NULL OR c.depth > :cursorDepth OR (c.depth = :cursorDepth AND " +
+           " (t.createdAt > :cursorCreatedAt OR (t.createdAt = :cursorCreatedAt AND t.id > :cursorId)))) " +
+           "ORDER BY c.depth, t.createdAt, t.id")
+    List<Object[]> findSubtree(@Param("ancestorId") String ancestorId,
+                               @Param("maxDepth") int maxDepth,
+                               @Param("cursorDepth") Integer cursorDepth,
+                               @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                               @Param("cursorId") String cursorId,
+                               Pageable pageable);
+
+    /**
+     * 하위 Task(자기 자신 제외)의 status/taskStatus별 수 (롤업 캐시를 채울 때)
+     * 결과: [status, taskStatus, count]
+     */
+    @Query("SELECT t.status, t.taskStatus, COUNT(t) FROM Task t JOIN TaskClosure c ON c.descendantId = t.id " +
+           "WHERE c.ancestorId = :ancestorId AND c.depth > 0 GROUP BY t.status, t.taskStatus")
+    List<Object[]> countSubtreeByStatus(@Param("ancestorId") String ancestorId);
+
+    /**
+     * Task별 project (토큰 사용량 집계용)
+     * 결과: [taskId, projectId(null 가능)]
+     */
+    @Query("SELECT t.id, p.id FROM Task t LEFT JOIN t.project p WHERE t.id IN :ids")
+    List<Object[]> findProjectIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,46 @@
+package com.prism.repository;
+
+import com.prism.domain.TokenUsageDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface TokenUsageDailyRepository extends JpaRepository<TokenUsageDaily, Long> {
+
+    /**
+     * 전체 누적 (DashboardCounters 보정용)
+     * 결과: [totalTokens, totalCost] 한 행
+     */
+    @Query("SELECT COALESCE(SUM(u.promptTokens + u.completionTokens), 0), COALESCE(SUM(u.cost), 0) " +
+           "FROM TokenUsageDaily u")
+    List<Object[]> sumTotals();
+
+    /**
+     * 기간 [from, to] 동안 Agent별 합계
+     * 결과: [agentId, promptTokens, completionTokens, cost]
+     */
+    @Query("SELECT u.agentId, SUM(u.promptTokens), SUM(u.completionTokens), SUM(u.cost) " +
+           "FROM TokenUsageDaily u WHERE u.usageDate BETWEEN :from AND :to GROUP BY u.agentId")
+    List<Object[]> sumByAgent(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 기간 [from, to] 동안 Provider별 합계
+     * 결과: [providerId, promptTokens, completionTokens, cost]
+     */
+    @Query("SELECT u.providerId, SUM(u.promptTokens), SUM(u.completionTokens), SUM(u.cost) " +
+           "FROM TokenUsageDaily u WHERE u.usageDate BETWEEN :from AND :to GROUP BY u.providerId")
+    List<Object[]> sumByProvider(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 기간 [from, to] 동안 Project별 합계
+     * 결과: [projectId, promptTokens, completionTokens, cost]
+     */
+    @Query("SELECT u.projectId, SUM(u.promptTokens), SUM(u.completionTokens), SUM(u.cost) " +
+           "FROM TokenUsageDaily u WHERE u.usageDate BETWEEN :from AND :to GROUP BY u.projectId")
+    List<Object[]> sumByProject(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -4,9 +4,13 @@ import com.prism.domain.Agent;
 import com.prism.domain.AiProvider;
 import com.prism.domain.User;
 import com.prism.dto.CreateAgentRequest;
+import com.prism.dto.AgentDispatchStats;
 import com.prism.dto.AgentResponse;
 import com.prism.repository.AgentRepository;
 import com.prism.repository.AiProviderRepository;
+import com.prism.service.dispatch.AgentDispatchQueue;
+import com.prism.service.dispatch.AgentLoadBalancer;
+import com.prism.service.presence.AgentPresenceRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +24,9 @@ public class AgentService {
     private final AgentRepository agentRepository;
     private final AiProviderRepository aiProviderRepository;
     private final MockUserService mockUserService;
+    private final AgentDispatchQueue agentDispatchQueue;
+    private final AgentLoadBalancer agentLoadBalancer;
+    private final AgentPresenceRegistry agentPresenceRegistry;
 
     @Transactional
     public AgentResponse createAgent(CreateAgentRequest request) {
@@ -49,13 +56,42 @@ public class AgentService {
             .createdBy(currentUser)
             .build();
 
-        return AgentResponse.from(agentRepository.save(agent));
+        Agent saved = agentRepository.save(agent);
+        agentLoadBalancer.agentSaved(saved);
+        return AgentResponse.from(saved);
     }
 
     @Transactional(readOnly = true)
     public List<AgentResponse> getAllAgents() {
         return agentRepository.findAll().stream()
-            .map(AgentResponse::from)
+            .map(agent -> AgentResponse.from(agent, agentPresenceRegistry.get(agent.getId()).orElse(null)))
             .collect(Collectors.toList());
     }
+
+    /**
+     * Agent 배정 스트림의 pending/lag 조회
+     */
+    @Transactional(readOnly = true)
+    public AgentDispatchStats getDispatchStats(String agentId) {
+        if (!agentRepository.existsById(agentId)) {
+            throw new IllegalArgumentException("Invalid Agent ID");
+        }
+        return withLiveState(agentDispatchQueue.stats(agentId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AgentDispatchStats> getAllDispatchStats() {
+        return agentRepository.findAll().stream()
+            .map(agent -> withLiveState(agentDispatchQueue.stats(agent.getId())))
+            .collect(Collectors.toList());
+    }
+
+    private AgentDispatchStats withLiveState(AgentDispatchStats stats) {
+        stats.setOnline(agentPresenceRegistry.isOnline(stats.getAgentId()));
+        agentLoadBalancer.load(stats.getAgentId()).ifPresent(load -> {
+            stats.setAssignedQueued(load.getQueued().get());
+            stats.setAssignedRunning(load.getRunning().get());
+        });
+        return stats;
+    }
 }
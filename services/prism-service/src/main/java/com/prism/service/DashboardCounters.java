@@ -0,0 +1,222 @@
+package com.prism.service;
+
+import com.prism.domain.Task;
+import com.prism.repository.TaskRepository;
+import com.prism.repository.TokenUsageDailyRepository;
+import com.prism.service.sideeffect.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 대시보드 Task 카운터 (Redis hash)
+ *
+ * Task 생성/상태 전이 때마다 delta만 HINCRBY로 반영하므로 getStats는 GROUP BY 없이 hash 하나만 읽는다.
+ * taskStatus/gitPhase는 생성 이후 바꾸는 경로가 없으므로 생성 때만 더하고 나머지는 reconcile()이 맞춘다.
+ * 여러 필드의 delta는 Lua 스크립트 한 번으로 원자적으로 적용되어 모든 replica가 같은 값을 본다.
+ * 토큰 사용량(tokens)과 비용(costMicros, 1/1,000,000 달러 단위)도 같은 hash에 누적한다 (UsageAccumulator flush 시).
+ * Redis 장애나 경합으로 생긴 오차는 주기적인 reconcile()이 MySQL 집계로 덮어써서 바로잡는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardCounters {
+
+    static final String KEY = "prism:dashboard:task-counters";
+
+    private static final String TOTAL = "total";
+    private static final String STATUS_PREFIX = "status:";
+    private static final String TASK_STATUS_PREFIX = "taskStatus:";
+    private static final String GIT_PHASE_PREFIX = "gitPhase:";
+    private static final String TOKENS = "tokens";
+    private static final String COST_MICROS = "costMicros";
+
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+        "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+        "return 1", Long.class);
+
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('DEL', KEYS[1]) " +
+        "for i = 1, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+        "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TaskRepository taskRepository;
+    private final TokenUsageDailyRepository tokenUsageDailyRepository;
+
+    /**
+     * 카운터 스냅샷 (0인 항목은 제외)
+     */
+    public record Snapshot(long total,
+                           Map<String, Long> byStatus,
+                           Map<String, Long> byTaskStatus,
+                           Map<String, Long> byGitPhase,
+                           long totalTokens,
+                           long costMicros) {
+
+        public double totalCost() {
+            return costMicros / 1_000_000.0;
+        }
+    }
+
+    /**
+     * 여러 카운터 변화량을 모으는 빌더
+     */
+    public static class Delta {
+        private final Map<String, Long> fields = new LinkedHashMap<>();
+
+        public Delta taskCreated(Task task) {
+            add(TOTAL, 1);
+            add(STATUS_PREFIX + task.getStatus(), 1);
+            add(TASK_STATUS_PREFIX + task.getTaskStatus(), 1);
+            add(GIT_PHASE_PREFIX + task.getGitPhase(), 1);
+            return this;
+        }
+
+        public Delta statusChanged(String from, String to) {
+            return transition(STATUS_PREFIX, from, to);
+        }
+
+        public Delta usageRecorded(long tokens, long costMicros) {
+            add(TOKENS, tokens);
+            add(COST_MICROS, costMicros);
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return fields.values().stream().allMatch(v -> v == 0);
+        }
+
+        private Delta transition(String prefix, String from, String to) {
+            if (!Objects.equals(from, to)) {
+                add(prefix + from, -1);
+                add(prefix + to, 1);
+            }
+            return this;
+        }
+
+        private void add(String field, long delta) {
+            fields.merge(field, delta, Long::sum);
+        }
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에, 아니면 즉시 반영한다 (롤백된 변경은 카운트하지 않는다)
+     */
+    public void apply(Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> applyNow(delta));
+    }
+
+    private void applyNow(Delta delta) {
+        try {
+            redisTemplate.execute(INCREMENT_SCRIPT, List.of(KEY), toArgs(delta.fields));
+        } catch (RuntimeException e) {
+            // 다음 reconcile()에서 보정된다
+            log.warn("Failed to update dashboard counters: {}", e.getMessage());
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<String, String> entries;
+        try {
+            HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+            entries = hash.entries(KEY);
+        } catch (RuntimeException e) {
+            log.warn("Dashboard counters unavailable, counting from database: {}", e.getMessage());
+            return toSnapshot(countFromDatabase());
+        }
+        if (entries == null || entries.isEmpty()) {
+            // Redis가 비어 있으면 (최초 기동, flush 등) 즉시 채운다
+            return toSnapshot(reconcile());
+        }
+        Map<String, Long> fields = new HashMap<>();
+        entries.forEach((field, value) -> fields.put(field, Long.parseLong(value)));
+        return toSnapshot(fields);
+    }
+
+    @Scheduled(initialDelayString = "${prism.dashboard.reconcile-initial-delay-ms:10000}",
+               fixedDelayString = "${prism.dashboard.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * MySQL 집계로 카운터를 통째로 다시 쓴다 (드리프트 보정)
+     *
+     * @return 기록한 카운터 값
+     */
+    public Map<String, Long> reconcile() {
+        Map<String, Long> fields = countFromDatabase();
+        try {
+            redisTemplate.execute(REPLACE_SCRIPT, List.of(KEY), toArgs(fields));
+            log.debug("Reconciled dashboard counters: {}", fields);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile dashboard counters: {}", e.getMessage());
+        }
+        return fields;
+    }
+
+    private Map<String, Long> countFromDatabase() {
+        Map<String, Long> fields = new LinkedHashMap<>();
+        fields.put(TOTAL, taskRepository.count());
+        taskRepository.countTasksByStatus().forEach(row -> fields.put(STATUS_PREFIX + row[0], (Long) row[1]));
+        taskRepository.countTasksByTaskStatus().forEach(row -> fields.put(TASK_STATUS_PREFIX + row[0], (Long) row[1]));
+        taskRepository.countTasksByGitPhase().forEach(row -> fields.put(GIT_PHASE_PREFIX + row[0], (Long) row[1]));
+        for (Object[] row : tokenUsageDailyRepository.sumTotals()) {
+            fields.put(TOKENS, ((Number) row[0]).longValue());
+            fields.put(COST_MICROS, toMicros(row[1]));
+        }
+        return fields;
+    }
+
+    private static long toMicros(Object cost) {
+        return cost instanceof BigDecimal decimal
+            ? decimal.movePointRight(6).longValue()
+            : Math.round(((Number) cost).doubleValue() * 1_000_000);
+    }
+
+    private static Object[] toArgs(Map<String, Long> fields) {
+        List<String> args = new ArrayList<>(fields.size() * 2);
+        fields.forEach((field, value) -> {
+            args.add(field);
+            args.add(String.valueOf(value));
+        });
+        return args.toArray();
+    }
+
+    private static Snapshot toSnapshot(Map<String, Long> fields) {
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byTaskStatus = new HashMap<>();
+        Map<String, Long> byGitPhase = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (value <= 0) {
+                return;
+            }
+            if (field.startsWith(STATUS_PREFIX)) {
+                byStatus.put(field.substring(STATUS_PREFIX.length()), value);
+            } else if (field.startsWith(TASK_STATUS_PREFIX)) {
+                byTaskStatus.put(field.substring(TASK_STATUS_PREFIX.length()), value);
+            } else if (field.startsWith(GIT_PHASE_PREFIX)) {
+                byGitPhase.put(field.substring(GIT_PHASE_PREFIX.length()), value);
+            }
+        });
+        return new Snapshot(fields.getOrDefault(TOTAL, 0L), byStatus, byTaskStatus, byGitPhase,
+            Math.max(0, fields.getOrDefault(TOKENS, 0L)), Math.max(0, fields.getOrDefault(COST_MICROS, 0L)));
+    }
+}
@@ -1,67 +1,153 @@
 package com.prism.service;
 
-import com.prism.repository.TaskRepository;
+import com.prism.domain.ActivityBucket;
+import com.prism.domain.enums.BucketGranularity;
 import com.prism.repository.ActivityLogRepository;
-import com.prism.domain.Task;
+import com.prism.repository.TokenUsageDailyRepository;
+import com.prism.service.activity.ActivityRollupService;
+import com.prism.service.presence.AgentPresenceRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.Cacheable;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.math.BigDecimal;
 
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
-    private final TaskRepository taskRepository;
     private final ActivityLogRepository activityLogRepository;
+    private final DashboardCounters dashboardCounters;
+    private final ActivityRollupService activityRollupService;
+    private final AgentPresenceRegistry agentPresenceRegistry;
+    private final TokenUsageDailyRepository tokenUsageDailyRepository;
 
-    @Cacheable("dashboardStats")
+    private static final Map<BucketGranularity, Duration> DEFAULT_RANGES = Map.of(
+        BucketGranularity.MINUTE, Duration.ofHours(1),
+        BucketGranularity.HOUR, Duration.ofHours(24),
+        BucketGranularity.DAY, Duration.ofDays(7)
+    );
+
+    /**
+     * Redis 카운터 hash 하나와 메모리의 Agent presence만 읽으므로 별도 캐시 없이 O(1)이다
+     * (DashboardCounters, AgentPresenceRegistry 참고)
+     */
     public Map<String, Object> getStats() {
         Map<String, Object> stats = new HashMap<>();
-        long totalTasks = taskRepository.count();
+        DashboardCounters.Snapshot counters = dashboardCounters.snapshot();
 
-        List<Object[]> statusCounts = taskRepository.countTasksByStatus();
-        Map<String, Long> tasksByStatus = statusCounts.stream()
-            .collect(Collectors.toMap(
-                row -> (String) row[0],
-                row -> (Long) row[1]
-            ));
+        stats.put("totalTasks", counters.total());
+        stats.put("tasksByStatus", counters.byStatus());
+        stats.put("tasksByTaskStatus", counters.byTaskStatus());
+        stats.put("tasksByGitPhase", counters.byGitPhase());
+
+        stats.put("activeAgents", agentPresenceRegistry.onlineCount());
 
-        stats.put("totalTasks", totalTasks);
-        stats.put("tasksByStatus", tasksByStatus);
+        stats.put("totalTokens", counters.totalTokens());
+        stats.put("totalCost", Math.round(counters.totalCost() * 100) / 100.0);
 
         // Mock data for metrics not yet fully tracked
-        stats.put("activeAgents", 3);
-        stats.put("totalCost", 15.42);
         stats.put("avgCompletionTimeHours", 4.5);
 
         return stats;
     }
 
-    @Cacheable(value = "dashboardCharts", key = "#type")
-    public Map<String, Object> getChartData(String type) {
+    /**
+     * 차트 데이터 (ActivityRollupService의 시간 버킷만 읽는다)
+     *
+     * @param type activity(이벤트 수) 또는 cost(비용 합계)
+     * @param granularity 버킷 단위
+     * @param range 조회 구간 ("7d", "24h", "90m"). 없으면 단위별 기본값, 현재 버킷까지 포함한다
+     */
+    @Cacheable(value = "dashboardCharts", key = "#type + ':' + #granularity + ':' + #range")
+    public Map<String, Object> getChartData(String type, BucketGranularity granularity, String range) {
+        if (!"activity".equals(type) && !"cost".equals(type)) {
+            return Map.of();
+        }
+
+        Duration duration = range != null ? parseRange(range) : DEFAULT_RANGES.get(granularity);
+        long points = duration.dividedBy(granularity.getUnit().getDuration());
+        if (points < 1 || points > ActivityRollupService.MAX_POINTS) {
+            throw new IllegalArgumentException("Range must cover 1 to " + ActivityRollupService.MAX_POINTS
+                + " " + granularity.name().toLowerCase() + " buckets");
+        }
+
+        LocalDateTime to = granularity.truncate(LocalDateTime.now()).plus(1, granularity.getUnit());
+        LocalDateTime from = to.minus(points, granularity.getUnit());
+        List<ActivityBucket> buckets = activityRollupService.series(granularity, from, to);
+
+        List<String> labels = buckets.stream().map(b -> granularity.label(b.getBucketStart())).toList();
         if ("activity".equals(type)) {
-             // In a real app, aggregation over ActivityLog by date
-             return Map.of(
-                 "labels", List.of("Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"),
-                 "datasets", List.of(Map.of(
-                     "label", "Activities",
-                     "data", List.of(12, 19, 3, 5, 2, 8, 15),
-                     "backgroundColor", "#3B82F6"
-                 ))
-             );
-        } else if ("cost".equals(type)) {
-             return Map.of(
-                 "labels", List.of("Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"),
-                 "datasets", List.of(Map.of(
-                     "label", "Cost ($)",
-                     "data", List.of(1.2, 2.5, 0.5, 1.0, 0.8, 3.2, 1.5),
-                     "backgroundColor", "#EF4444"
-                 ))
-             );
+            return Map.of(
+                "labels", labels,
+                "datasets", List.of(Map.of(
+                    "label", "Activities",
+                    "data", buckets.stream().map(ActivityBucket::getCount).toList(),
+                    "backgroundColor", "#3B82F6"
+                ))
+            );
+        }
+        return Map.of(
+            "labels", labels,
+            "datasets", List.of(Map.of(
+                "label", "Cost ($)",
+                "data", buckets.stream().map(b -> Math.round(b.getCost() * 100) / 100.0).toList(),
+                "backgroundColor", "#EF4444"
+            ))
+        );
+    }
+
+    /**
+     * 최근 days일(오늘 포함) 토큰 사용량/비용 합계 (token_usage_daily 일별 집계만 읽는다)
+     *
+     * @param groupBy agent, provider, project 중 하나. 값이 없는 차원은 빈 문자열 id로 묶인다
+     */
+    public List<Map<String, Object>> getUsage(String groupBy, int days) {
+        if (days < 1 || days > 366) {
+            throw new IllegalArgumentException("Days must be between 1 and 366");
+        }
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(days - 1L);
+        List<Object[]> rows = switch (groupBy) {
+            case "agent" -> tokenUsageDailyRepository.sumByAgent(from, to);
+            case "provider" -> tokenUsageDailyRepository.sumByProvider(from, to);
+            case "project" -> tokenUsageDailyRepository.sumByProject(from, to);
+            default -> throw new IllegalArgumentException("Invalid groupBy: " + groupBy);
+        };
+
+        List<Map<String, Object>> usage = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            usage.add(Map.of(
+                "id", row[0],
+                "promptTokens", row[1],
+                "completionTokens", row[2],
+                "cost", ((BigDecimal) row[3]).doubleValue()
+            ));
+        }
+        return usage;
+    }
+
+    // "7d", "24h", "90m" 형식
+    static Duration parseRange(String range) {
+        if (range.length() < 2) {
+            throw new IllegalArgumentException("Invalid range: " + range);
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(range.substring(0, range.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid range: " + range);
         }
-        return Map.of();
+        return switch (range.charAt(range.length() - 1)) {
+            case 'd' -> Duration.ofDays(amount);
+            case 'h' -> Duration.ofHours(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Invalid range: " + range);
+        };
     }
 }
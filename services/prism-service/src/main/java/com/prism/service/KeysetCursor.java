@@ -0,0 +1,55 @@
+package com.prism.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 시각 기준 keyset 커서 ([depth,] at, id)
+ *
+ * 마지막으로 받은 항목을 가리키며, 다음 페이지는 그 다음 항목부터 시작한다.
+ * Task 목록은 (createdAt, id), Task 타임라인은 (timestamp, activity id), 하위 Task 목록은 (depth, createdAt, id)로 쓴다.
+ * depth는 하위 Task 목록에서만 쓰고 나머지는 null이다.
+ * 클라이언트에는 Base64(URL-safe) 문자열로만 노출되며, 내용에 의존하지 않도록 한다.
+ */
+public record KeysetCursor(Integer depth, LocalDateTime at, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public KeysetCursor(LocalDateTime at, String id) {
+        this(null, at, id);
+    }
+
+    public String encode() {
+        String raw = (depth != null ? depth + SEPARATOR : "") + at + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return cursor가 비어 있으면 null (첫 페이지)
+     */
+    public static KeysetCursor decodeOrNull(String cursor) {
+        return cursor != null && !cursor.isBlank() ? decode(cursor) : null;
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Integer depth = null;
+            int separator = raw.indexOf(SEPARATOR);
+            // 시각은 '-'를 포함하므로 숫자만 있는 첫 구간은 depth다
+            if (separator > 0 && raw.substring(0, separator).chars().allMatch(Character::isDigit)) {
+                depth = Integer.parseInt(raw.substring(0, separator));
+                raw = raw.substring(separator + 1);
+                separator = raw.indexOf(SEPARATOR);
+            }
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(depth, LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.prism.service;
+
+import com.prism.domain.ActivityLog;
+import com.prism.domain.Agent;
+import com.prism.domain.Project;
+import com.prism.domain.Task;
+import com.prism.domain.User;
+import com.prism.domain.enums.AgentCapability;
+import com.prism.dto.BulkCreateTaskResponse;
+import com.prism.dto.CreateTaskRequest;
+import com.prism.dto.TaskResponse;
+import com.prism.repository.AgentRepository;
+import com.prism.repository.ProjectRepository;
+import com.prism.service.dispatch.AgentDispatchQueue;
+import com.prism.service.dispatch.AgentLoadBalancer;
+import com.prism.service.hierarchy.TaskHierarchyService;
+import com.prism.service.search.TaskSearchIndex;
+import com.prism.service.sideeffect.SideEffectExecutor;
+import com.prism.service.sideeffect.SideEffectExecutor.Sink;
+import com.prism.service.update.TaskUpdateWriteBehind;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Task 일괄 생성 (backlog import 등)
+ *
+ * 단건 생성(TaskService.createTask)과 같은 규칙을 따르되, 참조하는 Project/Agent를 한 번씩만 조회하고
+ * Task는 JDBC batch INSERT로 쓰고, 커밋 후 대시보드 카운터와 WebSocket 알림을 SideEffectExecutor에서 병렬로
+ * 한 번씩 실행한다. 버려지면 안 되는 것은 따로 쓴다: Agent 배정 스트림은 AgentDispatchQueue가 커밋 직후 호출
+ * 스레드에서 Redis 파이프라인 한 번으로, ActivityLog는 TaskUpdateWriteBehind가 다음 flush에서 insertMany로 쓴다.
+ * 잘못된 항목(없는 Project/Agent/상위 Task, 배정 가능한 Agent 없음)은 그 항목만 실패로 돌려주고 나머지는 생성한다.
+ */
+@Slf4j
+@Service
+public class TaskBulkService {
+
+    private static final String INSERT_SQL = "INSERT INTO tasks " +
+        "(id, title, description, priority, status, task_status, git_phase, project_id, assigned_to, created_by, " +
+        "auto_commit, auto_push, created_at, updated_at, parent_task_id, last_activity_id, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProjectRepository projectRepository;
+    private final AgentRepository agentRepository;
+    private final MockUserService mockUserService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DashboardCounters dashboardCounters;
+    private final AgentDispatchQueue agentDispatchQueue;
+    private final AgentLoadBalancer agentLoadBalancer;
+    private final SideEffectExecutor sideEffectExecutor;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskHierarchyService taskHierarchyService;
+    private final TaskUpdateWriteBehind taskUpdateWriteBehind;
+    private final int maxItems;
+    private final int batchSize;
+
+    public TaskBulkService(JdbcTemplate jdbcTemplate,
+                           ProjectRepository projectRepository,
+                           AgentRepository agentRepository,
+                           MockUserService mockUserService,
+                           SimpMessagingTemplate messagingTemplate,
+                           DashboardCounters dashboardCounters,
+                           AgentDispatchQueue agentDispatchQueue,
+                           AgentLoadBalancer agentLoadBalancer,
+                           SideEffectExecutor sideEffectExecutor,
+                           TaskSearchIndex taskSearchIndex,
+                           TaskHierarchyService taskHierarchyService,
+                           TaskUpdateWriteBehind taskUpdateWriteBehind,
+                           @Value("${prism.task-bulk.max-items:5000}") int maxItems,
+                           @Value("${prism.task-bulk.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.projectRepository = projectRepository;
+        this.agentRepository = agentRepository;
+        this.mockUserService = mockUserService;
+        this.messagingTemplate = messagingTemplate;
+        this.dashboardCounters = dashboardCounters;
+        this.agentDispatchQueue = agentDispatchQueue;
+        this.agentLoadBalancer = agentLoadBalancer;
+        this.sideEffectExecutor = sideEffectExecutor;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskHierarchyService = taskHierarchyService;
+        this.taskUpdateWriteBehind = taskUpdateWriteBehind;
+        this.maxItems = maxItems;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public BulkCreateTaskResponse createTasks(List<CreateTaskRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No tasks to create");
+        }
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Too many tasks: at most " + maxItems + " per request");
+        }
+        User currentUser = mockUserService.getCurrentUser();
+
+        Map<String, Project> projects = byId(projectRepository.findAllById(referenced(requests, CreateTaskRequest::getProjectId)),
+            Project::getId);
+        Map<String, Agent> agents = byId(agentRepository.findAllById(referenced(requests, CreateTaskRequest::getAssignedTo)),
+            Agent::getId);
+        Set<String> parents = taskHierarchyService.existing(referenced(requests, CreateTaskRequest::getParentTaskId));
+        // MVP: projectId가 없으면 단건 생성과 마찬가지로 첫 번째 Project를 쓴다
+        Project defaultProject = requests.stream().anyMatch(r -> isBlank(r.getProjectId()))
+            ? projectRepository.findAll().stream().findFirst().orElse(null)
+            : null;
+
+        List<Task> tasks = new ArrayList<>();
+        List<BulkCreateTaskResponse.ItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                Task task = buildTask(requests.get(i), currentUser, projects, agents, parents, defaultProject);
+                tasks.add(task);
+                results.add(BulkCreateTaskResponse.ItemResult.builder()
+                    .index(i).success(true).task(TaskResponse.from(task)).build());
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(BulkCreateTaskResponse.ItemResult.builder()
+                    .index(i).success(false).error(e.getMessage()).build());
+            }
+        }
+
+        if (!tasks.isEmpty()) {
+            persist(tasks, currentUser);
+        }
+        log.info("Bulk created {} of {} tasks", tasks.size(), requests.size());
+
+        return BulkCreateTaskResponse.builder()
+            .created(tasks.size())
+            .failed(requests.size() - tasks.size())
+            .results(results)
+            .build();
+    }
+
+    private Task buildTask(CreateTaskRequest request, User currentUser, Map<String, Project> projects,
+                           Map<String, Agent> agents, Set<String> parents, Project defaultProject) {
+        Project project;
+        if (isBlank(request.getProjectId())) {
+            if (defaultProject == null) {
+                throw new IllegalStateException("No projects found. Init failed?");
+            }
+            project = defaultProject;
+        } else {
+            project = projects.get(request.getProjectId());
+            if (project == null) {
+                throw new IllegalArgumentException("Invalid Project ID");
+            }
+        }
+
+        String parentTaskId = isBlank(request.getParentTaskId()) ? null : request.getParentTaskId();
+        if (parentTaskId != null && !parents.contains(parentTaskId)) {
+            throw new IllegalArgumentException("Invalid Parent Task ID");
+        }
+
+        // 배정은 항목 검증이 끝난 뒤에 해야 실패한 항목이 Agent 부하에 잡히지 않는다
+        Agent assignedAgent = null;
+        if (request.getAssignedTo() != null) {
+            assignedAgent = agents.get(request.getAssignedTo());
+            if (assignedAgent == null) {
+                throw new IllegalArgumentException("Invalid Agent ID");
+            }
+            agentLoadBalancer.assigned(assignedAgent.getId());
+        } else if (Boolean.TRUE.equals(request.getAutoAssign())) {
+            Set<AgentCapability> required = request.getRequiredCapabilities() != null
+                ? request.getRequiredCapabilities() : Set.of(AgentCapability.WRITE_CODE);
+            assignedAgent = agentLoadBalancer.assign(request.getAgentRole(), required)
+                .orElseThrow(() -> new IllegalArgumentException("No eligible agent for role " + request.getAgentRole()));
+        }
+
+        Task.TaskBuilder builder = Task.builder()
+            .id(UUID.randomUUID().toString())
+            .title(request.getTitle())
+            .description(request.getDescription())
+            .project(project)
+            .assignedTo(assignedAgent)
+            .createdBy(currentUser)
+            .parentTaskId(parentTaskId)
+            .lastActivityId(new ObjectId().toHexString());
+        if (request.getPriority() != null) {
+            builder.priority(request.getPriority());
+        }
+        return builder.build();
+    }
+
+    private void persist(List<Task> tasks, User currentUser) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, tasks, batchSize, (ps, task) -> {
+            ps.setString(1, task.getId());
+            ps.setString(2, task.getTitle());
+            ps.setString(3, task.getDescription());
+            ps.setString(4, task.getPriority());
+            ps.setString(5, task.getStatus());
+            ps.setString(6, task.getTaskStatus().name());
+            ps.setString(7, task.getGitPhase().name());
+            ps.setString(8, task.getProject().getId());
+            ps.setString(9, task.getAssignedTo() != null ? task.getAssignedTo().getId() : null);
+            ps.setString(10, currentUser.getId());
+            ps.setBoolean(11, task.getAutoCommit());
+            ps.setBoolean(12, task.getAutoPush());
+            ps.setTimestamp(13, Timestamp.valueOf(task.getCreatedAt()));
+            ps.setTimestamp(14, Timestamp.valueOf(task.getUpdatedAt()));
+            ps.setString(15, task.getParentTaskId());
+            ps.setString(16, task.getLastActivityId());
+        });
+        taskHierarchyService.attach(tasks);
+
+        taskSearchIndex.indexAfterCommit(tasks.stream().map(TaskSearchIndex.TaskDocument::of).toList());
+
+        DashboardCounters.Delta delta = new DashboardCounters.Delta();
+        tasks.forEach(delta::taskCreated);
+        List<Task> assigned = tasks.stream().filter(task -> task.getAssignedTo() != null).toList();
+        sideEffectExecutor.afterCommit(Sink.REDIS, () -> dashboardCounters.apply(delta));
+        agentDispatchQueue.dispatchAll(assigned);
+
+        List<ActivityLog> activities = tasks.stream()
+            .map(task -> ActivityLog.builder()
+                .id(task.getLastActivityId())
+                .taskId(task.getId())
+                .userId(currentUser.getId())
+                .action("TASK_CREATED")
+                .details(Map.of(
+                    "title", Objects.toString(task.getTitle(), ""),
+                    "assigned_to", task.getAssignedTo() != null ? task.getAssignedTo().getName() : "Unassigned"
+                ))
+                .build())
+            .toList();
+        // 버려지거나 일부만 들어가지 않도록 write-behind의 재시도 경로로 쓴다 (TaskService.createTask와 같다)
+        taskUpdateWriteBehind.recordActivities(activities);
+
+        List<TaskResponse> responses = tasks.stream().map(TaskResponse::from).toList();
+        sideEffectExecutor.afterCommit(Sink.WEBSOCKET,
+            () -> responses.forEach(response -> messagingTemplate.convertAndSend("/topic/tasks", response)));
+    }
+
+    private static Set<String> referenced(List<CreateTaskRequest> requests, Function<CreateTaskRequest, String> id) {
+        return requests.stream().map(id).filter(value -> !isBlank(value)).collect(Collectors.toSet());
+    }
+
+    private static <T> Map<String, T> byId(Collection<T> entities, Function<T, String> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -5,39 +5,76 @@ import com.prism.domain.Project;
 import com.prism.domain.Agent;
 import com.prism.domain.ActivityLog;
 import com.prism.domain.User;
+import com.prism.domain.enums.AgentCapability;
+import com.prism.domain.enums.GitPhase;
+import com.prism.domain.enums.TaskStatus;
 import com.prism.dto.CreateTaskRequest;
 import com.prism.dto.TaskResponse;
 import com.prism.dto.TaskDetailResponse;
+import com.prism.dto.TaskLogResponse;
+import com.prism.dto.TaskPageResponse;
+import com.prism.dto.TaskRollupResponse;
+import com.prism.dto.TaskSearchResponse;
+import com.prism.dto.TaskSubtreeResponse;
+import com.prism.dto.TimelinePageResponse;
 import com.prism.repository.TaskRepository;
 import com.prism.repository.ProjectRepository;
 import com.prism.repository.AgentRepository;
 import com.prism.repository.ActivityLogRepository;
+import com.prism.service.dispatch.AgentDispatchQueue;
+import com.prism.service.dispatch.AgentLoadBalancer;
+import com.prism.service.hierarchy.TaskHierarchyService;
+import com.prism.service.hierarchy.TaskRollupCounters;
+import com.prism.service.search.TaskSearchIndex;
+import com.prism.service.sideeffect.SideEffectExecutor;
+import com.prism.service.sideeffect.SideEffectExecutor.Sink;
+import com.prism.service.tasklog.TaskLogStore;
+import com.prism.service.update.TaskUpdateWriteBehind;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import java.util.Map;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.cache.annotation.CacheEvict;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TaskService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    // 검색은 점수순 상위 (page+1)*size개를 메모리에 모으므로 깊은 페이지를 막는다
+    public static final int MAX_SEARCH_WINDOW = 10_000;
+
     private final TaskRepository taskRepository;
     private final ProjectRepository projectRepository;
     private final AgentRepository agentRepository;
     private final ActivityLogRepository activityLogRepository;
     private final MockUserService mockUserService;
-    private final StringRedisTemplate redisTemplate;
     private final SimpMessagingTemplate messagingTemplate;
+    private final TaskLogStore taskLogStore;
+    private final DashboardCounters dashboardCounters;
+    private final AgentDispatchQueue agentDispatchQueue;
+    private final AgentLoadBalancer agentLoadBalancer;
+    private final SideEffectExecutor sideEffectExecutor;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskHierarchyService taskHierarchyService;
+    private final TaskRollupCounters taskRollupCounters;
+    private final TaskUpdateWriteBehind taskUpdateWriteBehind;
 
+    /**
+     * Task 저장만 트랜잭션에서 하고, 카운터(Redis)와 WebSocket 알림은 커밋 후 SideEffectExecutor에서 병렬로 실행한다.
+     * 배정 스트림은 커밋한 스레드에서, ActivityLog(Mongo)는 TaskUpdateWriteBehind의 다음 flush에서 쓴다.
+     */
     @Transactional
-    @CacheEvict(value = {"dashboardStats", "dashboardCharts"}, allEntries = true)
     public TaskResponse createTask(CreateTaskRequest request) {
         User currentUser = mockUserService.getCurrentUser();
 
@@ -56,8 +93,22 @@ public class TaskService {
         if (request.getAssignedTo() != null) {
             assignedAgent = agentRepository.findById(request.getAssignedTo())
                 .orElseThrow(() -> new IllegalArgumentException("Invalid Agent ID"));
+            agentLoadBalancer.assigned(assignedAgent.getId());
+        } else if (Boolean.TRUE.equals(request.getAutoAssign())) {
+            Set<AgentCapability> required = request.getRequiredCapabilities() != null
+                ? request.getRequiredCapabilities() : Set.of(AgentCapability.WRITE_CODE);
+            assignedAgent = agentLoadBalancer.assign(request.getAgentRole(), required)
+                .orElseThrow(() -> new IllegalArgumentException("No eligible agent for role " + request.getAgentRole()));
+        }
+
+        String parentTaskId = request.getParentTaskId() != null && !request.getParentTaskId().isEmpty()
+            ? request.getParentTaskId() : null;
+        if (parentTaskId != null && taskHierarchyService.existing(List.of(parentTaskId)).isEmpty()) {
+            throw new IllegalArgumentException("Invalid Parent Task ID");
         }
 
+        // ActivityLog는 커밋 뒤에 쓰이므로 id를 미리 정해 Task에 남긴다 (문서 캐시 version)
+        String activityId = new ObjectId().toHexString();
         Task task = Task.builder()
             .title(request.getTitle())
             .description(request.getDescription())
@@ -65,15 +116,24 @@ public class TaskService {
             .project(project)
             .assignedTo(assignedAgent)
             .createdBy(currentUser)
+            .parentTaskId(parentTaskId)
+            .lastActivityId(activityId)
             .build();
 
         task = taskRepository.save(task);
+        taskHierarchyService.attach(List.of(task));
+        TaskResponse response = TaskResponse.from(task);
+        taskSearchIndex.indexAfterCommit(List.of(TaskSearchIndex.TaskDocument.of(task)));
 
+        DashboardCounters.Delta counterDelta = new DashboardCounters.Delta().taskCreated(task);
+        sideEffectExecutor.afterCommit(Sink.REDIS, () -> dashboardCounters.apply(counterDelta));
+        // 배정은 버려지면 다시 보낼 곳이 없으므로 SideEffectExecutor를 거치지 않는다 (커밋 직후 이 스레드에서 XADD)
         if (assignedAgent != null) {
-            publishTaskToAgent(task, assignedAgent);
+            agentDispatchQueue.dispatch(task, assignedAgent);
         }
 
-        activityLogRepository.save(ActivityLog.builder()
+        ActivityLog activity = ActivityLog.builder()
+            .id(activityId)
             .taskId(task.getId())
             .userId(currentUser.getId())
             .action("TASK_CREATED")
@@ -81,41 +141,222 @@ public class TaskService {
                 "title", task.getTitle(),
                 "assigned_to", assignedAgent != null ? assignedAgent.getName() : "Unassigned"
             ))
-            .build());
+            .build();
+        // 생성 이벤트는 보정할 경로가 없으므로 버려질 수 있는 SideEffectExecutor 대신 write-behind의 재시도 경로로 쓴다
+        taskUpdateWriteBehind.recordActivities(List.of(activity));
 
         // Broadcast to WebSocket List
-        messagingTemplate.convertAndSend("/topic/tasks", TaskResponse.from(task));
+        sideEffectExecutor.afterCommit(Sink.WEBSOCKET, () -> messagingTemplate.convertAndSend("/topic/tasks", response));
 
-        return TaskResponse.from(task);
+        return response;
     }
 
-    private void publishTaskToAgent(Task task, Agent agent) {
-        // Format: "taskId:title" - simplified for MVP
-        String message = task.getId() + ":" + task.getTitle();
-        String channel = "tasks:" + agent.getId();
-        log.info("Publishing task {} to channel {}", task.getId(), channel);
-        redisTemplate.convertAndSend(channel, message);
+    /**
+     * Task 목록 조회 (createdAt 내림차순 keyset 페이지네이션)
+     *
+     * limit+1건을 조회해서 다음 페이지 존재 여부를 판단하므로 count 쿼리가 필요 없다.
+     */
+    @Transactional(readOnly = true)
+    public TaskPageResponse getAllTasks(String status, TaskStatus taskStatus, GitPhase gitPhase,
+                                        String priority, String agentId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decodeOrNull(cursor);
+
+        List<Task> tasks = taskRepository.findPage(status, taskStatus, gitPhase, priority, agentId,
+            after != null ? after.at() : null,
+            after != null ? after.id() : null,
+            PageRequest.ofSize(pageSize + 1));
+
+        boolean hasMore = tasks.size() > pageSize;
+        if (hasMore) {
+            tasks = tasks.subList(0, pageSize);
+        }
+        Task last = tasks.isEmpty() ? null : tasks.get(tasks.size() - 1);
+
+        return TaskPageResponse.builder()
+            .items(tasks.stream().map(TaskResponse::from).collect(Collectors.toList()))
+            .nextCursor(hasMore ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null)
+            .hasMore(hasMore)
+            .build();
     }
 
+    /**
+     * 제목/설명/저장소/브랜치 전문 검색 (TaskSearchIndex). 순위는 색인에서, Task 내용은 MySQL에서 읽는다.
+     */
     @Transactional(readOnly = true)
-    public List<TaskResponse> getAllTasks(String status, String priority, String agentId) {
-        return taskRepository.findByFilters(status, priority, agentId).stream()
-            .map(TaskResponse::from)
-            .collect(Collectors.toList());
+    public TaskSearchResponse searchTasks(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(0, page);
+        if ((long) (pageNumber + 1) * pageSize > MAX_SEARCH_WINDOW) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_SEARCH_WINDOW);
+        }
+
+        TaskSearchIndex.SearchResult result = taskSearchIndex.search(query, pageNumber * pageSize, pageSize);
+        Map<String, Task> tasks = taskRepository.findWithAssociationsByIdIn(
+                result.hits().stream().map(TaskSearchIndex.Hit::taskId).toList())
+            .stream().collect(Collectors.toMap(Task::getId, Function.identity()));
+
+        List<TaskSearchResponse.Hit> items = result.hits().stream()
+            .filter(hit -> tasks.containsKey(hit.taskId()))
+            .map(hit -> TaskSearchResponse.Hit.builder()
+                .task(TaskResponse.from(tasks.get(hit.taskId())))
+                .score(hit.score())
+                .build())
+            .toList();
+
+        return TaskSearchResponse.builder()
+            .query(query)
+            .total(result.total())
+            .page(pageNumber)
+            .size(pageSize)
+            .hasMore((long) (pageNumber + 1) * pageSize < result.total())
+            .items(items)
+            .build();
     }
 
     @Transactional(readOnly = true)
     public TaskDetailResponse getTask(String taskId) {
-        Task task = taskRepository.findById(taskId)
+        Task task = taskRepository.findWithAssociationsById(taskId)
             .orElseThrow(() -> new IllegalArgumentException("Task not found"));
 
-        List<com.prism.domain.ActivityLog> logs = activityLogRepository.findByTaskId(taskId).stream()
-            .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-            .collect(Collectors.toList());
+        TimelinePageResponse timeline = readTimeline(taskId, null, DEFAULT_PAGE_SIZE);
 
         return TaskDetailResponse.builder()
             .task(TaskResponse.from(task))
-            .timeline(logs.stream().map(TaskDetailResponse.ActivityLogDTO::from).collect(Collectors.toList()))
+            .timeline(timeline.getItems())
+            .timelineNextCursor(timeline.getNextCursor())
+            .build();
+    }
+
+    /**
+     * 하위 Task 목록 (maxDepth가 없으면 모든 깊이, (depth, createdAt, id) keyset 페이지네이션)
+     */
+    @Transactional(readOnly = true)
+    public TaskSubtreeResponse getSubtree(String taskId, Integer maxDepth, String cursor, int limit) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new IllegalArgumentException("Task not found");
+        }
+        if (maxDepth != null && maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1");
+        }
+        int depthLimit = maxDepth != null ? maxDepth : Integer.MAX_VALUE;
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decodeOrNull(cursor);
+        if (after != null && after.depth() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        List<Object[]> rows = taskRepository.findSubtree(taskId, depthLimit,
+            after != null ? after.depth() : null,
+            after != null ? after.at() : null,
+            after != null ? after.id() : null,
+            PageRequest.ofSize(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<TaskSubtreeResponse.Node> items = rows.stream()
+            .map(row -> TaskSubtreeResponse.Node.builder()
+                .task(TaskResponse.from((Task) row[0]))
+                .depth(((Number) row[1]).intValue())
+                .build())
+            .toList();
+        Object[] last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        return TaskSubtreeResponse.builder()
+            .rootTaskId(taskId)
+            .maxDepth(depthLimit)
+            .items(items)
+            .nextCursor(hasMore
+                ? new KeysetCursor(((Number) last[1]).intValue(), ((Task) last[0]).getCreatedAt(), ((Task) last[0]).getId()).encode()
+                : null)
+            .hasMore(hasMore)
+            .build();
+    }
+
+    /**
+     * 하위 Task 전체의 상태별 수 (롤업 캐시, 없으면 task_closure 집계 한 번)
+     */
+    public TaskRollupResponse getRollup(String taskId) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new IllegalArgumentException("Task not found");
+        }
+        TaskRollupCounters.Rollup rollup = taskRollupCounters.get(taskId);
+        long completed = rollup.byStatus().getOrDefault("DONE", 0L);
+        return TaskRollupResponse.builder()
+            .taskId(taskId)
+            .total(rollup.total())
+            .completed(completed)
+            .completionRate(rollup.total() > 0 ? (double) completed / rollup.total() : 0)
+            .byStatus(rollup.byStatus())
+            .byTaskStatus(rollup.byTaskStatus())
+            .build();
+    }
+
+    /**
+     * Task를 하위 트리째 다른 부모 아래로 옮긴다 (parentTaskId가 없으면 최상위로)
+     */
+    @Transactional
+    public TaskResponse moveTask(String taskId, String parentTaskId) {
+        taskHierarchyService.move(taskId, parentTaskId != null && !parentTaskId.isEmpty() ? parentTaskId : null);
+        return TaskResponse.from(taskRepository.findWithAssociationsById(taskId)
+            .orElseThrow(() -> new IllegalArgumentException("Task not found")));
+    }
+
+    /**
+     * Task 타임라인을 최신순으로 페이지 조회 (cursor가 없으면 가장 최신 페이지)
+     */
+    public TimelinePageResponse getTimeline(String taskId, String cursor, int limit) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new IllegalArgumentException("Task not found");
+        }
+        return readTimeline(taskId, cursor, limit);
+    }
+
+    private TimelinePageResponse readTimeline(String taskId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = KeysetCursor.decodeOrNull(cursor);
+
+        List<ActivityLog> logs = activityLogRepository.findTimeline(taskId,
+            after != null ? after.at() : null,
+            after != null ? after.id() : null,
+            pageSize + 1);
+
+        boolean hasMore = logs.size() > pageSize;
+        if (hasMore) {
+            logs = logs.subList(0, pageSize);
+        }
+        ActivityLog last = logs.isEmpty() ? null : logs.get(logs.size() - 1);
+
+        return TimelinePageResponse.builder()
+            .items(logs.stream().map(TaskDetailResponse.ActivityLogDTO::from).collect(Collectors.toList()))
+            .nextCursor(hasMore ? new KeysetCursor(last.getTimestamp(), last.getId()).encode() : null)
+            .hasMore(hasMore)
             .build();
     }
+
+    /**
+     * 사용자 승인 대기 중인 Task 목록 (GENERATED, COMMIT_PENDING, PUSH_PENDING)
+     */
+    @Transactional(readOnly = true)
+    public List<TaskResponse> getPendingApprovalTasks(String agentId) {
+        return taskRepository.findPendingApprovalTasks(agentId).stream()
+            .map(TaskResponse::from)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Task 로그를 바이트 offset 기준으로 조회 (tail이 있으면 마지막 tail 바이트)
+     */
+    @Transactional(readOnly = true)
+    public TaskLogResponse getTaskLog(String taskId, long offset, int limit, Integer tail) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new IllegalArgumentException("Task not found");
+        }
+        return tail != null ? taskLogStore.tail(taskId, tail) : taskLogStore.read(taskId, offset, limit);
+    }
 }
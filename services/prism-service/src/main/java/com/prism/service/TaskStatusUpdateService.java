@@ -0,0 +1,100 @@
+package com.prism.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.prism.domain.ActivityLog;
+import com.prism.grpc.UpdateTaskStatusRequest;
+import com.prism.repository.TaskRepository;
+import com.prism.service.broadcast.TopicBroadcaster;
+import com.prism.service.update.PendingTaskUpdate;
+import com.prism.service.update.TaskUpdateWriteBehind;
+import com.prism.service.usage.UsageAccumulator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Daemon이 보내는 Task 상태 업데이트 처리
+ *
+ * 단건 RPC(UpdateTaskStatus)와 스트리밍 RPC(StreamTaskUpdates)가 같은 로직을 공유한다.
+ * DB 반영은 {@link TaskUpdateWriteBehind}가 모아서 처리하므로, 여기서는 업데이트를 접수하고
+ * WebSocket 브로드캐스터(프레임 단위 병합)에 넘기고, 토큰 사용량은 {@link UsageAccumulator}에 더하기만 한다.
+ * 존재하지 않는 Task의 업데이트는 접수하지 않는다 (ActivityLog/브로드캐스트 없음). Task는 삭제되지 않으므로
+ * 한 번 확인한 id는 메모리에 기억해 두고, 처음 보는 id만 DB에서 확인한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskStatusUpdateService {
+    private static final int KNOWN_TASKS_MAX = 100_000;
+
+    private final TaskRepository taskRepository;
+    private final TaskUpdateWriteBehind taskUpdateWriteBehind;
+    private final TopicBroadcaster topicBroadcaster;
+    private final UsageAccumulator usageAccumulator;
+
+    // 존재가 확인된 Task id (없는 id는 기억하지 않는다: 곧 생성될 수 있다)
+    private final Cache<String, Boolean> knownTasks = Caffeine.newBuilder().maximumSize(KNOWN_TASKS_MAX).build();
+
+    /**
+     * @return Task가 존재해서 업데이트를 접수했으면 true
+     */
+    public boolean applyUpdate(UpdateTaskStatusRequest request) {
+        log.debug("Received status update for Task {}: {}", request.getTaskId(), request.getStatus());
+        if (!exists(request.getTaskId())) {
+            log.warn("Task not found: {}", request.getTaskId());
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+
+        taskUpdateWriteBehind.submit(PendingTaskUpdate.from(request, now), ActivityLog.builder()
+            .taskId(request.getTaskId())
+            .agentId(request.getAgentId())
+            .action("TASK_STATUS_UPDATE")
+            .timestamp(now)
+            .details(Map.of(
+                "status", request.getStatus(),
+                "details", request.getDetails(),
+                "git_branch", request.getGitBranch(),
+                "git_commit", request.getGitCommitHash()
+            ))
+            .build());
+        usageAccumulator.record(request.getAgentId(), request.getTaskId(),
+            request.getPromptTokens(), request.getCompletionTokens(), now);
+
+        // Broadcast to WebSocket (상태 필드는 최신 값만, 로그 한 줄은 events로)
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("status", emptyToNull(request.getStatus()));
+        fields.put("gitBranch", emptyToNull(request.getGitBranch()));
+        fields.put("gitCommitHash", emptyToNull(request.getGitCommitHash()));
+        fields.put("gitPrUrl", emptyToNull(request.getGitPrUrl()));
+        topicBroadcaster.publish("/topic/tasks/" + request.getTaskId(), fields, Map.of(
+            "status", request.getStatus(),
+            "details", request.getDetails(),
+            "timestamp", now.toString()
+        ));
+        return true;
+    }
+
+    private boolean exists(String taskId) {
+        if (taskId.isEmpty()) {
+            return false;
+        }
+        if (knownTasks.getIfPresent(taskId) != null) {
+            return true;
+        }
+        boolean exists = taskRepository.existsById(taskId);
+        if (exists) {
+            knownTasks.put(taskId, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
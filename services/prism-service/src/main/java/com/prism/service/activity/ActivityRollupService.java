@@ -0,0 +1,171 @@
+package com.prism.service.activity;
+
+import com.prism.domain.ActivityBucket;
+import com.prism.domain.ActivityLog;
+import com.prism.domain.enums.BucketGranularity;
+import com.prism.repository.ActivityBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ActivityLog 시간 버킷 롤업
+ *
+ * ActivityLog를 저장하는 쪽에서 record()를 호출하면 분/시/일 버킷의 count, cost, action별 건수를
+ * 메모리에서 합친 뒤 bulk upsert 한 번으로 $inc 한다. 차트는 원본 이벤트를 집계하지 않고 버킷만 읽는다.
+ * 롤업 실패는 원본 저장을 막지 않고 경고 로그만 남긴다 (차트 값이 그만큼 모자랄 수 있음).
+ * 차트 캐시(dashboardCharts)는 버킷에 더한 뒤에 비운다. 먼저 비우면 그 사이의 차트 요청이 갱신 전 버킷으로 다시 채운다.
+ */
+@Slf4j
+@Service
+public class ActivityRollupService {
+
+    /** 한 번에 조회할 수 있는 최대 버킷 수 */
+    public static final int MAX_POINTS = 1000;
+
+    private static final String DASHBOARD_CHARTS_CACHE = "dashboardCharts";
+
+    private final ActivityBucketRepository activityBucketRepository;
+    private final CacheManager cacheManager;
+    private final long minuteRetentionHours;
+    private final long hourRetentionDays;
+
+    public ActivityRollupService(ActivityBucketRepository activityBucketRepository,
+                                 CacheManager cacheManager,
+                                 @Value("${prism.activity-rollup.minute-retention-hours:48}") long minuteRetentionHours,
+                                 @Value("${prism.activity-rollup.hour-retention-days:90}") long hourRetentionDays) {
+        this.activityBucketRepository = activityBucketRepository;
+        this.cacheManager = cacheManager;
+        this.minuteRetentionHours = minuteRetentionHours;
+        this.hourRetentionDays = hourRetentionDays;
+    }
+
+    /**
+     * 버킷에 더하는 데 성공하면 차트 캐시를 한 번 비운다. 호출마다 비우므로 한 번에 모아서 부른다.
+     */
+    public void record(Collection<ActivityLog> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        Map<String, ActivityBucket> deltas = new HashMap<>();
+        for (ActivityLog activity : activities) {
+            LocalDateTime timestamp = activity.getTimestamp() != null ? activity.getTimestamp() : LocalDateTime.now();
+            double cost = costOf(activity);
+            String action = actionKey(activity.getAction());
+            for (BucketGranularity granularity : BucketGranularity.values()) {
+                LocalDateTime bucketStart = granularity.truncate(timestamp);
+                ActivityBucket delta = deltas.computeIfAbsent(ActivityBucket.idFor(granularity, bucketStart),
+                    id -> ActivityBucket.builder().id(id).granularity(granularity).bucketStart(bucketStart).build());
+                delta.setCount(delta.getCount() + 1);
+                delta.setCost(delta.getCost() + cost);
+                delta.getActions().merge(action, 1L, Long::sum);
+            }
+        }
+
+        try {
+            activityBucketRepository.incrementAll(deltas.values());
+        } catch (RuntimeException e) {
+            log.warn("Failed to roll up {} activities: {}", activities.size(), e.getMessage());
+            return;
+        }
+        evictCharts();
+    }
+
+    /**
+     * 이벤트 수와 무관한 비용만 버킷에 더한다 (토큰 사용량 집계처럼 ActivityLog가 아닌 출처용)
+     *
+     * @param costByTime 시각(분 단위 이하 무시) -> 비용
+     */
+    public void recordCost(Map<LocalDateTime, Double> costByTime) {
+        Map<String, ActivityBucket> deltas = new HashMap<>();
+        costByTime.forEach((timestamp, cost) -> {
+            if (cost == 0) {
+                return;
+            }
+            for (BucketGranularity granularity : BucketGranularity.values()) {
+                LocalDateTime bucketStart = granularity.truncate(timestamp);
+                ActivityBucket delta = deltas.computeIfAbsent(ActivityBucket.idFor(granularity, bucketStart),
+                    id -> ActivityBucket.builder().id(id).granularity(granularity).bucketStart(bucketStart).build());
+                delta.setCost(delta.getCost() + cost);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            activityBucketRepository.incrementAll(deltas.values());
+        } catch (RuntimeException e) {
+            log.warn("Failed to roll up cost of {} time buckets: {}", costByTime.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * [from, to) 구간의 버킷을 시간순으로 반환한다. 이벤트가 없던 버킷은 0으로 채운다.
+     */
+    public List<ActivityBucket> series(BucketGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.truncate(from);
+        LocalDateTime end = granularity.truncate(to);
+        Map<LocalDateTime, ActivityBucket> stored = activityBucketRepository
+            .findRange(ActivityBucket.idFor(granularity, start), ActivityBucket.idFor(granularity, end))
+            .stream()
+            .collect(Collectors.toMap(ActivityBucket::getBucketStart, Function.identity(), (a, b) -> a));
+
+        List<ActivityBucket> series = new ArrayList<>();
+        for (LocalDateTime t = start; t.isBefore(end); t = t.plus(1, granularity.getUnit())) {
+            ActivityBucket bucket = stored.get(t);
+            series.add(bucket != null ? bucket : ActivityBucket.builder()
+                .id(ActivityBucket.idFor(granularity, t))
+                .granularity(granularity)
+                .bucketStart(t)
+                .build());
+        }
+        return series;
+    }
+
+    /**
+     * 보존 기간이 지난 분/시 버킷 정리 (일 버킷은 유지)
+     */
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${prism.activity-rollup.purge-interval-ms:3600000}")
+    public void purgeExpiredBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            long minutes = activityBucketRepository.deleteOlderThan(BucketGranularity.MINUTE, now.minusHours(minuteRetentionHours));
+            long hours = activityBucketRepository.deleteOlderThan(BucketGranularity.HOUR, now.minusDays(hourRetentionDays));
+            log.debug("Purged {} minute and {} hour activity buckets", minutes, hours);
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge activity buckets: {}", e.getMessage());
+        }
+    }
+
+    private void evictCharts() {
+        Cache cache = cacheManager.getCache(DASHBOARD_CHARTS_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static double costOf(ActivityLog activity) {
+        if (activity.getDetails() != null && activity.getDetails().get("cost") instanceof Number cost) {
+            return cost.doubleValue();
+        }
+        return 0;
+    }
+
+    // Mongo 필드 경로에 쓸 수 없는 문자('.', '$') 치환
+    private static String actionKey(String action) {
+        return action == null ? "UNKNOWN" : action.replace('.', '_').replace('$', '_');
+    }
+}
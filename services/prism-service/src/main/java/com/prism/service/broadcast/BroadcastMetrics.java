@@ -0,0 +1,54 @@
+package com.prism.service.broadcast;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket 브로드캐스트 지표 (/actuator/metrics/prism.ws.*)
+ */
+@Component
+public class BroadcastMetrics {
+
+    private final DistributionSummary fanout;
+    private final Counter framesSent;
+    private final Counter framesSkipped;
+    private final Counter conflated;
+    private final Counter dropped;
+
+    public BroadcastMetrics(MeterRegistry registry) {
+        this.fanout = DistributionSummary.builder("prism.ws.fanout")
+            .description("Subscribed sessions per broadcast frame")
+            .register(registry);
+        this.framesSent = Counter.builder("prism.ws.frames.sent")
+            .description("Frames broadcast to a topic")
+            .register(registry);
+        this.framesSkipped = Counter.builder("prism.ws.frames.skipped")
+            .description("Frames not sent because nothing changed or nobody subscribed")
+            .register(registry);
+        this.conflated = Counter.builder("prism.ws.messages.conflated")
+            .description("Updates merged into (or events evicted from) a pending frame instead of being sent on their own")
+            .register(registry);
+        this.dropped = Counter.builder("prism.ws.messages.dropped")
+            .description("Outbound messages dropped from a slow session's send buffer (oldest first)")
+            .register(registry);
+    }
+
+    void frameSent(int subscribers) {
+        framesSent.increment();
+        fanout.record(subscribers);
+    }
+
+    void frameSkipped() {
+        framesSkipped.increment();
+    }
+
+    void conflated(int count) {
+        conflated.increment(count);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+}
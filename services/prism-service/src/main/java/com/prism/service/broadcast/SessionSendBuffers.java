@@ -0,0 +1,220 @@
+package com.prism.service.broadcast;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket 세션별 송신 버퍼 (topic별 conflation + drop-oldest)
+ *
+ * 기본 ConcurrentWebSocketSessionDecorator는 버퍼가 넘치면 세션을 끊는다. 여기서는 세션마다 최대
+ * send-buffer-messages개까지만 쌓고, 넘치면 다음 순서로 하나를 버린다.
+ * 1) 같은 Task topic(/topic/tasks/{id})의 더 새 프레임이 버퍼에 있는 가장 오래된 프레임.
+ *    TopicBroadcaster의 Task 프레임은 매번 현재 상태 전체를 실으므로 topic마다 가장 최신 프레임만 남아도
+ *    상태가 맞는다 (버려진 프레임의 events는 잃는다)
+ * 2) 그런 프레임이 없으면(버퍼의 프레임이 모두 topic별 하나뿐이거나 Task topic이 아니면) 가장 오래된 프레임.
+ *    세션이 구독한 Task topic 수가 버퍼 크기보다 적으면 Task topic의 마지막 프레임은 이 경우에도 남는다
+ * 실제 전송은 공용 sender 스레드가 하므로 브로커 스레드는 느린 소켓에 막히지 않는다.
+ */
+@Slf4j
+@Component
+public class SessionSendBuffers {
+
+    // 프레임마다 현재 상태 전체를 싣는 topic (TopicBroadcaster). /topic/tasks 자체는 Task마다 다른 프레임이라 제외한다
+    private static final String STATE_TOPIC_PREFIX = "/topic/tasks/";
+
+    private final int bufferLimit;
+    private final BroadcastMetrics metrics;
+    private final ExecutorService sender;
+
+    public SessionSendBuffers(BroadcastMetrics metrics,
+                              @Value("${prism.websocket.send-buffer-messages:256}") int bufferLimit) {
+        this.metrics = metrics;
+        this.bufferLimit = bufferLimit;
+        AtomicInteger sequence = new AtomicInteger();
+        this.sender = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "websocket-sender-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * WebSocketTransportRegistration.addDecoratorFactory용
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new DropOldestSession(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                if (session instanceof DropOldestSession buffered) {
+                    buffered.clear();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private class DropOldestSession extends WebSocketSessionDecorator {
+
+        private final ArrayDeque<Pending> buffer = new ArrayDeque<>();
+        // Task topic -> 버퍼에 있는 프레임 수 (buffer와 같이 잠근다)
+        private final Map<String, Integer> pendingPerTopic = new HashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        DropOldestSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            Pending pending = new Pending(stateTopicOf(message), message);
+            synchronized (buffer) {
+                buffer.addLast(pending);
+                count(pending.topic(), 1);
+                if (buffer.size() > bufferLimit) {
+                    evictOne();
+                    metrics.dropped();
+                }
+            }
+            scheduleDrain();
+        }
+
+        void clear() {
+            synchronized (buffer) {
+                buffer.clear();
+                pendingPerTopic.clear();
+            }
+        }
+
+        // buffer를 잠근 상태에서 호출한다
+        private void evictOne() {
+            Iterator<Pending> iterator = buffer.iterator();
+            while (iterator.hasNext()) {
+                Pending pending = iterator.next();
+                if (pending.topic() != null && pendingPerTopic.get(pending.topic()) > 1) {
+                    iterator.remove();
+                    count(pending.topic(), -1);
+                    return;
+                }
+            }
+            Pending oldest = buffer.pollFirst();
+            count(oldest.topic(), -1);
+        }
+
+        private void count(String topic, int delta) {
+            if (topic != null) {
+                pendingPerTopic.merge(topic, delta,
+                    (current, change) -> current + change == 0 ? null : current + change);
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;  // 전송 중인 스레드가 이어서 비운다
+            }
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                WebSocketMessage<?> next;
+                while ((next = poll()) != null) {
+                    if (!isOpen()) {
+                        clear();
+                        return;
+                    }
+                    getDelegate().sendMessage(next);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("Failed to send to WebSocket session {}: {}", getId(), e.getMessage());
+                clear();
+            } finally {
+                draining.set(false);
+            }
+            // poll()이 null을 본 뒤 draining을 내리기 전에 들어온 메시지
+            if (!isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private WebSocketMessage<?> poll() {
+            synchronized (buffer) {
+                Pending pending = buffer.pollFirst();
+                if (pending == null) {
+                    return null;
+                }
+                count(pending.topic(), -1);
+                return pending.message();
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (buffer) {
+                return buffer.isEmpty();
+            }
+        }
+    }
+
+    private record Pending(String topic, WebSocketMessage<?> message) {
+    }
+
+    /**
+     * STOMP MESSAGE 프레임이면 destination 헤더를, Task topic이 아니거나 다른 프레임이면 null을 돌려준다
+     */
+    static String stateTopicOf(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return null;
+        }
+        String payload = text.getPayload();
+        if (!payload.startsWith("MESSAGE\n") && !payload.startsWith("MESSAGE\r\n")) {
+            return null;
+        }
+        int lineStart = payload.indexOf('\n') + 1;
+        int lineEnd;
+        while ((lineEnd = payload.indexOf('\n', lineStart)) >= 0) {
+            String line = payload.substring(lineStart, lineEnd).stripTrailing();
+            if (line.isEmpty()) {
+                break;  // 헤더 끝
+            }
+            if (line.startsWith("destination:")) {
+                String destination = line.substring("destination:".length());
+                return destination.startsWith(STATE_TOPIC_PREFIX) ? destination : null;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return null;
+    }
+}
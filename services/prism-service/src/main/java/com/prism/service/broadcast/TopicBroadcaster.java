@@ -0,0 +1,187 @@
+package com.prism.service.broadcast;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * topic별로 업데이트를 모아 프레임 단위로 보내는 WebSocket 브로드캐스터
+ *
+ * publish()는 topic의 대기 프레임에 병합만 하고, frame-interval-ms마다 한 번씩 topic당 메시지 하나를 보낸다.
+ * - 상태 필드(status, gitBranch 등): topic별 현재 값을 모두 싣는다 (changed에는 이번에 바뀐 필드 이름).
+ *   세션 버퍼가 넘치면 같은 topic의 더 새 프레임이 있는 프레임부터 버리므로 topic마다 최신 프레임은 남는다
+ * - 이벤트(로그 한 줄 등): 순서대로 모으되 프레임당 max-events-per-frame개까지만 (넘치면 오래된 것부터 버림)
+ * - 새 구독이 생긴 topic은 그 다음 flush에서 현재 상태 프레임을 한 번 보낸다 (브로커가 구독을 등록할 시간을 둔다.
+ *   그 flush에서 이미 프레임을 보냈으면 생략한다). 이 인스턴스가 아는 상태만 보내므로 업데이트가 없었던 Task는 REST로 읽는다
+ * 구독자가 없는 topic은 보내지 않는다. 느린 세션의 송신 버퍼 제한은 {@link SessionSendBuffers}가 맡는다.
+ */
+@Slf4j
+@Component
+public class TopicBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicSubscriptions topicSubscriptions;
+    private final BroadcastMetrics metrics;
+    private final long frameIntervalMs;
+    private final int maxEventsPerFrame;
+    private final int maxTrackedTopics;
+
+    private final ConcurrentHashMap<String, PendingFrame> pending = new ConcurrentHashMap<>();
+    // topic -> 현재 필드 값 (최근 max-tracked-topics개). flush 스레드에서만 접근한다
+    private final Map<String, Map<String, Object>> states;
+    // 다음 flush에서 스냅샷을 보낼 topic. flush 스레드에서만 접근한다
+    private List<String> snapshotDue = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public TopicBroadcaster(SimpMessagingTemplate messagingTemplate,
+                            TopicSubscriptions topicSubscriptions,
+                            BroadcastMetrics metrics,
+                            @Value("${prism.websocket.frame-interval-ms:100}") long frameIntervalMs,
+                            @Value("${prism.websocket.max-events-per-frame:100}") int maxEventsPerFrame,
+                            @Value("${prism.websocket.max-tracked-topics:10000}") int maxTrackedTopics) {
+        this.messagingTemplate = messagingTemplate;
+        this.topicSubscriptions = topicSubscriptions;
+        this.metrics = metrics;
+        this.frameIntervalMs = frameIntervalMs;
+        this.maxEventsPerFrame = maxEventsPerFrame;
+        this.maxTrackedTopics = maxTrackedTopics;
+        this.states = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                return size() > TopicBroadcaster.this.maxTrackedTopics;
+            }
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "websocket-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, frameIntervalMs, frameIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param fields 상태 필드 (null 값은 무시)
+     * @param event 프레임의 events 목록에 추가할 항목 (없으면 null)
+     */
+    public void publish(String topic, Map<String, Object> fields, Object event) {
+        pending.compute(topic, (t, frame) -> {
+            if (frame == null) {
+                frame = new PendingFrame();
+            } else {
+                metrics.conflated(1);
+            }
+            frame.merge(fields, event, maxEventsPerFrame);
+            return frame;
+        });
+    }
+
+    /**
+     * 대기 중인 프레임을 모두 보낸다. flush 스레드(또는 테스트)에서만 호출한다.
+     */
+    void flush() {
+        Set<String> sent = new HashSet<>();
+        for (String topic : pending.keySet()) {
+            PendingFrame frame = pending.remove(topic);
+            if (frame != null && send(topic, frame, false)) {
+                sent.add(topic);
+            }
+        }
+        for (String topic : snapshotDue) {
+            if (!sent.contains(topic) && states.containsKey(topic)) {
+                send(topic, new PendingFrame(), true);
+            }
+        }
+        snapshotDue = topicSubscriptions.drainNewlySubscribed();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("WebSocket broadcast flush failed", e);
+        }
+    }
+
+    /**
+     * @return 프레임을 보냈으면 true
+     */
+    private boolean send(String topic, PendingFrame frame, boolean snapshot) {
+        if (frame.droppedEvents > 0) {
+            metrics.conflated(frame.droppedEvents);
+        }
+        // 구독자가 없어도 상태는 갱신한다 (나중에 구독하면 스냅샷으로 보낸다)
+        Map<String, Object> state = states.computeIfAbsent(topic, t -> new LinkedHashMap<>());
+        List<String> changed = new ArrayList<>();
+        frame.fields.forEach((field, value) -> {
+            if (!Objects.equals(state.put(field, value), value)) {
+                changed.add(field);
+            }
+        });
+        int subscribers = topicSubscriptions.subscriberCount(topic);
+        if (subscribers == 0 || (!snapshot && changed.isEmpty() && frame.events.isEmpty())) {
+            metrics.frameSkipped();
+            return false;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", "TASK_STATE");
+        payload.putAll(state);
+        payload.put("changed", changed);
+        if (!frame.events.isEmpty()) {
+            payload.put("events", new ArrayList<>(frame.events));
+        }
+        payload.put("timestamp", LocalDateTime.now().toString());
+
+        messagingTemplate.convertAndSend(topic, payload);
+        metrics.frameSent(subscribers);
+        return true;
+    }
+
+    private static class PendingFrame {
+        private final Map<String, Object> fields = new LinkedHashMap<>();
+        private final ArrayDeque<Object> events = new ArrayDeque<>();
+        private int droppedEvents;
+
+        void merge(Map<String, Object> update, Object event, int maxEvents) {
+            update.forEach((field, value) -> {
+                if (value != null) {
+                    fields.put(field, value);
+                }
+            });
+            if (event != null) {
+                if (events.size() >= maxEvents) {
+                    events.pollFirst();
+                    droppedEvents++;
+                }
+                events.addLast(event);
+            }
+        }
+    }
+}
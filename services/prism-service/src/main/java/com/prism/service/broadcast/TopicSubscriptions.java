@@ -0,0 +1,101 @@
+package com.prism.service.broadcast;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * topic별 구독 세션 수 (clientInboundChannel 인터셉터)
+ *
+ * SUBSCRIBE/UNSUBSCRIBE/DISCONNECT를 보고 destination -> 세션 집합을 유지한다.
+ * TopicBroadcaster가 fan-out 크기를 기록하고 구독자가 없는 topic의 프레임을 건너뛰는 데 쓴다.
+ * 새 구독이 생긴 destination은 TopicBroadcaster가 다음 flush에서 가져가 현재 상태를 보낸다.
+ */
+@Component
+public class TopicSubscriptions implements ChannelInterceptor {
+
+    private final ConcurrentHashMap<String, Set<String>> sessionsByDestination = new ConcurrentHashMap<>();
+    // sessionId -> (subscriptionId -> destination)
+    private final ConcurrentHashMap<String, Map<String, String>> subscriptionsBySession = new ConcurrentHashMap<>();
+    private final Set<String> newlySubscribed = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null || accessor.getSessionId() == null) {
+            return message;
+        }
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.SUBSCRIBE && accessor.getDestination() != null) {
+            subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+        } else if (command == StompCommand.UNSUBSCRIBE) {
+            unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+        } else if (command == StompCommand.DISCONNECT) {
+            disconnected(accessor.getSessionId());
+        }
+        return message;
+    }
+
+    public int subscriberCount(String destination) {
+        Set<String> sessions = sessionsByDestination.get(destination);
+        return sessions != null ? sessions.size() : 0;
+    }
+
+    /**
+     * 마지막 호출 이후 새 구독이 생긴 destination
+     */
+    List<String> drainNewlySubscribed() {
+        List<String> drained = new ArrayList<>();
+        for (String destination : newlySubscribed) {
+            if (newlySubscribed.remove(destination)) {
+                drained.add(destination);
+            }
+        }
+        return drained;
+    }
+
+    void subscribed(String sessionId, String subscriptionId, String destination) {
+        subscriptionsBySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+            .put(subscriptionId != null ? subscriptionId : destination, destination);
+        sessionsByDestination.computeIfAbsent(destination, d -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        newlySubscribed.add(destination);
+    }
+
+    void unsubscribed(String sessionId, String subscriptionId) {
+        Map<String, String> subscriptions = subscriptionsBySession.get(sessionId);
+        if (subscriptions == null || subscriptionId == null) {
+            return;
+        }
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null && !subscriptions.containsValue(destination)) {
+            removeSession(destination, sessionId);
+        }
+    }
+
+    /**
+     * 연결 종료 (DISCONNECT 프레임 없이 끊긴 경우 SubProtocolWebSocketHandler가 DISCONNECT 메시지를 만들어 보낸다)
+     */
+    void disconnected(String sessionId) {
+        Map<String, String> subscriptions = subscriptionsBySession.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().forEach(destination -> removeSession(destination, sessionId));
+        }
+    }
+
+    private void removeSession(String destination, String sessionId) {
+        sessionsByDestination.computeIfPresent(destination, (d, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
@@ -0,0 +1,235 @@
+package com.prism.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * L1(Caffeine, 프로세스 내) + L2(Redis) 캐시
+ *
+ * 조회는 L1 -> L2 -> 원본 순서이고, L2에서 찾은 값은 L1에도 넣는다.
+ * L2 키는 prism:cache:{name}:{generation}:{key} 형식이다. clear()는 generation만 올리므로 Redis에서 키를
+ * 훑지 않고, 이전 generation의 키는 TTL로 사라진다. put/evict/clear는 {@link TwoLevelCacheManager}를 통해
+ * Redis pub/sub으로 알려서 다른 replica가 자기 L1 항목을 버리게 한다.
+ *
+ * pub/sub은 전달을 보장하지 않으므로 generation 키는 generationRefreshMs마다 Redis에서 다시 읽는다.
+ * CLEAR 메시지를 놓쳐 값이 달라졌으면 그때 L1을 비우고 새 generation을 쓴다.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final RedisSerializer<Object> SERIALIZER = RedisSerializer.java();
+
+    private final String name;
+    private final Cache<Object, Object> l1;
+    @Nullable
+    private final StringRedisTemplate redisTemplate;
+    private final long l2TtlMs;
+    private final TwoLevelCacheManager manager;
+    private final long generationRefreshMs;
+    private final AtomicLong generation = new AtomicLong(-1);
+    private final AtomicLong generationCheckedAt = new AtomicLong(Long.MIN_VALUE);
+
+    TwoLevelCache(String name, Cache<Object, Object> l1, @Nullable StringRedisTemplate redisTemplate,
+                  long l2TtlMs, long generationRefreshMs, TwoLevelCacheManager manager) {
+        super(true);
+        this.name = name;
+        this.l1 = l1;
+        this.redisTemplate = redisTemplate;
+        this.l2TtlMs = l2TtlMs;
+        this.generationRefreshMs = generationRefreshMs;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    @Nullable
+    protected Object lookup(Object key) {
+        refreshGenerationIfDue();
+        Object value = l1.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = readL2(key);
+        if (value != null) {
+            l1.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        refreshGenerationIfDue();
+        // 같은 키의 동시 적재는 Caffeine이 한 번으로 합친다
+        Object stored = l1.get(key, k -> {
+            Object cached = readL2(k);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                Object loaded = toStoreValue(valueLoader.call());
+                writeL2(k, loaded);
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+        return (T) fromStoreValue(stored);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        refreshGenerationIfDue();
+        Object stored = toStoreValue(value);
+        l1.put(key, stored);
+        writeL2(key, stored);
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        refreshGenerationIfDue();
+        l1.invalidate(key);
+        if (redisTemplate != null) {
+            byte[] rawKey = rawKey(key);
+            runQuietly("evict", () -> redisTemplate.execute((RedisCallback<Long>) c -> c.keyCommands().del(rawKey)));
+        }
+        manager.publishEvict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        l1.invalidateAll();
+        if (redisTemplate != null) {
+            Long next = callQuietly("clear", () -> redisTemplate.opsForValue().increment(generationKey()));
+            if (next != null) {
+                generation.set(next);
+                manager.publishClear(name, next);
+                return;
+            }
+        }
+        manager.publishClear(name, -1);
+    }
+
+    /**
+     * 다른 replica의 변경 알림: L1만 비운다
+     */
+    void invalidateLocal(@Nullable String key, long newGeneration) {
+        if (key == null) {
+            l1.invalidateAll();
+            if (newGeneration >= 0) {
+                generation.set(newGeneration);
+            }
+        } else {
+            // 메시지에는 key.toString()만 실리므로 문자열로 비교한다
+            l1.asMap().keySet().removeIf(existing -> key.equals(existing.toString()));
+        }
+    }
+
+    @Nullable
+    private Object readL2(Object key) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        byte[] rawKey = rawKey(key);
+        byte[] bytes = callQuietly("get", () -> redisTemplate.execute((RedisCallback<byte[]>) c -> c.stringCommands().get(rawKey)));
+        if (bytes == null) {
+            manager.l2Miss(name);
+            return null;
+        }
+        manager.l2Hit(name);
+        return SERIALIZER.deserialize(bytes);
+    }
+
+    private void writeL2(Object key, Object stored) {
+        if (redisTemplate == null) {
+            return;
+        }
+        byte[] rawKey = rawKey(key);
+        byte[] bytes = SERIALIZER.serialize(stored);
+        runQuietly("put", () -> redisTemplate.execute((RedisCallback<Boolean>) c -> c.stringCommands()
+            .set(rawKey, bytes, Expiration.milliseconds(l2TtlMs), RedisStringCommands.SetOption.upsert())));
+    }
+
+    private byte[] rawKey(Object key) {
+        return ("prism:cache:" + name + ":" + currentGeneration() + ":" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String generationKey() {
+        return "prism:cache:" + name + ":generation";
+    }
+
+    private long currentGeneration() {
+        return Math.max(generation.get(), 0);
+    }
+
+    /**
+     * generation 키를 주기적으로 다시 읽는다. L1 적재 중(Caffeine compute 안)에는 L1을 비울 수 없으므로
+     * 공개 연산의 시작에서만 부른다.
+     */
+    private void refreshGenerationIfDue() {
+        if (redisTemplate == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long checkedAt = generationCheckedAt.get();
+        if (checkedAt != Long.MIN_VALUE && now - checkedAt < generationRefreshMs) {
+            return;
+        }
+        // 동시에 만료를 본 스레드 중 하나만 읽는다
+        if (!generationCheckedAt.compareAndSet(checkedAt, now)) {
+            return;
+        }
+        long current = generation.get();
+        Optional<String> stored = callQuietly("generation",
+            () -> Optional.ofNullable(redisTemplate.opsForValue().get(generationKey())));
+        if (stored == null) {
+            return;
+        }
+        long latest = stored.map(Long::parseLong).orElse(0L);
+        // 읽는 사이 clear()나 CLEAR 메시지로 바뀌었으면 그쪽 값이 더 새롭다
+        if (latest != current && generation.compareAndSet(current, latest) && current >= 0) {
+            log.info("Cache {} generation changed {} -> {} without notification, dropping L1", name, current, latest);
+            l1.invalidateAll();
+        }
+    }
+
+    private void runQuietly(String operation, Runnable action) {
+        callQuietly(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @Nullable
+    private <T> T callQuietly(String operation, Callable<T> action) {
+        try {
+            return action.call();
+        } catch (Exception e) {
+            // Redis 장애 시에는 L1만으로 동작한다
+            log.warn("Cache {} L2 {} failed: {}", name, operation, e.getMessage());
+            return null;
+        }
+    }
+}
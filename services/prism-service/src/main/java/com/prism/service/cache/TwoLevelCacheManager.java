@@ -0,0 +1,126 @@
+package com.prism.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TwoLevelCache}를 만드는 CacheManager 겸 무효화 메시지 수신기
+ *
+ * 무효화 메시지 형식: "{발신 인스턴스}|{캐시 이름}|EVICT|{key}" 또는 "{발신 인스턴스}|{캐시 이름}|CLEAR|{generation}".
+ * 자기가 보낸 메시지는 무시한다. redisTemplate이 null이면 L1만 쓰고 메시지도 보내지 않는다 (테스트/단일 인스턴스).
+ *
+ * 지표: L1은 Caffeine 통계(cache.gets/cache.evictions 등, cache 태그), L2는 prism.cache.l2 (result=hit|miss)
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "prism:cache:invalidation";
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    @Nullable
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long l1MaxEntries;
+    private final Duration l1Ttl;
+    private final long l2TtlMs;
+    private final long generationRefreshMs;
+
+    public TwoLevelCacheManager(@Nullable StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                                long l1MaxEntries, Duration l1Ttl, long l2TtlMs, long generationRefreshMs) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.l1MaxEntries = l1MaxEntries;
+        this.l1Ttl = l1Ttl;
+        this.l2TtlMs = l2TtlMs;
+        this.generationRefreshMs = generationRefreshMs;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Set.copyOf(caches.keySet());
+    }
+
+    private TwoLevelCache createCache(String name) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> l1 = Caffeine.newBuilder()
+            .maximumSize(l1MaxEntries)
+            .expireAfterWrite(l1Ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, name);
+        return new TwoLevelCache(name, l1, redisTemplate, l2TtlMs, generationRefreshMs, this);
+    }
+
+    void l2Hit(String name) {
+        l2Counter(name, "hit").increment();
+    }
+
+    void l2Miss(String name) {
+        l2Counter(name, "miss").increment();
+    }
+
+    private Counter l2Counter(String name, String result) {
+        return Counter.builder("prism.cache.l2")
+            .tag("cache", name)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    void publishEvict(String name, Object key) {
+        publish(name + "|EVICT|" + key);
+    }
+
+    void publishClear(String name, long generation) {
+        publish(name + "|CLEAR|" + generation);
+    }
+
+    private void publish(String body) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + "|" + body);
+        } catch (RuntimeException e) {
+            // 다른 replica의 L1은 L1 TTL이 지나면 맞춰진다
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, @Nullable byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if ("CLEAR".equals(parts[2])) {
+            cache.invalidateLocal(null, Long.parseLong(parts[3]));
+        } else {
+            cache.invalidateLocal(parts[3], -1);
+        }
+    }
+}
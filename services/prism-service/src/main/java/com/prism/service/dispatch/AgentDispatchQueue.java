@@ -0,0 +1,155 @@
+package com.prism.service.dispatch;
+
+import com.prism.domain.Agent;
+import com.prism.domain.Task;
+import com.prism.dto.AgentDispatchStats;
+import com.prism.service.presence.AgentPresenceRegistry;
+import com.prism.service.sideeffect.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Agent별 Redis Stream 배정 큐
+ *
+ * Task 배정은 prism:dispatch:{agentId} 스트림에 XADD 되고, Daemon은 "daemons" consumer group으로
+ * XREADGROUP 해서 처리가 끝나면 XACK 한다. Daemon이 꺼져 있어도 항목은 스트림에 남아 있다가
+ * 다시 붙었을 때 전달되며, ack 없이 오래 방치된 항목은 Daemon이 XAUTOCLAIM으로 다시 가져간다.
+ * 스트림 길이는 MAXLEN ~ max-len으로 제한한다. Daemon이 offline이어도 배정은 스트림에 쌓인다.
+ * WatchAssignments로 구독 중인 Daemon에는 AssignmentWatchService가 같은 스트림을 읽어 push 한다.
+ */
+@Slf4j
+@Service
+public class AgentDispatchQueue {
+
+    public static final String GROUP = "daemons";
+    private static final String KEY_PREFIX = "prism:dispatch:";
+
+    // consumer group이 없으면 만들고(스트림 처음부터 읽음) MAXLEN ~ 상한으로 XADD
+    private static final RedisScript<String> DISPATCH_SCRIPT = new DefaultRedisScript<>(
+        "pcall(redis.call, 'XGROUP', 'CREATE', KEYS[1], ARGV[1], '0', 'MKSTREAM') " +
+        "return redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[2], '*', " +
+        "'taskId', ARGV[3], 'title', ARGV[4], 'dispatchedAt', ARGV[5])", String.class);
+
+    // {XLEN, pending, lag(-1: 알 수 없음), 가장 오래된 pending의 idle ms}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> STATS_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return {0, 0, 0, 0} end " +
+        "local pending, lag = 0, -1 " +
+        "for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do " +
+        "  local fields = {} " +
+        "  for i = 1, #group, 2 do fields[group[i]] = group[i + 1] end " +
+        "  if fields['name'] == ARGV[1] then " +
+        "    pending = fields['pending'] " +
+        "    if fields['lag'] then lag = fields['lag'] end " +
+        "  end " +
+        "end " +
+        "local oldestIdle = 0 " +
+        "if pending > 0 then " +
+        "  local oldest = redis.call('XPENDING', KEYS[1], ARGV[1], '-', '+', 1) " +
+        "  if oldest[1] then oldestIdle = oldest[1][3] end " +
+        "end " +
+        "return {redis.call('XLEN', KEYS[1]), pending, lag, oldestIdle}", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final AgentPresenceRegistry agentPresenceRegistry;
+    private final AssignmentWatchService assignmentWatchService;
+    private final long maxLen;
+
+    public AgentDispatchQueue(StringRedisTemplate redisTemplate,
+                              AgentPresenceRegistry agentPresenceRegistry,
+                              AssignmentWatchService assignmentWatchService,
+                              @Value("${prism.dispatch.max-len:10000}") long maxLen) {
+        this.redisTemplate = redisTemplate;
+        this.agentPresenceRegistry = agentPresenceRegistry;
+        this.assignmentWatchService = assignmentWatchService;
+        this.maxLen = maxLen;
+    }
+
+    public static String streamKey(String agentId) {
+        return KEY_PREFIX + agentId;
+    }
+
+    /**
+     * Task를 Agent 스트림에 추가한다. 트랜잭션 안이면 커밋 후에 추가해서
+     * Daemon이 아직 커밋되지 않은 Task를 받지 않도록 한다.
+     */
+    public void dispatch(Task task, Agent agent) {
+        AfterCommit.run(() -> append(task, agent));
+    }
+
+    /**
+     * 여러 Task를 각자의 assignedTo 스트림에 파이프라인 한 번으로 추가한다 (트랜잭션 안이면 커밋 후).
+     */
+    public void dispatchAll(List<Task> tasks) {
+        if (!tasks.isEmpty()) {
+            AfterCommit.run(() -> appendAll(tasks));
+        }
+    }
+
+    private void append(Task task, Agent agent) {
+        String key = streamKey(agent.getId());
+        String recordId = redisTemplate.execute(DISPATCH_SCRIPT, List.of(key),
+            GROUP, String.valueOf(maxLen), task.getId(), task.getTitle() != null ? task.getTitle() : "",
+            LocalDateTime.now().toString());
+        assignmentWatchService.notifyDispatched(agent.getId());
+        if (agentPresenceRegistry.isOnline(agent.getId())) {
+            log.info("Dispatched task {} to stream {} as {}", task.getId(), key, recordId);
+        } else {
+            log.info("Dispatched task {} to stream {} as {} (agent offline, delivered on reconnect)",
+                task.getId(), key, recordId);
+        }
+    }
+
+    private void appendAll(List<Task> tasks) {
+        // 파이프라인 안에서는 NOSCRIPT 재시도를 할 수 없으므로 EVALSHA 대신 EVAL로 보낸다
+        byte[] script = bytes(DISPATCH_SCRIPT.getScriptAsString());
+        byte[] group = bytes(GROUP);
+        byte[] maxLenArg = bytes(String.valueOf(maxLen));
+        byte[] dispatchedAt = bytes(LocalDateTime.now().toString());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Task task : tasks) {
+                connection.scriptingCommands().eval(script, ReturnType.VALUE, 1,
+                    bytes(streamKey(task.getAssignedTo().getId())), group, maxLenArg,
+                    bytes(task.getId()), bytes(task.getTitle() != null ? task.getTitle() : ""), dispatchedAt);
+            }
+            return null;
+        });
+        tasks.stream().map(task -> task.getAssignedTo().getId()).distinct()
+            .forEach(assignmentWatchService::notifyDispatched);
+        log.info("Dispatched {} tasks to {} agent streams", tasks.size(),
+            tasks.stream().map(task -> task.getAssignedTo().getId()).distinct().count());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public AgentDispatchStats stats(String agentId) {
+        List<?> values = redisTemplate.execute(STATS_SCRIPT, List.of(streamKey(agentId)), GROUP);
+        if (values == null || values.size() < 4) {
+            return AgentDispatchStats.builder().agentId(agentId).build();
+        }
+        long lag = toLong(values.get(2));
+        return AgentDispatchStats.builder()
+            .agentId(agentId)
+            .streamLength(toLong(values.get(0)))
+            .pending(toLong(values.get(1)))
+            .lag(lag >= 0 ? lag : null)
+            .oldestPendingIdleMs(toLong(values.get(3)))
+            .build();
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
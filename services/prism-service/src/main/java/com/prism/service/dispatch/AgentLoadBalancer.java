@@ -0,0 +1,254 @@
+package com.prism.service.dispatch;
+
+import com.prism.domain.Agent;
+import com.prism.domain.enums.AgentCapability;
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.presence.AgentPresenceRegistry;
+import com.prism.service.sideeffect.AfterCommit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부하 기반 자동 Task 배정
+ *
+ * Agent별 대기(TODO)/실행 중(IN_PROGRESS) Task 수를 메모리에 들고 있다가, 같은 role에서 요구 능력을 가진
+ * Agent 중 (1) online (2) 대기+실행 수가 적은 (3) 가장 오래전에 배정받은 순으로 고른다.
+ * 배정 결정은 메모리만 읽으므로 DB를 조회하지 않는다.
+ *
+ * 카운터는 배정 시(assign/assigned) 증가하고, write-behind flush가 커밋한 status 전이(statusChanged)로 옮겨진다.
+ * 트랜잭션이 롤백되면 배정분을 되돌린다. 다른 replica에서 생긴 변화나 누락은 주기적인 reconcile()이
+ * MySQL 집계로 덮어써서 바로잡는다.
+ */
+@Slf4j
+@Component
+public class AgentLoadBalancer {
+
+    private static final String QUEUED = "TODO";
+    private static final String RUNNING = "IN_PROGRESS";
+
+    private final AgentRepository agentRepository;
+    private final TaskRepository taskRepository;
+    private final AgentPresenceRegistry agentPresenceRegistry;
+
+    private final ConcurrentHashMap<String, AgentLoad> loads = new ConcurrentHashMap<>();
+    private final AtomicLong assignmentSequence = new AtomicLong();
+    // role -> 후보 목록. Agent가 추가될 때만 새 Map으로 교체한다
+    private volatile Map<String, List<AgentLoad>> byRole = Map.of();
+    private volatile List<AgentLoad> all = List.of();
+
+    public AgentLoadBalancer(AgentRepository agentRepository,
+                             TaskRepository taskRepository,
+                             AgentPresenceRegistry agentPresenceRegistry) {
+        this.agentRepository = agentRepository;
+        this.taskRepository = taskRepository;
+        this.agentPresenceRegistry = agentPresenceRegistry;
+    }
+
+    /**
+     * Agent 하나의 메모리 부하 상태. agent는 배정 시 Task에 연결할 detached 스냅샷이다.
+     */
+    @Getter
+    public static class AgentLoad {
+        private final Agent agent;
+        private final Set<AgentCapability> capabilities;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private volatile long lastAssignedAt;
+
+        AgentLoad(Agent agent) {
+            this.agent = agent;
+            this.capabilities = AgentCapability.of(agent);
+        }
+
+        int load() {
+            return queued.get() + running.get();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${prism.assignment.reconcile-interval-ms:60000}",
+               fixedDelayString = "${prism.assignment.reconcile-interval-ms:60000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile agent loads: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Agent 목록과 부하 카운터를 MySQL 기준으로 다시 맞춘다.
+     */
+    public void reconcile() {
+        Map<String, int[]> counts = new HashMap<>();
+        for (Object[] row : taskRepository.countOpenTasksByAgent()) {
+            int[] count = counts.computeIfAbsent((String) row[0], id -> new int[2]);
+            count[QUEUED.equals(row[1]) ? 0 : 1] = ((Number) row[2]).intValue();
+        }
+
+        for (Agent agent : agentRepository.findAll()) {
+            AgentLoad load = loads.compute(agent.getId(), (id, existing) -> {
+                AgentLoad updated = new AgentLoad(agent);
+                if (existing != null) {
+                    updated.lastAssignedAt = existing.lastAssignedAt;
+                }
+                return updated;
+            });
+            int[] count = counts.getOrDefault(agent.getId(), new int[2]);
+            load.queued.set(count[0]);
+            load.running.set(count[1]);
+        }
+        rebuildIndex();
+        log.debug("Reconciled loads of {} agents", loads.size());
+    }
+
+    /**
+     * 새로 저장된 Agent를 후보에 추가한다 (커밋 후).
+     */
+    public void agentSaved(Agent agent) {
+        AfterCommit.run(() -> {
+            loads.compute(agent.getId(), (id, existing) -> {
+                AgentLoad updated = new AgentLoad(agent);
+                if (existing != null) {
+                    updated.queued.set(existing.queued.get());
+                    updated.running.set(existing.running.get());
+                }
+                return updated;
+            });
+            rebuildIndex();
+        });
+    }
+
+    /**
+     * 조건에 맞는 가장 한가한 Agent를 골라 대기 카운터를 올린다.
+     *
+     * @param role 대상 role (null이면 전체)
+     * @param required Agent가 모두 가져야 하는 능력
+     */
+    public Optional<Agent> assign(String role, Set<AgentCapability> required) {
+        List<AgentLoad> candidates = role != null ? byRole.getOrDefault(role, List.of()) : all;
+
+        AgentLoad chosen;
+        synchronized (this) {
+            chosen = null;
+            boolean chosenOnline = false;
+            for (AgentLoad candidate : candidates) {
+                if (!candidate.capabilities.containsAll(required)) {
+                    continue;
+                }
+                boolean online = agentPresenceRegistry.isOnline(candidate.agent.getId());
+                if (chosen == null || isBetter(candidate, online, chosen, chosenOnline)) {
+                    chosen = candidate;
+                    chosenOnline = online;
+                }
+            }
+            if (chosen == null) {
+                return Optional.empty();
+            }
+            reserve(chosen);
+        }
+        return Optional.of(chosen.agent);
+    }
+
+    /**
+     * 사람이 직접 배정한 경우에도 부하에 반영한다.
+     */
+    public void assigned(String agentId) {
+        AgentLoad load = loads.get(agentId);
+        if (load != null) {
+            reserve(load);
+        }
+    }
+
+    /**
+     * 커밋된 legacy status 전이 반영 (TODO -> IN_PROGRESS -> DONE/FAILED)
+     */
+    public void statusChanged(String agentId, String from, String to) {
+        if (agentId == null || (from != null && from.equals(to))) {
+            return;
+        }
+        AgentLoad load = loads.get(agentId);
+        if (load == null) {
+            return;
+        }
+        counter(load, from).ifPresent(AgentLoadBalancer::decrementToZero);
+        counter(load, to).ifPresent(AtomicInteger::incrementAndGet);
+    }
+
+    public Optional<AgentLoad> load(String agentId) {
+        return Optional.ofNullable(loads.get(agentId));
+    }
+
+    private static boolean isBetter(AgentLoad candidate, boolean candidateOnline, AgentLoad current, boolean currentOnline) {
+        if (candidateOnline != currentOnline) {
+            return candidateOnline;
+        }
+        if (candidate.load() != current.load()) {
+            return candidate.load() < current.load();
+        }
+        return candidate.lastAssignedAt < current.lastAssignedAt;
+    }
+
+    private void reserve(AgentLoad load) {
+        load.queued.incrementAndGet();
+        load.lastAssignedAt = assignmentSequence.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        decrementToZero(load.queued);
+                    }
+                }
+            });
+        }
+    }
+
+    private static Optional<AtomicInteger> counter(AgentLoad load, String status) {
+        if (QUEUED.equals(status)) {
+            return Optional.of(load.queued);
+        }
+        if (RUNNING.equals(status)) {
+            return Optional.of(load.running);
+        }
+        return Optional.empty();
+    }
+
+    private static void decrementToZero(AtomicInteger counter) {
+        counter.updateAndGet(value -> Math.max(0, value - 1));
+    }
+
+    private synchronized void rebuildIndex() {
+        Map<String, List<AgentLoad>> roles = new HashMap<>();
+        List<AgentLoad> everyone = new ArrayList<>(loads.values());
+        for (AgentLoad load : everyone) {
+            if (load.agent.getRole() != null) {
+                roles.computeIfAbsent(load.agent.getRole(), role -> new ArrayList<>()).add(load);
+            }
+        }
+        roles.replaceAll((role, list) -> List.copyOf(list));
+        byRole = Map.copyOf(roles);
+        all = List.copyOf(everyone);
+    }
+}
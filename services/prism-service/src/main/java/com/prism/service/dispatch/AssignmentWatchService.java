@@ -0,0 +1,285 @@
+package com.prism.service.dispatch;
+
+import com.prism.domain.Agent;
+import com.prism.domain.Task;
+import com.prism.grpc.AgentConfig;
+import com.prism.grpc.Assignment;
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskRepository;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * WatchAssignments 스트림: Daemon에 Task 배정을 push 한다
+ *
+ * 배정의 원본은 그대로 Agent별 dispatch 스트림(AgentDispatchQueue)이다. 구독마다 마지막으로 보낸 레코드 id를
+ * cursor로 들고, 그 뒤 레코드를 XRANGE로 읽어 Task/Agent 설정을 채운 Assignment로 보낸다 (Daemon의 추가 조회 없음).
+ * - 이 인스턴스에서 dispatch 한 배정은 바로, 다른 replica에서 dispatch 한 배정은 poll-interval-ms 안에 전달된다
+ * - 재연결 시 resume_after(마지막으로 받은 sequence) 다음부터 이어서 보낸다. resume_after가 없거나 MAXLEN으로
+ *   잘려 나간 구간이면 Agent의 열린(TODO) Task 스냅샷을 먼저 보낸다. 전달은 at-least-once다
+ * - 클라이언트가 느리면(isReady == false) 읽기를 멈췄다가 onReady에서 이어간다
+ * 전송은 모두 watch 스레드 하나에서 하므로 스트림별 동기화가 필요 없다.
+ */
+@Slf4j
+@Service
+public class AssignmentWatchService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final TaskRepository taskRepository;
+    private final AgentRepository agentRepository;
+    private final long pollIntervalMs;
+    private final int batchSize;
+
+    // agentId -> 구독 (같은 Agent가 재연결 중에 잠시 두 개를 가질 수 있다)
+    private final Map<String, Set<Watch>> watches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public AssignmentWatchService(StringRedisTemplate redisTemplate,
+                                  TaskRepository taskRepository,
+                                  AgentRepository agentRepository,
+                                  @Value("${prism.assignments.poll-interval-ms:500}") long pollIntervalMs,
+                                  @Value("${prism.assignments.batch-size:100}") int batchSize) {
+        this.redisTemplate = redisTemplate;
+        this.taskRepository = taskRepository;
+        this.agentRepository = agentRepository;
+        this.pollIntervalMs = pollIntervalMs;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "assignment-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollAll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Assignment watch thread did not stop in time");
+        }
+        // Daemon은 다른 replica에 다시 붙어 마지막 sequence부터 이어받는다
+        watches.values().forEach(agentWatches -> agentWatches.forEach(watch -> {
+            if (!watch.observer.isCancelled()) {
+                watch.observer.onError(Status.UNAVAILABLE.withDescription("Server shutting down").asRuntimeException());
+            }
+        }));
+        watches.clear();
+    }
+
+    /**
+     * 구독을 등록한다. RPC 핸들러 안에서 호출되어야 한다 (cancel/ready 핸들러 등록).
+     */
+    public void watch(String agentId, String resumeAfter, ServerCallStreamObserver<Assignment> observer) {
+        Agent agent = agentRepository.findById(agentId).orElse(null);
+        if (agent == null) {
+            observer.onError(Status.NOT_FOUND.withDescription("Agent not found").asRuntimeException());
+            return;
+        }
+        Watch watch = new Watch(agentId, agentConfig(agent), observer,
+            resumeAfter != null && !resumeAfter.isEmpty() ? resumeAfter : null);
+        observer.setOnCancelHandler(() -> {
+            remove(watch);
+            log.info("Agent {} stopped watching assignments", agentId);
+        });
+        observer.setOnReadyHandler(() -> notifyDispatched(agentId));
+        watches.computeIfAbsent(agentId, id -> ConcurrentHashMap.newKeySet()).add(watch);
+        log.info("Agent {} is watching assignments (resume after {})", agentId, watch.cursor);
+        notifyDispatched(agentId);
+    }
+
+    /**
+     * Agent 스트림에 새 배정이 있을 수 있으니 다음 주기를 기다리지 않고 읽게 한다
+     */
+    public void notifyDispatched(String agentId) {
+        if (scheduler == null || !watches.containsKey(agentId)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> pollAgent(agentId));
+        } catch (RejectedExecutionException e) {
+            // 종료 중
+        }
+    }
+
+    public int watchCount() {
+        return watches.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void pollAll() {
+        watches.keySet().forEach(this::pollAgent);
+    }
+
+    private void pollAgent(String agentId) {
+        Set<Watch> agentWatches = watches.get(agentId);
+        if (agentWatches == null) {
+            return;
+        }
+        for (Watch watch : agentWatches) {
+            try {
+                deliver(watch);
+            } catch (RuntimeException e) {
+                log.warn("Failed to deliver assignments to Agent {}: {}", agentId, e.getMessage());
+            }
+        }
+    }
+
+    private void deliver(Watch watch) {
+        if (watch.observer.isCancelled()) {
+            remove(watch);
+            return;
+        }
+        String key = AgentDispatchQueue.streamKey(watch.agentId);
+        if (!watch.started) {
+            if (watch.cursor == null || trimmedBefore(key, watch.cursor)) {
+                sendSnapshot(watch, key);
+            }
+            watch.started = true;
+        }
+
+        while (watch.observer.isReady()) {
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().range(key,
+                Range.rightUnbounded(Range.Bound.exclusive(watch.cursor)), Limit.limit().count(batchSize));
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+            Map<String, Task> tasks = taskRepository.findAllById(records.stream()
+                    .map(record -> String.valueOf(record.getValue().get("taskId"))).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Task::getId, Function.identity()));
+            for (MapRecord<String, Object, Object> record : records) {
+                Task task = tasks.get(String.valueOf(record.getValue().get("taskId")));
+                // 배정 뒤에 삭제된 Task는 건너뛴다
+                if (task != null) {
+                    watch.observer.onNext(assignment(watch, task, record.getId().getValue(), false,
+                        String.valueOf(record.getValue().get("dispatchedAt"))));
+                }
+                watch.cursor = record.getId().getValue();
+            }
+            if (records.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private void sendSnapshot(Watch watch, String key) {
+        // 스냅샷 조회보다 먼저 스트림 끝을 잡아야 그 사이 dispatch 된 배정을 놓치지 않는다 (중복될 수는 있다)
+        List<MapRecord<String, Object, Object>> last = redisTemplate.opsForStream()
+            .reverseRange(key, Range.unbounded(), Limit.limit().count(1));
+        String tail = last == null || last.isEmpty() ? "0-0" : last.get(0).getId().getValue();
+        List<Task> open = taskRepository.findByFilters("TODO", null, watch.agentId);
+        for (Task task : open) {
+            watch.observer.onNext(assignment(watch, task, tail, true, ""));
+        }
+        watch.cursor = tail;
+        log.info("Sent {} open tasks to Agent {} as a snapshot", open.size(), watch.agentId);
+    }
+
+    // cursor 다음 레코드가 MAXLEN으로 잘려 나갔을 수 있으면 true
+    private boolean trimmedBefore(String key, String cursor) {
+        List<MapRecord<String, Object, Object>> first = redisTemplate.opsForStream()
+            .range(key, Range.unbounded(), Limit.limit().count(1));
+        if (first == null || first.isEmpty()) {
+            return false;
+        }
+        try {
+            return compareIds(cursor, first.get(0).getId().getValue()) < 0;
+        } catch (NumberFormatException e) {
+            return true;  // 알 수 없는 cursor는 스냅샷부터 다시 보낸다
+        }
+    }
+
+    // 스트림 레코드 id ("<ms>-<seq>") 비교
+    static int compareIds(String left, String right) {
+        String[] l = left.split("-", 2);
+        String[] r = right.split("-", 2);
+        int byTime = Long.compare(Long.parseLong(l[0]), Long.parseLong(r[0]));
+        if (byTime != 0) {
+            return byTime;
+        }
+        return Long.compare(l.length > 1 ? Long.parseLong(l[1]) : 0, r.length > 1 ? Long.parseLong(r[1]) : 0);
+    }
+
+    private void remove(Watch watch) {
+        watches.computeIfPresent(watch.agentId, (agentId, agentWatches) -> {
+            agentWatches.remove(watch);
+            return agentWatches.isEmpty() ? null : agentWatches;
+        });
+    }
+
+    private static Assignment assignment(Watch watch, Task task, String sequence, boolean snapshot,
+                                         String dispatchedAt) {
+        return Assignment.newBuilder()
+            .setSequence(sequence)
+            .setSnapshot(snapshot)
+            .setDispatchedAt(dispatchedAt)
+            .setTaskId(task.getId())
+            .setTitle(nullToEmpty(task.getTitle()))
+            .setDescription(nullToEmpty(task.getDescription()))
+            .setPriority(nullToEmpty(task.getPriority()))
+            .setStatus(nullToEmpty(task.getStatus()))
+            .setParentTaskId(nullToEmpty(task.getParentTaskId()))
+            .setProjectId(task.getProject() != null ? task.getProject().getId() : "")
+            .setProjectPath(nullToEmpty(task.getProjectPath()))
+            .setTargetRepo(nullToEmpty(task.getTargetRepo()))
+            .setAutoCommit(Boolean.TRUE.equals(task.getAutoCommit()))
+            .setAutoPush(Boolean.TRUE.equals(task.getAutoPush()))
+            .setAgent(watch.config)
+            .build();
+    }
+
+    private static AgentConfig agentConfig(Agent agent) {
+        return AgentConfig.newBuilder()
+            .setAgentId(agent.getId())
+            .setRole(nullToEmpty(agent.getRole()))
+            .setProviderId(agent.getProvider() != null ? agent.getProvider().getId() : "")
+            .setModelName(nullToEmpty(agent.getModelName()))
+            .setSystemPrompt(nullToEmpty(agent.getSystemPrompt()))
+            .setTemperature(agent.getTemperature() != null ? agent.getTemperature().doubleValue() : 0)
+            .setMaxTokens(agent.getMaxTokens() != null ? agent.getMaxTokens() : 0)
+            .build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static class Watch {
+        private final String agentId;
+        private final AgentConfig config;
+        private final ServerCallStreamObserver<Assignment> observer;
+        // watch 스레드에서만 읽고 쓴다
+        private String cursor;
+        private boolean started;
+
+        Watch(String agentId, AgentConfig config, ServerCallStreamObserver<Assignment> observer, String cursor) {
+            this.agentId = agentId;
+            this.config = config;
+            this.observer = observer;
+            this.cursor = cursor;
+        }
+    }
+}
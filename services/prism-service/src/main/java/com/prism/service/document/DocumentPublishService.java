@@ -0,0 +1,313 @@
+package com.prism.service.document;
+
+import com.prism.domain.DocumentPublishJob;
+import com.prism.domain.enums.PublishJobStatus;
+import com.prism.dto.PublishJobResponse;
+import com.prism.repository.DocumentPublishJobRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.integration.NotionClient;
+import com.prism.service.sideeffect.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비동기 문서 발행 (현재 목적지는 Notion 하나)
+ *
+ * requestNotionPublish()는 Job만 저장하고 바로 반환한다. 워커는
+ * 1) 읽기 전용 트랜잭션에서 마크다운을 렌더링하고
+ * 2) 트랜잭션/DB 커넥션 없이 외부 API를 호출한 뒤
+ * 3) 짧은 트랜잭션에서 notionPageId와 Job 상태만 기록한다.
+ * 실패하면 지수 backoff(+jitter)로 max-attempts까지 재시도한다.
+ *
+ * 여러 인스턴스가 같은 DB를 쓰므로:
+ * - 접수는 activeKey unique 제약으로 Task/목적지당 진행 중 Job을 하나로 만든다
+ * - 시도마다 조건부 UPDATE로 Job을 선점(claim)한 뒤에만 외부 API를 호출하고, 결과는 선점 token이 같을 때만 기록한다.
+ *   선점에 실패하면(다른 인스턴스가 실행 중이거나 재시도 대기 중) lease/대기 시각에 다시 확인한다.
+ *   lease-ms는 외부 호출 한 번보다 충분히 길어야 한다 (지나면 다른 인스턴스가 다시 실행할 수 있다)
+ *
+ * 동시 실행 수는 전체(workers)와 목적지별(max-concurrency-per-destination)로 제한한다.
+ * 워커는 Job마다 가상 스레드 하나로 실행한다 (외부 API 대기 동안 플랫폼 스레드를 잡지 않는다).
+ * 기동 시 끝나지 않은 Job(QUEUED/RUNNING)을 다시 확인해 선점할 수 있으면 실행한다.
+ */
+@Slf4j
+@Service
+public class DocumentPublishService {
+
+    public static final String NOTION = "notion";
+
+    private static final Set<PublishJobStatus> ACTIVE = EnumSet.of(PublishJobStatus.QUEUED, PublishJobStatus.RUNNING);
+    private static final long DESTINATION_BUSY_DELAY_MS = 200;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_ENQUEUE_ATTEMPTS = 3;
+
+    private final DocumentPublishJobRepository jobRepository;
+    private final TaskRepository taskRepository;
+    private final DocumentService documentService;
+    private final NotionClient notionClient;
+    private final TransactionTemplate transactionTemplate;
+    private final int workers;
+    private final int maxConcurrencyPerDestination;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+
+    private final Map<String, Semaphore> destinationPermits = new ConcurrentHashMap<>();
+    private Semaphore workerPermits;
+    private ExecutorService workerExecutor;
+    private ScheduledExecutorService retryScheduler;
+
+    public DocumentPublishService(DocumentPublishJobRepository jobRepository,
+                                  TaskRepository taskRepository,
+                                  DocumentService documentService,
+                                  NotionClient notionClient,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${prism.document-publish.workers:8}") int workers,
+                                  @Value("${prism.document-publish.max-concurrency-per-destination:2}") int maxConcurrencyPerDestination,
+                                  @Value("${prism.document-publish.max-attempts:5}") int maxAttempts,
+                                  @Value("${prism.document-publish.initial-backoff-ms:1000}") long initialBackoffMs,
+                                  @Value("${prism.document-publish.max-backoff-ms:60000}") long maxBackoffMs,
+                                  @Value("${prism.document-publish.lease-ms:300000}") long leaseMs) {
+        this.jobRepository = jobRepository;
+        this.taskRepository = taskRepository;
+        this.documentService = documentService;
+        this.notionClient = notionClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.maxConcurrencyPerDestination = maxConcurrencyPerDestination;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+    }
+
+    @PostConstruct
+    void start() {
+        workerPermits = new Semaphore(workers);
+        // 작업마다 가상 스레드 (동시 실행 수는 workerPermits가 제한)
+        workerExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "document-publish-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        workerExecutor.shutdown();
+        if (!workerExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // 남은 Job은 QUEUED/RUNNING으로 남아 다음 기동 시(RUNNING은 lease가 지난 뒤) 재실행된다
+            log.warn("Document publish workers did not stop in time");
+            workerExecutor.shutdownNow();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void resumeUnfinishedJobs() {
+        for (DocumentPublishJob job : jobRepository.findByStatusIn(ACTIVE)) {
+            log.info("Resuming document publish job {} for Task {}", job.getId(), job.getTaskId());
+            dispatch(job.getId());
+        }
+    }
+
+    /**
+     * Notion 발행 Job 접수. 같은 Task의 Notion 발행이 이미 진행 중이면 그 Job을 반환한다.
+     */
+    public PublishJobResponse requestNotionPublish(String taskId) {
+        if (!taskRepository.existsById(taskId)) {
+            throw new IllegalArgumentException("Task not found");
+        }
+
+        String activeKey = DocumentPublishJob.activeKey(taskId, NOTION);
+        for (int attempt = 0; attempt < MAX_ENQUEUE_ATTEMPTS; attempt++) {
+            DocumentPublishJob active = jobRepository.findByActiveKey(activeKey).orElse(null);
+            if (active != null) {
+                return PublishJobResponse.from(active);
+            }
+            try {
+                DocumentPublishJob job = jobRepository.saveAndFlush(DocumentPublishJob.builder()
+                    .taskId(taskId)
+                    .destination(NOTION)
+                    .activeKey(activeKey)
+                    .build());
+                dispatchAfterCommit(job.getId());
+                return PublishJobResponse.from(job);
+            } catch (DataIntegrityViolationException e) {
+                // 동시에 들어온 요청이 먼저 만들었다: 다시 조회해서 그 Job을 반환한다
+                log.debug("Publish job for Task {} was created concurrently", taskId);
+            }
+        }
+        throw new IllegalStateException("Could not enqueue publish job for Task " + taskId);
+    }
+
+    public PublishJobResponse getJob(String jobId) {
+        return jobRepository.findById(jobId)
+            .map(PublishJobResponse::from)
+            .orElseThrow(() -> new IllegalArgumentException("Job not found"));
+    }
+
+    private void dispatchAfterCommit(String jobId) {
+        AfterCommit.run(() -> dispatch(jobId));
+    }
+
+    private void dispatch(String jobId) {
+        try {
+            workerExecutor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            // 종료 중: Job은 QUEUED로 남아 다음 기동 시 재실행된다
+            log.warn("Document publish job {} rejected during shutdown", jobId);
+        }
+    }
+
+    private void dispatchLater(String jobId, long delayMs) {
+        try {
+            retryScheduler.schedule(() -> dispatch(jobId), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Document publish job {} not rescheduled during shutdown", jobId);
+        }
+    }
+
+    private void runJob(String jobId) {
+        DocumentPublishJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus().isFinished()) {
+            return;
+        }
+
+        Semaphore destination = destinationPermits.computeIfAbsent(job.getDestination(),
+            d -> new Semaphore(maxConcurrencyPerDestination));
+        if (!destination.tryAcquire()) {
+            dispatchLater(jobId, DESTINATION_BUSY_DELAY_MS);
+            return;
+        }
+        try {
+            workerPermits.acquire();
+            try {
+                attempt(jobId);
+            } finally {
+                workerPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            destination.release();
+        }
+    }
+
+    private void attempt(String jobId) {
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime claimedAt = LocalDateTime.now();
+        if (jobRepository.claim(jobId, claimToken, claimedAt.plus(Duration.ofMillis(leaseMs)), claimedAt,
+            PublishJobStatus.QUEUED, PublishJobStatus.RUNNING) == 0) {
+            recheckLater(jobId);
+            return;
+        }
+        DocumentPublishJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        String pageId;
+        try {
+            DocumentService.RenderedDocument document = documentService.renderForPublish(job.getTaskId());
+            pageId = notionClient.createPage(document.title(), document.markdown());
+        } catch (IllegalArgumentException e) {
+            // Task 삭제 등 재시도해도 성공할 수 없는 오류
+            fail(job, claimToken, e);
+            return;
+        } catch (RuntimeException e) {
+            retryOrFail(job, claimToken, e);
+            return;
+        }
+
+        Boolean recorded = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (jobRepository.release(jobId, claimToken, PublishJobStatus.SUCCEEDED, pageId, null, null, null, now) == 0) {
+                return false;
+            }
+            taskRepository.updateNotionPageId(job.getTaskId(), pageId, now);
+            return true;
+        });
+        if (Boolean.TRUE.equals(recorded)) {
+            log.info("Published Task {} to {} as {} (attempt {})",
+                job.getTaskId(), job.getDestination(), pageId, job.getAttempts());
+        } else {
+            log.warn("Document publish job {} lost its claim before recording page {}", jobId, pageId);
+        }
+    }
+
+    /**
+     * 선점하지 못한 Job: 다른 인스턴스가 실행 중이면 lease가 끝날 때, 재시도 대기 중이면 대기 시각에 다시 확인한다
+     * (그 인스턴스가 중간에 멈춘 경우를 대비한다)
+     */
+    private void recheckLater(String jobId) {
+        DocumentPublishJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus().isFinished()) {
+            return;
+        }
+        LocalDateTime wakeAt = job.getStatus() == PublishJobStatus.RUNNING ? job.getLeaseUntil() : job.getNextAttemptAt();
+        long delayMs = wakeAt != null ? Duration.between(LocalDateTime.now(), wakeAt).toMillis() : 0;
+        dispatchLater(jobId, Math.max(DESTINATION_BUSY_DELAY_MS, delayMs));
+    }
+
+    private void retryOrFail(DocumentPublishJob job, String claimToken, RuntimeException e) {
+        if (job.getAttempts() >= maxAttempts) {
+            fail(job, claimToken, e);
+            return;
+        }
+        long delayMs = backoffMs(job.getAttempts());
+        log.warn("Document publish job {} attempt {} failed, retrying in {} ms: {}",
+            job.getId(), job.getAttempts(), delayMs, e.getMessage());
+
+        LocalDateTime now = LocalDateTime.now();
+        if (jobRepository.release(job.getId(), claimToken, PublishJobStatus.QUEUED, null, errorMessage(e),
+            now.plus(Duration.ofMillis(delayMs)), job.getActiveKey(), now) > 0) {
+            dispatchLater(job.getId(), delayMs);
+        }
+    }
+
+    private void fail(DocumentPublishJob job, String claimToken, RuntimeException e) {
+        log.error("Document publish job {} failed after {} attempt(s)", job.getId(), job.getAttempts(), e);
+        jobRepository.release(job.getId(), claimToken, PublishJobStatus.FAILED, null, errorMessage(e), null, null,
+            LocalDateTime.now());
+    }
+
+    /**
+     * initial * 2^(attempt-1), max-backoff-ms 상한, ±20% jitter
+     */
+    long backoffMs(int attempt) {
+        long exponential = initialBackoffMs << Math.min(attempt - 1, 20);
+        long capped = Math.min(maxBackoffMs, exponential);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.max(1, (long) (capped * jitter));
+    }
+
+    private static String errorMessage(RuntimeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
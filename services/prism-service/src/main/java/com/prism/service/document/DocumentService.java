@@ -1,86 +1,266 @@
 package com.prism.service.document;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.prism.domain.Task;
 import com.prism.domain.ActivityLog;
 import com.prism.repository.TaskRepository;
 import com.prism.repository.ActivityLogRepository;
-import com.prism.service.integration.NotionClient;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
 
+/**
+ * Task 마크다운 문서 렌더링
+ *
+ * 다운로드(exportMarkdown)는 문자열을 만들지 않고 타임라인 커서를 읽는 대로 응답 스트림에 쓴다.
+ * 렌더링 결과는 version과 함께 메모리에 캐시하고, version이 같으면 다시 렌더링하지 않는다 (version은 ETag로도 쓰인다).
+ * version은 Task.version, Task에 저장된 마지막 이벤트 id(lastActivityId)와 문서에 들어가는 필드의 SHA-256이라
+ * Task 한 행만 읽어 계산한다. ActivityLog는 Task 커밋 뒤 Mongo에 쓰이므로, 캐시가 없을 때는 lastActivityId가
+ * Mongo에 있는지 확인한다. 아직 없으면 타임라인이 그 이벤트를 빠뜨리므로 version(ETag)을 주지 않고 캐시하지도 않는다.
+ * max-cached-document-bytes보다 큰 문서는 캐시하지 않고 매번 스트리밍한다.
+ */
 @Service
-@RequiredArgsConstructor
 public class DocumentService {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final TaskRepository taskRepository;
     private final ActivityLogRepository activityLogRepository;
-    private final NotionClient notionClient;
+    private final int maxCachedDocumentBytes;
+    // taskId -> 마지막으로 렌더링한 문서
+    private final Cache<String, CachedMarkdown> renderedCache;
 
-    @Transactional
-    public String publishTaskToNotion(String taskId) {
-        Task task = taskRepository.findById(taskId)
-            .orElseThrow(() -> new IllegalArgumentException("Task not found"));
+    public DocumentService(TaskRepository taskRepository,
+                           ActivityLogRepository activityLogRepository,
+                           @Value("${prism.document.cache-max-bytes:33554432}") long cacheMaxBytes,
+                           @Value("${prism.document.max-cached-document-bytes:1048576}") int maxCachedDocumentBytes) {
+        this.taskRepository = taskRepository;
+        this.activityLogRepository = activityLogRepository;
+        this.maxCachedDocumentBytes = maxCachedDocumentBytes;
+        this.renderedCache = Caffeine.newBuilder()
+            .maximumWeight(cacheMaxBytes)
+            .weigher((String taskId, CachedMarkdown cached) -> cached.content().length)
+            .build();
+    }
 
-        String markdown = generateMarkdown(task);
-        String pageId = notionClient.createPage("Task: " + task.getTitle(), markdown);
+    /**
+     * 발행할 문서 (제목 + 마크다운)
+     */
+    public record RenderedDocument(String title, String markdown) {
+    }
 
-        task.setNotionPageId(pageId);
-        taskRepository.save(task);
+    /**
+     * 스트리밍 다운로드. body는 트랜잭션 밖(응답 스레드)에서 실행된다.
+     * version은 타임라인이 완전한지 확인하지 못했으면 null이다 (ETag를 주지 않는다).
+     */
+    public record MarkdownExport(String version, StreamingResponseBody body) {
+    }
 
-        return pageId;
+    private record CachedMarkdown(String version, byte[] content) {
     }
 
+    /**
+     * 외부 발행용 문서 렌더링 (읽기 전용 트랜잭션, 외부 호출은 DocumentPublishService가 트랜잭션 밖에서 한다)
+     */
     @Transactional(readOnly = true)
-    public String getRawMarkdown(String taskId) {
-        Task task = taskRepository.findById(taskId)
+    public RenderedDocument renderForPublish(String taskId) {
+        Task task = findTask(taskId);
+        StringWriter writer = new StringWriter();
+        try {
+            writeMarkdown(task, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new RenderedDocument("Task: " + task.getTitle(), writer.toString());
+    }
+
+    /**
+     * Task와 version만 조회하고, 본문은 캐시된 사본이 있으면 그대로, 없으면 렌더링하면서 쓴다
+     */
+    @Transactional(readOnly = true)
+    public MarkdownExport exportMarkdown(String taskId) {
+        Task task = findTask(taskId);
+        String version = versionOf(task);
+
+        CachedMarkdown cached = renderedCache.getIfPresent(taskId);
+        if (cached != null && cached.version().equals(version)) {
+            return new MarkdownExport(version, out -> out.write(cached.content()));
+        }
+        // 이벤트는 추가만 되므로 지금 있으면 뒤에 읽는 타임라인에도 있다.
+        // lastActivityId가 없는 Task는 예전 데이터다. 이후 이벤트는 모두 lastActivityId를 남기므로 완전하다고 본다
+        boolean timelineComplete = task.getLastActivityId() == null
+            || activityLogRepository.existsById(task.getLastActivityId());
+        return new MarkdownExport(timelineComplete ? version : null, out -> {
+            CapturingOutputStream capture = new CapturingOutputStream(out, maxCachedDocumentBytes);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(capture, StandardCharsets.UTF_8));
+            writeMarkdown(task, writer);
+            writer.flush();
+            byte[] content = capture.captured();
+            if (content != null && timelineComplete) {
+                renderedCache.put(taskId, new CachedMarkdown(version, content));
+            }
+        });
+    }
+
+    private Task findTask(String taskId) {
+        // assignedTo/project를 함께 조회하므로 트랜잭션이 끝난 뒤 스트리밍할 때도 지연 로딩이 없다
+        return taskRepository.findWithAssociationsById(taskId)
             .orElseThrow(() -> new IllegalArgumentException("Task not found"));
-        return generateMarkdown(task);
     }
 
-    private String generateMarkdown(Task task) {
-        StringBuilder sb = new StringBuilder();
+    // 이벤트는 추가만 되므로 마지막 이벤트가 같으면 타임라인이 같다.
+    // Agent/Project 이름은 바뀌어도 Task.version이 오르지 않으므로 함께 넣는다
+    private static String versionOf(Task task) {
+        MessageDigest digest = sha256();
+        for (Object field : new Object[]{task.getVersion(), task.getLastActivityId(), task.getTitle(), task.getStatus(),
+            task.getPriority(), task.getDescription(), assigneeName(task), projectName(task), task.getGitBranch(),
+            task.getGitCommitHash(), task.getGitPrUrl(), task.getUpdatedAt()}) {
+            // null과 빈 문자열, 필드 경계가 섞이지 않도록 길이를 앞에 붙인다
+            byte[] bytes = field != null ? field.toString().getBytes(StandardCharsets.UTF_8) : null;
+            digest.update(ByteBuffer.allocate(4).putInt(bytes != null ? bytes.length : -1).array());
+            if (bytes != null) {
+                digest.update(bytes);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        sb.append("# ").append(task.getTitle()).append("\n\n");
-        sb.append("**Status:** ").append(task.getStatus()).append("\n");
-        sb.append("**Priority:** ").append(task.getPriority()).append("\n");
-        sb.append("**Assigned To:** ").append(task.getAssignedTo() != null ? task.getAssignedTo().getName() : "Unassigned").append("\n");
-        sb.append("**Project:** ").append(task.getProject() != null ? task.getProject().getName() : "N/A").append("\n\n");
+    /**
+     * @return 타임라인의 최신 이벤트 id (이벤트가 없으면 null)
+     */
+    private String writeMarkdown(Task task, Writer out) throws IOException {
+        out.append("# ").append(task.getTitle()).append("\n\n");
+        out.append("**Status:** ").append(task.getStatus()).append("\n");
+        out.append("**Priority:** ").append(task.getPriority()).append("\n");
+        out.append("**Assigned To:** ").append(assigneeName(task) != null ? assigneeName(task) : "Unassigned").append("\n");
+        out.append("**Project:** ").append(projectName(task) != null ? projectName(task) : "N/A").append("\n\n");
 
-        sb.append("## Description\n");
-        sb.append(task.getDescription() != null ? task.getDescription() : "No description").append("\n\n");
+        out.append("## Description\n");
+        out.append(task.getDescription() != null ? task.getDescription() : "No description").append("\n\n");
 
         if (task.getGitBranch() != null) {
-            sb.append("## Git Integration\n");
-            sb.append("- **Branch:** `").append(task.getGitBranch()).append("`\n");
+            out.append("## Git Integration\n");
+            out.append("- **Branch:** `").append(task.getGitBranch()).append("`\n");
             if (task.getGitCommitHash() != null) {
-                sb.append("- **Commit:** `").append(task.getGitCommitHash()).append("`\n");
+                out.append("- **Commit:** `").append(task.getGitCommitHash()).append("`\n");
             }
             if (task.getGitPrUrl() != null) {
-                sb.append("- **PR:** [Link](").append(task.getGitPrUrl()).append(")\n");
+                out.append("- **PR:** [Link](").append(task.getGitPrUrl()).append(")\n");
             }
-            sb.append("\n");
+            out.append("\n");
         }
 
-        sb.append("## Activity Timeline\n");
-        List<ActivityLog> logs = activityLogRepository.findByTaskId(task.getId()).stream()
-            .sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp()))
-            .collect(Collectors.toList());
+        out.append("## Activity Timeline\n");
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        // 인덱스 순서(최신순)대로 커서를 읽으므로 전체를 메모리에 올려 정렬하지 않는다
+        String newestEventId = null;
+        try (Stream<ActivityLog> logs = activityLogRepository.streamByTaskIdOrderByTimestampDescIdDesc(task.getId())) {
+            Iterator<ActivityLog> iterator = logs.iterator();
+            while (iterator.hasNext()) {
+                ActivityLog log = iterator.next();
+                if (newestEventId == null) {
+                    newestEventId = log.getId();
+                }
+                out.append("- **").append(log.getTimestamp().format(TIMESTAMP_FORMAT)).append("** - ")
+                    .append(log.getAction());
+                if (log.getDetails() != null) {
+                    out.append(" `");
+                    writeDetails(log.getDetails(), out);
+                    out.append("`");
+                }
+                out.append("\n");
+            }
+        }
+        return newestEventId;
+    }
+
+    // Map.toString()과 같은 형식을 중간 문자열 없이 쓴다
+    private static void writeDetails(Map<String, Object> details, Writer out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : details.entrySet()) {
+            if (!first) {
+                out.append(", ");
+            }
+            first = false;
+            out.append(entry.getKey()).append('=').append(String.valueOf(entry.getValue()));
+        }
+        out.append('}');
+    }
+
+    private static String assigneeName(Task task) {
+        return task.getAssignedTo() != null ? task.getAssignedTo().getName() : null;
+    }
+
+    private static String projectName(Task task) {
+        return task.getProject() != null ? task.getProject().getName() : null;
+    }
 
-        for (ActivityLog log : logs) {
-            sb.append("- **").append(log.getTimestamp().format(formatter)).append("** - ")
-              .append(log.getAction());
-             if (log.getDetails() != null) {
-                 sb.append(" `").append(log.getDetails().toString()).append("`");
-             }
-             sb.append("\n");
+    /**
+     * 응답에 쓰는 바이트를 limit까지 함께 모은다. 넘치면 모으기를 그만둔다 (captured()가 null).
+     */
+    private static class CapturingOutputStream extends FilterOutputStream {
+        private final int limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        CapturingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
         }
 
-        return sb.toString();
+        byte[] captured() {
+            return buffer != null ? buffer.toByteArray() : null;
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (buffer == null) {
+                return;
+            }
+            if (buffer.size() + len > limit) {
+                buffer = null;
+                return;
+            }
+            buffer.write(b, off, len);
+        }
     }
 }
@@ -0,0 +1,250 @@
+package com.prism.service.hierarchy;
+
+import com.prism.domain.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Task 계층(parentTaskId)과 닫힘 테이블(task_closure)을 함께 유지한다
+ *
+ * - 생성: 새 Task마다 자기 자신(depth 0)과 부모 경로의 모든 조상 행을 넣는다
+ * - 이동: 하위 트리 전체의 옛 조상 행을 지우고 새 부모 경로와의 행을 넣는다 (순환은 거부)
+ * - 하위 Task 생성/상태 전이는 조상들의 롤업 캐시(TaskRollupCounters)에 delta로 반영한다
+ * 조회(하위 트리, 롤업 집계)는 TaskRepository에서 task_closure 조인 한 번으로 한다.
+ *
+ * 생성은 부모 행을 공유 잠금(FOR SHARE)한 뒤 부모 경로를 잠금 읽기로 읽고, 이동은 하위 트리의 Task 행을
+ * 배타 잠금한다. 그래서 이동 중인 하위 트리 아래에 붙는 생성은 이동이 끝난 뒤의 경로를 읽는다.
+ * 잠금 읽기는 REPEATABLE READ 스냅샷이 아니라 최신 커밋 값을 읽는다. H2(테스트)에는 공유 행 잠금이 없어 FOR UPDATE를 쓴다.
+ */
+@Slf4j
+@Service
+public class TaskHierarchyService {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO task_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, ?)";
+    // 하위 트리의 각 Task에서 이동하는 Task보다 위에 있는 조상 행만 지운다
+    private static final String DETACH_SQL = "DELETE FROM task_closure WHERE descendant_id = ? AND depth > ?";
+    private static final String SUBTREE_SQL =
+        "SELECT ancestor_id, descendant_id, depth FROM task_closure WHERE ancestor_id = ?";
+    private static final String MOVE_SQL =
+        "UPDATE tasks SET parent_task_id = ?, updated_at = ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskRollupCounters rollupCounters;
+    private final int batchSize;
+    private volatile String shareLock;
+
+    public TaskHierarchyService(JdbcTemplate jdbcTemplate,
+                                TaskRollupCounters rollupCounters,
+                                @Value("${prism.task-hierarchy.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupCounters = rollupCounters;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * task_closure 한 행
+     */
+    public record Link(String ancestorId, String descendantId, int depth) {
+    }
+
+    /**
+     * write-behind가 커밋한 레거시 status 전이
+     */
+    public record StatusChange(String taskId, String from, String to) {
+    }
+
+    /**
+     * 주어진 Task 중 존재하는 Task (모든 Task는 depth 0 행을 가진다)
+     */
+    public Set<String> existing(Collection<String> taskIds) {
+        return pathsToRoot(taskIds).keySet();
+    }
+
+    /**
+     * 새로 저장한 Task들을 계층에 붙인다 (생성 트랜잭션 안에서). 부모는 이미 있는 Task여야 한다.
+     */
+    public void attach(Collection<Task> tasks) {
+        Set<String> parentIds = tasks.stream().map(Task::getParentTaskId).filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        // 부모가 이동 중이면 이동이 커밋될 때까지 기다렸다가 새 경로를 읽는다
+        lockRows(parentIds, shareLock());
+        Map<String, List<Link>> parentPaths = pathsToRoot(parentIds, shareLock());
+
+        List<Link> links = new ArrayList<>();
+        TaskRollupCounters.Delta delta = new TaskRollupCounters.Delta();
+        for (Task task : tasks) {
+            links.add(new Link(task.getId(), task.getId(), 0));
+            if (task.getParentTaskId() == null) {
+                continue;
+            }
+            List<Link> path = parentPaths.getOrDefault(task.getParentTaskId(),
+                List.of(new Link(task.getParentTaskId(), task.getParentTaskId(), 0)));
+            for (Link up : path) {
+                links.add(new Link(up.ancestorId(), task.getId(), up.depth() + 1));
+                delta.descendantCreated(up.ancestorId(), task);
+            }
+        }
+        insert(links);
+        rollupCounters.apply(delta);
+    }
+
+    /**
+     * Task를 하위 트리째 다른 부모 아래로 옮긴다 (newParentId가 null이면 최상위로)
+     */
+    @Transactional
+    public void move(String taskId, String newParentId) {
+        if (taskId.equals(newParentId)) {
+            throw new IllegalArgumentException("A task cannot be its own parent");
+        }
+        List<String> involved = newParentId != null ? List.of(taskId, newParentId) : List.of(taskId);
+        Map<String, List<Link>> paths = pathsToRoot(involved);
+        if (!paths.containsKey(taskId)) {
+            throw new IllegalArgumentException("Task not found");
+        }
+        if (newParentId != null && !paths.containsKey(newParentId)) {
+            throw new IllegalArgumentException("Invalid Parent Task ID");
+        }
+
+        // 옮기는 Task와 새 부모 경로 전체를 id 순으로 잠근다. 서로의 하위 트리로 옮기는 동시 이동은
+        // 반드시 같은 행(상대 Task)을 잠그게 되므로 직렬화되고, 나중 이동은 아래 순환 검사에서 거부된다
+        Set<String> locked = new TreeSet<>();
+        locked.add(taskId);
+        if (newParentId != null) {
+            paths.get(newParentId).forEach(link -> locked.add(link.ancestorId()));
+        }
+        lockRows(locked, "FOR UPDATE");
+        paths = pathsToRoot(involved, shareLock());
+
+        List<Link> oldPath = paths.get(taskId);
+        List<Link> newPath = newParentId != null ? paths.get(newParentId) : List.of();
+        if (newPath.stream().anyMatch(link -> link.ancestorId().equals(taskId))) {
+            throw new IllegalArgumentException("Cannot move a task under its own subtree");
+        }
+
+        // 하위 트리의 닫힘 행과 Task 행을 잠가 그 아래에 동시에 붙는 생성이 옛 경로를 쓰지 않게 한다
+        List<Link> subtree = jdbcTemplate.query(SUBTREE_SQL + " FOR UPDATE",
+            (rs, rowNum) -> new Link(rs.getString(1), rs.getString(2), rs.getInt(3)), taskId);
+        Set<String> descendants = new TreeSet<>();
+        subtree.forEach(link -> descendants.add(link.descendantId()));
+        descendants.removeAll(locked);
+        lockRows(descendants, "FOR UPDATE");
+        jdbcTemplate.batchUpdate(DETACH_SQL, subtree, batchSize, (ps, link) -> {
+            ps.setString(1, link.descendantId());
+            ps.setInt(2, link.depth());
+        });
+        List<Link> links = new ArrayList<>(newPath.size() * subtree.size());
+        for (Link up : newPath) {
+            for (Link down : subtree) {
+                links.add(new Link(up.ancestorId(), down.descendantId(), up.depth() + down.depth() + 1));
+            }
+        }
+        insert(links);
+        jdbcTemplate.update(MOVE_SQL, newParentId, Timestamp.valueOf(LocalDateTime.now()), taskId);
+
+        // 하위 트리 전체가 옛 조상에서 빠지고 새 조상에 더해진다
+        Set<String> affected = new LinkedHashSet<>();
+        oldPath.stream().filter(link -> link.depth() > 0).forEach(link -> affected.add(link.ancestorId()));
+        newPath.forEach(link -> affected.add(link.ancestorId()));
+        rollupCounters.evict(affected);
+        log.info("Moved task {} ({} tasks in subtree) under {}", taskId, subtree.size(), newParentId);
+    }
+
+    /**
+     * 레거시 status 전이를 조상들의 롤업에 반영한다 (커밋 후, 부모가 있는 Task만 넘긴다)
+     */
+    public void statusChanged(List<StatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<String, List<Link>> paths;
+        try {
+            paths = pathsToRoot(changes.stream().map(StatusChange::taskId).collect(Collectors.toSet()));
+        } catch (RuntimeException e) {
+            // 이미 커밋된 변경이므로 실패를 올리지 않는다. 캐시된 롤업은 만료 후 다시 집계된다
+            log.warn("Failed to update rollups for {} subtasks: {}", changes.size(), e.getMessage());
+            return;
+        }
+        TaskRollupCounters.Delta delta = new TaskRollupCounters.Delta();
+        for (StatusChange change : changes) {
+            for (Link up : paths.getOrDefault(change.taskId(), List.of())) {
+                if (up.depth() > 0) {
+                    delta.statusChanged(up.ancestorId(), change.from(), change.to());
+                }
+            }
+        }
+        rollupCounters.apply(delta);
+    }
+
+    /**
+     * Task별 조상 경로 (자기 자신 depth 0 포함). 없는 Task는 결과에 없다.
+     */
+    private Map<String, List<Link>> pathsToRoot(Collection<String> taskIds) {
+        return pathsToRoot(taskIds, "");
+    }
+
+    private Map<String, List<Link>> pathsToRoot(Collection<String> taskIds, String lockClause) {
+        Map<String, List<Link>> paths = new HashMap<>();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(taskIds));
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            String sql = "SELECT ancestor_id, descendant_id, depth FROM task_closure WHERE descendant_id IN (" +
+                String.join(",", Collections.nCopies(chunk.size(), "?")) + ") " + lockClause;
+            jdbcTemplate.query(sql,
+                rs -> {
+                    Link link = new Link(rs.getString(1), rs.getString(2), rs.getInt(3));
+                    paths.computeIfAbsent(link.descendantId(), id -> new ArrayList<>()).add(link);
+                },
+                chunk.toArray());
+        }
+        return paths;
+    }
+
+    private void lockRows(Collection<String> taskIds, String lockClause) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(new TreeSet<>(taskIds));
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            String sql = "SELECT id FROM tasks WHERE id IN (" +
+                String.join(",", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id " + lockClause;
+            jdbcTemplate.queryForList(sql, String.class, chunk.toArray());
+        }
+    }
+
+    private String shareLock() {
+        if (shareLock == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            shareLock = "MySQL".equalsIgnoreCase(product) ? "FOR SHARE" : "FOR UPDATE";
+        }
+        return shareLock;
+    }
+
+    private void insert(List<Link> links) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, links, batchSize, (ps, link) -> {
+            ps.setString(1, link.ancestorId());
+            ps.setString(2, link.descendantId());
+            ps.setInt(3, link.depth());
+        });
+    }
+}
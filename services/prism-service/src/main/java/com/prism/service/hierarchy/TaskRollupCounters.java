@@ -0,0 +1,199 @@
+package com.prism.service.hierarchy;
+
+import com.prism.domain.Task;
+import com.prism.repository.TaskRepository;
+import com.prism.service.sideeffect.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Task 하위 트리 상태 롤업 캐시 (Task별 Redis hash)
+ *
+ * 처음 조회할 때 task_closure 조인 한 번으로 집계해 채우고, 이후에는 하위 Task 생성/상태 전이 delta만
+ * 조상들의 hash에 HINCRBY로 반영한다 (키가 있을 때만). 하위 트리가 통째로 옮겨지면 옛/새 조상의 키를 지운다.
+ * 채우는 사이에 커밋된 변경은 빠질 수 있으므로 키는 ttl-ms 후 만료되어 MySQL 집계로 다시 채워진다.
+ */
+@Slf4j
+@Component
+public class TaskRollupCounters {
+
+    static final String KEY_PREFIX = "prism:task-rollup:";
+
+    private static final String TOTAL = "total";
+    private static final String STATUS_PREFIX = "status:";
+    private static final String TASK_STATUS_PREFIX = "taskStatus:";
+
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+        "for i = 1, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+        "return 1", Long.class);
+
+    // ARGV[1]: TTL(ms), 나머지는 field/value 쌍. 이미 있으면 (다른 요청이 먼저 채웠으면) 그대로 둔다
+    private static final RedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+        "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+        "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+        "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final TaskRepository taskRepository;
+    private final long ttlMs;
+
+    public TaskRollupCounters(StringRedisTemplate redisTemplate,
+                              TaskRepository taskRepository,
+                              @Value("${prism.task-hierarchy.rollup-ttl-ms:600000}") long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.taskRepository = taskRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * 하위 Task(자기 자신 제외) 수 (0인 항목은 제외)
+     */
+    public record Rollup(long total, Map<String, Long> byStatus, Map<String, Long> byTaskStatus) {
+    }
+
+    /**
+     * 조상별 변화량을 모으는 빌더
+     */
+    public static class Delta {
+        private final Map<String, Map<String, Long>> byAncestor = new LinkedHashMap<>();
+
+        public Delta descendantCreated(String ancestorId, Task task) {
+            add(ancestorId, TOTAL, 1);
+            add(ancestorId, STATUS_PREFIX + task.getStatus(), 1);
+            add(ancestorId, TASK_STATUS_PREFIX + task.getTaskStatus(), 1);
+            return this;
+        }
+
+        public Delta statusChanged(String ancestorId, String from, String to) {
+            if (!Objects.equals(from, to)) {
+                add(ancestorId, STATUS_PREFIX + from, -1);
+                add(ancestorId, STATUS_PREFIX + to, 1);
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return byAncestor.isEmpty();
+        }
+
+        private void add(String ancestorId, String field, long delta) {
+            byAncestor.computeIfAbsent(ancestorId, id -> new LinkedHashMap<>()).merge(field, delta, Long::sum);
+        }
+    }
+
+    public Rollup get(String taskId) {
+        String key = KEY_PREFIX + taskId;
+        Map<String, String> entries;
+        try {
+            HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+            entries = hash.entries(key);
+        } catch (RuntimeException e) {
+            log.warn("Task rollup cache unavailable, counting from database: {}", e.getMessage());
+            return toRollup(countFromDatabase(taskId));
+        }
+        if (entries != null && !entries.isEmpty()) {
+            Map<String, Long> fields = new HashMap<>();
+            entries.forEach((field, value) -> fields.put(field, Long.parseLong(value)));
+            return toRollup(fields);
+        }
+
+        Map<String, Long> fields = countFromDatabase(taskId);
+        try {
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(ttlMs));
+            args.addAll(toArgs(fields));
+            redisTemplate.execute(FILL_SCRIPT, List.of(key), args.toArray());
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache task rollup {}: {}", taskId, e.getMessage());
+        }
+        return toRollup(fields);
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에, 아니면 즉시 반영한다
+     */
+    public void apply(Delta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> delta.byAncestor.forEach((ancestorId, fields) -> {
+            try {
+                redisTemplate.execute(INCREMENT_SCRIPT, List.of(KEY_PREFIX + ancestorId), toArgs(fields).toArray());
+            } catch (RuntimeException e) {
+                // 키가 만료되면 다시 집계된다
+                log.warn("Failed to update task rollup {}: {}", ancestorId, e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * 캐시된 롤업을 버린다 (하위 트리 이동 등 delta로 표현하기 어려운 변경). 트랜잭션 안이면 커밋 후에 지운다.
+     */
+    public void evict(Collection<String> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = taskIds.stream().map(id -> KEY_PREFIX + id).toList();
+        AfterCommit.run(() -> {
+            try {
+                redisTemplate.delete(keys);
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict task rollups: {}", e.getMessage());
+            }
+        });
+    }
+
+    private Map<String, Long> countFromDatabase(String taskId) {
+        Map<String, Long> fields = new LinkedHashMap<>();
+        long total = 0;
+        for (Object[] row : taskRepository.countSubtreeByStatus(taskId)) {
+            long count = (Long) row[2];
+            fields.merge(STATUS_PREFIX + row[0], count, Long::sum);
+            fields.merge(TASK_STATUS_PREFIX + row[1], count, Long::sum);
+            total += count;
+        }
+        // 하위 Task가 없어도 키가 생기도록 total은 항상 쓴다
+        fields.put(TOTAL, total);
+        return fields;
+    }
+
+    private static List<String> toArgs(Map<String, Long> fields) {
+        List<String> args = new ArrayList<>(fields.size() * 2);
+        fields.forEach((field, value) -> {
+            args.add(field);
+            args.add(String.valueOf(value));
+        });
+        return args;
+    }
+
+    private static Rollup toRollup(Map<String, Long> fields) {
+        Map<String, Long> byStatus = new HashMap<>();
+        Map<String, Long> byTaskStatus = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (value <= 0) {
+                return;
+            }
+            if (field.startsWith(STATUS_PREFIX)) {
+                byStatus.put(field.substring(STATUS_PREFIX.length()), value);
+            } else if (field.startsWith(TASK_STATUS_PREFIX)) {
+                byTaskStatus.put(field.substring(TASK_STATUS_PREFIX.length()), value);
+            }
+        });
+        return new Rollup(Math.max(0, fields.getOrDefault(TOTAL, 0L)), byStatus, byTaskStatus);
+    }
+}
@@ -0,0 +1,16 @@
+package com.prism.service.presence;
+
+import java.time.Instant;
+
+/**
+ * Daemon 접속 상태
+ *
+ * @param status Daemon이 heartbeat로 보낸 상태 (IDLE, BUSY 등)
+ * @param expiresAt 이 시각까지 heartbeat가 없으면 offline
+ */
+public record AgentPresence(String agentId, String version, String status, Instant lastSeen, Instant expiresAt) {
+
+    public boolean isOnline(Instant now) {
+        return expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,181 @@
+package com.prism.service.presence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Daemon heartbeat 기반 Agent presence 레지스트리
+ *
+ * RegisterAgent/Heartbeat RPC가 들어오면 메모리 map을 갱신하고 Redis에도 기록한다.
+ * - prism:presence:agent:{agentId} hash (version/status/lastSeen, TTL = ttl-ms)
+ * - prism:presence:online sorted set (member = agentId, score = 만료 시각 ms)
+ * Daemon은 아무 replica에나 붙을 수 있으므로, sweep 타이머가 주기적으로 sorted set에서 만료된
+ * 항목을 지우고 나머지를 onlineUntil map으로 가져온다. 조회(isOnline, onlineCount)는 이 map만
+ * 읽으므로 MySQL이나 Redis를 거치지 않는다 (다른 replica의 heartbeat는 최대 sweep 주기만큼 늦게 보인다).
+ */
+@Slf4j
+@Component
+public class AgentPresenceRegistry {
+
+    static final String ONLINE_KEY = "prism:presence:online";
+    private static final String AGENT_KEY_PREFIX = "prism:presence:agent:";
+
+    // hash 갱신 + TTL + online sorted set 갱신 (version은 RegisterAgent에서만 온다)
+    private static final RedisScript<Long> TOUCH_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('HSET', KEYS[1], 'status', ARGV[4], 'lastSeen', ARGV[5]) " +
+        "if ARGV[3] ~= '' then redis.call('HSET', KEYS[1], 'version', ARGV[3]) end " +
+        "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+        "redis.call('ZADD', KEYS[2], ARGV[2], ARGV[6]) " +
+        "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long ttlMs;
+
+    // 이 replica에 heartbeat를 보낸 Agent의 상세 정보
+    private final ConcurrentHashMap<String, AgentPresence> presences = new ConcurrentHashMap<>();
+    // 전체 replica 기준 online Agent -> 만료 시각(ms)
+    private final ConcurrentHashMap<String, Long> onlineUntil = new ConcurrentHashMap<>();
+
+    public AgentPresenceRegistry(StringRedisTemplate redisTemplate,
+                                 @Value("${prism.presence.ttl-ms:30000}") long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.ttlMs = ttlMs;
+    }
+
+    static String agentKey(String agentId) {
+        return AGENT_KEY_PREFIX + agentId;
+    }
+
+    public void register(String agentId, String version) {
+        touch(agentId, version, "ONLINE", Instant.now());
+    }
+
+    public void heartbeat(String agentId, String status) {
+        touch(agentId, null, status != null && !status.isBlank() ? status : "ONLINE", Instant.now());
+    }
+
+    void touch(String agentId, String version, String status, Instant now) {
+        if (agentId == null || agentId.isBlank()) {
+            return;
+        }
+        Instant expiresAt = now.plusMillis(ttlMs);
+        AgentPresence previous = presences.get(agentId);
+        String resolvedVersion = version != null ? version : previous != null ? previous.version() : null;
+        presences.put(agentId, new AgentPresence(agentId, resolvedVersion, status, now, expiresAt));
+        if (onlineUntil.put(agentId, expiresAt.toEpochMilli()) == null) {
+            log.info("Agent {} is online ({})", agentId, status);
+        }
+
+        try {
+            redisTemplate.execute(TOUCH_SCRIPT, List.of(agentKey(agentId), ONLINE_KEY),
+                String.valueOf(ttlMs), String.valueOf(expiresAt.toEpochMilli()),
+                version != null ? version : "", status, now.toString(), agentId);
+        } catch (RuntimeException e) {
+            // 이 replica의 메모리 상태는 유지된다. 다른 replica에는 다음 heartbeat부터 보인다
+            log.warn("Failed to mirror presence of Agent {} to Redis: {}", agentId, e.getMessage());
+        }
+    }
+
+    public boolean isOnline(String agentId) {
+        Long until = onlineUntil.get(agentId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public int onlineCount() {
+        return onlineUntil.size();
+    }
+
+    public Set<String> onlineAgentIds() {
+        return Set.copyOf(onlineUntil.keySet());
+    }
+
+    /**
+     * 이 replica가 받은 heartbeat 정보. 다른 replica에 붙은 Agent는 Redis hash에서 읽는다.
+     */
+    public Optional<AgentPresence> get(String agentId) {
+        AgentPresence local = presences.get(agentId);
+        if (local != null) {
+            return Optional.of(local);
+        }
+        Long until = onlineUntil.get(agentId);
+        if (until == null) {
+            return Optional.empty();
+        }
+        try {
+            Map<Object, Object> hash = redisTemplate.opsForHash().entries(agentKey(agentId));
+            if (hash.isEmpty()) {
+                return Optional.empty();
+            }
+            Object lastSeen = hash.get("lastSeen");
+            return Optional.of(new AgentPresence(agentId,
+                (String) hash.get("version"),
+                (String) hash.get("status"),
+                lastSeen != null ? Instant.parse((String) lastSeen) : null,
+                Instant.ofEpochMilli(until)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read presence of Agent {} from Redis: {}", agentId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${prism.presence.sweep-interval-ms:1000}")
+    public void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    /**
+     * 만료된 항목을 정리하고 다른 replica의 heartbeat를 가져온다.
+     */
+    void sweep(long nowMs) {
+        Map<String, Long> shared = loadShared(nowMs);
+        if (shared != null) {
+            onlineUntil.keySet().removeIf(agentId -> !shared.containsKey(agentId) && !presences.containsKey(agentId));
+            shared.forEach((agentId, until) -> onlineUntil.merge(agentId, until, Math::max));
+        }
+
+        onlineUntil.entrySet().removeIf(entry -> {
+            if (entry.getValue() > nowMs) {
+                return false;
+            }
+            log.info("Agent {} went offline (no heartbeat for {} ms)", entry.getKey(), ttlMs);
+            return true;
+        });
+        presences.values().removeIf(presence -> presence.expiresAt().toEpochMilli() <= nowMs);
+    }
+
+    private Map<String, Long> loadShared(long nowMs) {
+        try {
+            ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+            zSet.removeRangeByScore(ONLINE_KEY, Double.NEGATIVE_INFINITY, nowMs);
+            Set<ZSetOperations.TypedTuple<String>> online =
+                zSet.rangeByScoreWithScores(ONLINE_KEY, nowMs, Double.POSITIVE_INFINITY);
+            if (online == null) {
+                return null;
+            }
+            Map<String, Long> shared = new HashMap<>();
+            for (ZSetOperations.TypedTuple<String> tuple : online) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    shared.put(tuple.getValue(), tuple.getScore().longValue());
+                }
+            }
+            return shared;
+        } catch (RuntimeException e) {
+            log.warn("Failed to sync agent presence from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+}
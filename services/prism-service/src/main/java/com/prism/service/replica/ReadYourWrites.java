@@ -0,0 +1,57 @@
+package com.prism.service.replica;
+
+/**
+ * 요청(세션) 단위 read-your-writes 상태
+ *
+ * replica 읽기는 begin/end 사이(ReadYourWritesFilter가 감싼 HTTP 요청)에서만 허용된다.
+ * 그 안에서 읽기/쓰기 트랜잭션이 primary 연결을 쓰면 그 뒤의 readOnly 트랜잭션도 primary로 간다.
+ * 이전 요청에서 쓴 지 얼마 안 된 세션(ReadYourWritesFilter의 쿠키)은 처음부터 primary로 고정한다.
+ * begin 하지 않은 스레드(write-behind, gRPC, 스케줄러, 요청에서 넘긴 비동기 작업)는 readOnly 트랜잭션도 모두 primary에서 읽는다.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    private static final class Session {
+        private final boolean sticky;
+        private final Runnable onFirstWrite;
+        private boolean wrote;
+
+        Session(boolean sticky, Runnable onFirstWrite) {
+            this.sticky = sticky;
+            this.onFirstWrite = onFirstWrite;
+        }
+    }
+
+    /**
+     * @param stickToPrimary 이전 요청의 쓰기가 아직 replica에 반영되지 않았을 수 있으면 true
+     * @param onFirstWrite 이 요청에서 처음 쓸 때 한 번 호출된다 (다음 요청을 위한 표시)
+     */
+    public static void begin(boolean stickToPrimary, Runnable onFirstWrite) {
+        CURRENT.set(new Session(stickToPrimary, onFirstWrite));
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    static boolean stickToPrimary() {
+        Session session = CURRENT.get();
+        return session != null && (session.sticky || session.wrote);
+    }
+
+    static void recordWrite() {
+        Session session = CURRENT.get();
+        if (session != null && !session.wrote) {
+            session.wrote = true;
+            session.onFirstWrite.run();
+        }
+    }
+}
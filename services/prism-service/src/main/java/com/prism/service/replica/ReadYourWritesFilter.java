@@ -0,0 +1,66 @@
+package com.prism.service.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * HTTP 세션 단위 read-your-writes
+ *
+ * 요청에서 쓰기가 일어나면 마지막 쓰기 시각을 쿠키로 내려주고, 그 뒤 stickiness-ms 동안 같은 클라이언트의
+ * readOnly 트랜잭션은 primary에서 읽는다 (방금 만든 Task가 목록에 바로 보이도록).
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "prism-last-write";
+
+    private final long stickinessMs;
+
+    public ReadYourWritesFilter(long stickinessMs) {
+        this.stickinessMs = stickinessMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        long lastWrite = lastWrite(request);
+        boolean sticky = lastWrite > 0 && System.currentTimeMillis() - lastWrite < stickinessMs;
+        ReadYourWrites.begin(sticky, () -> {
+            // 응답이 이미 나간 뒤의 쓰기(스트리밍 등)는 다음 요청에 표시할 수 없다
+            if (!response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(System.currentTimeMillis()));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, (stickinessMs + 999) / 1000));
+                response.addCookie(cookie);
+            }
+        });
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.prism.service.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * replica별 복제 지연 추적 (heartbeat 방식)
+ *
+ * 주기마다 primary의 replication_heartbeat에 현재 시각을 쓰고, 각 replica에서 그 값을 읽어 (현재 시각 - 읽은 값)을
+ * 지연으로 본다. 지연이 max-lag-ms 이하이고 마지막 확인이 최근인 replica만 읽기에 쓴다 (round robin).
+ * 확인에 실패하거나 아직 확인 전인 replica는 쓰지 않으므로 모든 replica가 밀리면 읽기는 primary로 간다.
+ * 지연은 한 주기만큼 과대 측정될 수 있으므로 max-lag-ms는 check-interval-ms보다 커야 한다.
+ *
+ * 지표: prism.datasource.replica.lag (replica 태그, ms, 확인 실패 시 -1)
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String HEARTBEAT_UPDATE_SQL = "UPDATE replication_heartbeat SET beat_ms = ? WHERE id = 1";
+    private static final String HEARTBEAT_INSERT_SQL = "INSERT INTO replication_heartbeat (id, beat_ms) VALUES (1, ?)";
+    private static final String HEARTBEAT_SELECT_SQL = "SELECT beat_ms FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, List<Replica> replicas, MeterRegistry meterRegistry,
+                             long maxLagMs, long checkIntervalMs) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+        for (Replica replica : this.replicas) {
+            Gauge.builder("prism.datasource.replica.lag", replica, r -> r.lagMs)
+                .tag("replica", replica.name)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 읽기 대상 replica (이름은 로그/지표용)
+     */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile long lagMs = -1;
+        private volatile long checkedAt;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Replica lag monitor did not stop in time");
+        }
+    }
+
+    /**
+     * 지연이 허용 범위인 replica 하나 (없으면 null)
+     */
+    public Replica pick() {
+        long now = System.currentTimeMillis();
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (isHealthy(replica, now)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update(HEARTBEAT_UPDATE_SQL, now) == 0) {
+                primary.update(HEARTBEAT_INSERT_SQL, now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to write replication heartbeat: {}", e.getMessage());
+        }
+        for (Replica replica : replicas) {
+            long lag;
+            try {
+                List<Long> beats = replica.jdbcTemplate.queryForList(HEARTBEAT_SELECT_SQL, Long.class);
+                lag = beats.isEmpty() ? -1 : Math.max(0, System.currentTimeMillis() - beats.get(0));
+            } catch (RuntimeException e) {
+                log.warn("Failed to read replication heartbeat from {}: {}", replica.name, e.getMessage());
+                lag = -1;
+            }
+            boolean wasHealthy = isHealthy(replica, System.currentTimeMillis());
+            replica.lagMs = lag;
+            replica.checkedAt = System.currentTimeMillis();
+            boolean healthy = isHealthy(replica, replica.checkedAt);
+            if (wasHealthy != healthy) {
+                log.info("Replica {} is {} (lag {} ms)", replica.name, healthy ? "in use" : "skipped", lag);
+            }
+        }
+    }
+
+    private boolean isHealthy(Replica replica, long now) {
+        // 모니터가 멈춰 오래된 측정값은 믿지 않는다
+        return replica.lagMs >= 0 && replica.lagMs <= maxLagMs && now - replica.checkedAt <= 3 * checkIntervalMs;
+    }
+}
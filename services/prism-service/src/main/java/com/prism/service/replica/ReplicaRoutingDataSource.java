@@ -0,0 +1,83 @@
+package com.prism.service.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * readOnly 트랜잭션의 연결을 replica로 보내는 DataSource
+ *
+ * 트랜잭션 시작 시점이 아니라 첫 SQL 시점에 연결을 가져와야 readOnly 여부를 알 수 있으므로
+ * 반드시 LazyConnectionDataSourceProxy 뒤에 둔다 (ReadReplicaConfig).
+ * - ReadYourWrites 세션(HTTP 요청) 안의 readOnly 트랜잭션: 지연이 허용 범위인 replica,
+ *   없거나 세션이 이미 썼으면 primary
+ * - 세션 밖의 readOnly 트랜잭션: primary. SimpleJpaRepository의 finder(findById, existsById 등)는 모두 암묵적
+ *   readOnly 트랜잭션이라, gRPC/스케줄러/write-behind 스레드가 방금 쓴 행을 replica에서 못 찾는 일을 막는다
+ * - 그 외(읽기/쓰기 트랜잭션, 트랜잭션 밖): primary. 요청 안의 읽기/쓰기 트랜잭션은 쓰기로 기록한다
+ *
+ * 지표: prism.datasource.reads (target=replica|primary, reason=routed|lagging|read-your-writes|no-session)
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter laggingFallbacks;
+    private final Counter stickyReads;
+    private final Counter sessionlessReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        this.replicaReads = readCounter(meterRegistry, "replica", "routed");
+        this.laggingFallbacks = readCounter(meterRegistry, "primary", "lagging");
+        this.stickyReads = readCounter(meterRegistry, "primary", "read-your-writes");
+        this.sessionlessReads = readCounter(meterRegistry, "primary", "no-session");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    private DataSource determineTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadYourWrites.recordWrite();
+            }
+            return primary;
+        }
+        if (!ReadYourWrites.active()) {
+            sessionlessReads.increment();
+            return primary;
+        }
+        if (ReadYourWrites.stickToPrimary()) {
+            stickyReads.increment();
+            return primary;
+        }
+        ReplicaLagMonitor.Replica replica = lagMonitor.pick();
+        if (replica == null) {
+            laggingFallbacks.increment();
+            return primary;
+        }
+        replicaReads.increment();
+        return replica.dataSource();
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("prism.datasource.reads")
+            .tag("target", target)
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,493 @@
+package com.prism.service.search;
+
+import com.prism.domain.Task;
+import com.prism.service.sideeffect.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Task 전문 검색용 인메모리 역색인 (title, description, targetRepo, gitBranch)
+ *
+ * 단어(term)마다 docId 오름차순 posting 배열(docId, 가중 빈도)을 두고, 검색은 모든 검색어를 포함하는 Task를
+ * 가장 짧은 posting부터 교집합으로 찾아 BM25로 순위를 매긴다. 필드 가중치: title 3, targetRepo/gitBranch 2, description 1.
+ * - 생성(단건/일괄)은 커밋 후 색인하고, write-behind가 커밋한 gitBranch 변경은 해당 필드 기여분만 바꾼다
+ * - 기동 시 MySQL을 id 순으로 페이지 조회해서 다시 만든다 (그 사이 검색은 일부 결과만 돌려줄 수 있다)
+ * - 다른 replica가 만든 Task와 branch 변경은 catch-up-interval-ms마다 updated_at이 최근인 행을 다시 읽어 반영한다.
+ *   인스턴스마다 시계와 커밋 시점이 어긋나므로 마지막으로 본 updated_at보다 catch-up-overlap-ms 앞부터 읽는다
+ * - Task.version이 색인된 것보다 새롭지 않은 변경은 무시하므로 재색인, catch-up, 실시간 갱신의 순서가 뒤섞여도
+ *   최신 상태가 남는다
+ */
+@Slf4j
+@Component
+public class TaskSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int REF_WEIGHT = 2;    // targetRepo, gitBranch
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final String REBUILD_SQL = "SELECT id, title, description, target_repo, git_branch, version " +
+        "FROM tasks WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String CATCH_UP_SQL = "SELECT id, title, description, target_repo, git_branch, version, " +
+        "updated_at FROM tasks WHERE updated_at > ? OR (updated_at = ? AND id > ?) ORDER BY updated_at, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean rebuildOnStartup;
+    private final int rebuildPageSize;
+    private final int maxDescriptionTokens;
+    private final long catchUpOverlapMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private long totalLength;
+
+    // 재색인 중에 아직 색인되지 않은 Task에 온 branch 변경 (재색인이 읽은 행보다 새로울 수 있다)
+    private final Map<String, BranchUpdate> lateBranchUpdates = new ConcurrentHashMap<>();
+    private volatile boolean rebuilding;
+
+    // catch-up이 지금까지 본 가장 늦은 updated_at (기동 전 변경은 rebuild가 읽는다)
+    private LocalDateTime caughtUpTo = LocalDateTime.now();
+
+    public TaskSearchIndex(JdbcTemplate jdbcTemplate,
+                           @Value("${prism.search.rebuild-on-startup:true}") boolean rebuildOnStartup,
+                           @Value("${prism.search.rebuild-page-size:5000}") int rebuildPageSize,
+                           @Value("${prism.search.max-description-tokens:2000}") int maxDescriptionTokens,
+                           @Value("${prism.search.catch-up-overlap-ms:60000}") long catchUpOverlapMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildPageSize = rebuildPageSize;
+        this.maxDescriptionTokens = maxDescriptionTokens;
+        this.catchUpOverlapMs = catchUpOverlapMs;
+    }
+
+    /**
+     * 색인할 Task 필드
+     */
+    public record TaskDocument(String taskId, String title, String description, String targetRepo,
+                               String gitBranch, long version) {
+
+        public static TaskDocument of(Task task) {
+            return new TaskDocument(task.getId(), task.getTitle(), task.getDescription(), task.getTargetRepo(),
+                task.getGitBranch(), task.getVersion() != null ? task.getVersion() : 0L);
+        }
+    }
+
+    public record Hit(String taskId, double score) {
+    }
+
+    public record SearchResult(long total, List<Hit> hits) {
+    }
+
+    private record BranchUpdate(String gitBranch, long version) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(this::rebuild, "task-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * MySQL의 모든 Task를 다시 색인한다. 실시간 갱신과 동시에 실행되어도 된다.
+     */
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        rebuilding = true;
+        int count = 0;
+        try {
+            String after = "";
+            while (true) {
+                List<TaskDocument> page = jdbcTemplate.query(REBUILD_SQL,
+                    (rs, rowNum) -> new TaskDocument(rs.getString(1), rs.getString(2), rs.getString(3),
+                        rs.getString(4), rs.getString(5), rs.getLong(6)),
+                    after, rebuildPageSize);
+                for (TaskDocument document : page) {
+                    index(document);
+                }
+                count += page.size();
+                if (page.size() < rebuildPageSize) {
+                    break;
+                }
+                after = page.get(page.size() - 1).taskId();
+            }
+        } catch (RuntimeException e) {
+            log.error("Task search index rebuild failed after {} tasks", count, e);
+        } finally {
+            rebuilding = false;
+            lateBranchUpdates.forEach((taskId, update) -> updateGitBranch(taskId, update.gitBranch(), update.version()));
+            lateBranchUpdates.clear();
+        }
+        log.info("Indexed {} tasks for search in {} ms", count, System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(initialDelayString = "${prism.search.catch-up-interval-ms:5000}",
+        fixedDelayString = "${prism.search.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        try {
+            int count = catchUp(caughtUpTo.minus(catchUpOverlapMs, ChronoUnit.MILLIS));
+            log.debug("Search index caught up on {} recently updated tasks (up to {})", count, caughtUpTo);
+        } catch (RuntimeException e) {
+            log.warn("Task search index catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * updated_at이 from 이후인 Task를 (다시) 색인한다. 이미 색인된 version이면 건너뛴다.
+     */
+    int catchUp(LocalDateTime from) {
+        LocalDateTime afterUpdatedAt = from;
+        String afterId = "";
+        int count = 0;
+        while (true) {
+            List<TaskDocument> page = new ArrayList<>(rebuildPageSize);
+            List<LocalDateTime> updatedAts = new ArrayList<>(rebuildPageSize);
+            jdbcTemplate.query(CATCH_UP_SQL, rs -> {
+                page.add(new TaskDocument(rs.getString(1), rs.getString(2), rs.getString(3),
+                    rs.getString(4), rs.getString(5), rs.getLong(6)));
+                updatedAts.add(rs.getObject(7, LocalDateTime.class));
+            }, afterUpdatedAt, afterUpdatedAt, afterId, rebuildPageSize);
+            for (TaskDocument document : page) {
+                index(document);
+            }
+            count += page.size();
+            if (!page.isEmpty()) {
+                afterUpdatedAt = updatedAts.get(page.size() - 1);
+                afterId = page.get(page.size() - 1).taskId();
+                if (afterUpdatedAt.isAfter(caughtUpTo)) {
+                    caughtUpTo = afterUpdatedAt;
+                }
+            }
+            if (page.size() < rebuildPageSize) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에, 아니면 바로 색인한다
+     */
+    public void indexAfterCommit(Collection<TaskDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> documents.forEach(this::index));
+    }
+
+    /**
+     * Task 전체를 (다시) 색인한다. 색인된 version보다 새롭지 않은 문서는 무시한다.
+     */
+    public void index(TaskDocument document) {
+        Map<String, Integer> freqs = new HashMap<>();
+        int length = addTokens(freqs, document.title(), TITLE_WEIGHT, Integer.MAX_VALUE)
+            + addTokens(freqs, document.description(), 1, maxDescriptionTokens)
+            + addTokens(freqs, document.targetRepo(), REF_WEIGHT, Integer.MAX_VALUE)
+            + addTokens(freqs, document.gitBranch(), REF_WEIGHT, Integer.MAX_VALUE);
+
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIds.get(document.taskId());
+            if (docId != null && docs.get(docId).version >= document.version()) {
+                return;
+            }
+            Map<Integer, Integer> byTermId = new HashMap<>(freqs.size() * 2);
+            freqs.forEach((term, freq) -> byTermId.put(termId(term), freq));
+            replace(docId, document.taskId(), byTermId, length, document.targetRepo(), document.gitBranch(),
+                document.version());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * gitBranch만 바뀐 경우 (write-behind 커밋 후). title/description은 메모리에 없으므로 branch 기여분만 바꾼다.
+     */
+    public void updateGitBranch(String taskId, String gitBranch, long version) {
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIds.get(taskId);
+            if (docId == null) {
+                if (rebuilding) {
+                    lateBranchUpdates.merge(taskId, new BranchUpdate(gitBranch, version),
+                        (a, b) -> a.version() >= b.version() ? a : b);
+                }
+                return;
+            }
+            Doc doc = docs.get(docId);
+            if (doc.version > version) {
+                return;
+            }
+            Map<Integer, Integer> byTermId = doc.freqMap();
+            Map<String, Integer> previous = new HashMap<>();
+            Map<String, Integer> next = new HashMap<>();
+            int lengthDelta = addTokens(next, gitBranch, REF_WEIGHT, Integer.MAX_VALUE)
+                - addTokens(previous, doc.gitBranch, REF_WEIGHT, Integer.MAX_VALUE);
+            previous.forEach((term, freq) -> byTermId.computeIfPresent(termId(term),
+                (id, current) -> current - freq > 0 ? current - freq : null));
+            next.forEach((term, freq) -> byTermId.merge(termId(term), freq, Integer::sum));
+            replace(docId, taskId, byTermId, doc.length + lengthDelta, doc.targetRepo, gitBranch, version);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 모든 검색어를 포함하는 Task를 점수 내림차순으로 offset부터 limit개 (동점이면 나중에 색인된 Task 먼저)
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query, Integer.MAX_VALUE)));
+        if (terms.isEmpty()) {
+            return new SearchResult(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                Integer termId = termIds.get(terms.get(i));
+                if (termId == null || postings.get(termId).size == 0) {
+                    return new SearchResult(0, List.of());
+                }
+                lists[i] = postings.get(termId);
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int n = docs.size();
+            double avgLength = n > 0 ? (double) totalLength / n : 1;
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                idf[i] = Math.log(1 + (n - lists[i].size + 0.5) / (lists[i].size + 0.5));
+            }
+
+            int window = offset + limit;
+            // {score bits, docId}. 최소 힙이라 점수가 가장 낮은 (동점이면 docId가 작은) 후보가 맨 위에 있다
+            Comparator<long[]> ascending = (a, b) -> {
+                int byScore = Double.compare(Double.longBitsToDouble(a[0]), Double.longBitsToDouble(b[0]));
+                return byScore != 0 ? byScore : Long.compare(a[1], b[1]);
+            };
+            PriorityQueue<long[]> top = new PriorityQueue<>(Math.max(1, window), ascending);
+            long total = 0;
+            Postings shortest = lists[0];
+            for (int i = 0; i < shortest.size; i++) {
+                int docId = shortest.docs[i];
+                double norm = K1 * (1 - B + B * docs.get(docId).length / avgLength);
+                double score = bm25(shortest.freqs[i], norm, idf[0]);
+                boolean matches = true;
+                for (int t = 1; t < lists.length && matches; t++) {
+                    int freq = lists[t].freq(docId);
+                    if (freq == 0) {
+                        matches = false;
+                    } else {
+                        score += bm25(freq, norm, idf[t]);
+                    }
+                }
+                if (!matches) {
+                    continue;
+                }
+                total++;
+                if (window == 0) {
+                    continue;
+                }
+                long[] candidate = {Double.doubleToLongBits(score), docId};
+                if (top.size() < window) {
+                    top.add(candidate);
+                } else if (ascending.compare(candidate, top.peek()) > 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            }
+
+            List<long[]> ranked = new ArrayList<>(top);
+            ranked.sort(ascending.reversed());
+            List<Hit> hits = new ArrayList<>(Math.max(0, ranked.size() - offset));
+            for (int i = offset; i < ranked.size(); i++) {
+                hits.add(new Hit(docs.get((int) ranked.get(i)[1]).taskId,
+                    Double.longBitsToDouble(ranked.get(i)[0])));
+            }
+            return new SearchResult(total, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double bm25(int freq, double norm, double idf) {
+        return idf * freq * (K1 + 1) / (freq + norm);
+    }
+
+    /**
+     * 소문자로 바꾸고 글자/숫자가 아닌 문자에서 자른다. 한 글자 ASCII 토큰(a, 1 등)은 버린다.
+     */
+    static List<String> tokenize(String text, int maxTokens) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length() && tokens.size() < maxTokens; i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start > 1 || text.charAt(start) > 0x7F) {
+                    tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int addTokens(Map<String, Integer> freqs, String text, int weight, int maxTokens) {
+        List<String> tokens = tokenize(text, maxTokens);
+        for (String token : tokens) {
+            freqs.merge(token, weight, Integer::sum);
+        }
+        return tokens.size();
+    }
+
+    // 아래는 모두 write lock 안에서 호출된다
+
+    private int termId(String term) {
+        Integer id = termIds.get(term);
+        if (id == null) {
+            id = postings.size();
+            termIds.put(term, id);
+            postings.add(new Postings());
+        }
+        return id;
+    }
+
+    private void replace(Integer existingDocId, String taskId, Map<Integer, Integer> byTermId, int length,
+                         String targetRepo, String gitBranch, long version) {
+        int docId;
+        if (existingDocId == null) {
+            docId = docs.size();
+            docIds.put(taskId, docId);
+            docs.add(null);
+        } else {
+            docId = existingDocId;
+            Doc old = docs.get(docId);
+            totalLength -= old.length;
+            for (int i = 0; i < old.terms.length; i++) {
+                if (!byTermId.containsKey(old.terms[i])) {
+                    postings.get(old.terms[i]).remove(docId);
+                }
+            }
+        }
+
+        int[] terms = byTermId.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] freqs = new int[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            freqs[i] = byTermId.get(terms[i]);
+            postings.get(terms[i]).put(docId, freqs[i]);
+        }
+        docs.set(docId, new Doc(taskId, terms, freqs, length, targetRepo, gitBranch, version));
+        totalLength += length;
+    }
+
+    private static final class Doc {
+        private final String taskId;
+        private final int[] terms;   // term id 오름차순
+        private final int[] freqs;
+        private final int length;
+        private final String targetRepo;
+        private final String gitBranch;
+        private final long version;
+
+        Doc(String taskId, int[] terms, int[] freqs, int length, String targetRepo, String gitBranch, long version) {
+            this.taskId = taskId;
+            this.terms = terms;
+            this.freqs = freqs;
+            this.length = length;
+            this.targetRepo = targetRepo;
+            this.gitBranch = gitBranch;
+            this.version = version;
+        }
+
+        Map<Integer, Integer> freqMap() {
+            Map<Integer, Integer> map = new HashMap<>(terms.length * 2);
+            for (int i = 0; i < terms.length; i++) {
+                map.put(terms[i], freqs[i]);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * docId 오름차순 posting 목록. 새 Task는 가장 큰 docId를 받으므로 대부분 끝에 붙는다.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        int freq(int docId) {
+            int index = Arrays.binarySearch(docs, 0, size, docId);
+            return index >= 0 ? freqs[index] : 0;
+        }
+
+        void put(int docId, int freq) {
+            int index = Arrays.binarySearch(docs, 0, size, docId);
+            if (index >= 0) {
+                freqs[index] = freq;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+            System.arraycopy(freqs, insertAt, freqs, insertAt + 1, size - insertAt);
+            docs[insertAt] = docId;
+            freqs[insertAt] = freq;
+            size++;
+        }
+
+        void remove(int docId) {
+            int index = Arrays.binarySearch(docs, 0, size, docId);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(freqs, index + 1, freqs, index, size - index - 1);
+            size--;
+        }
+    }
+}
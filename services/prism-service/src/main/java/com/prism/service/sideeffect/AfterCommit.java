@@ -0,0 +1,28 @@
+package com.prism.service.sideeffect;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 안이면 커밋 후에, 아니면 바로 실행한다 (롤백되면 실행하지 않는다)
+ *
+ * 커밋한 스레드에서 그대로 실행하므로 풀로 넘길지는 호출하는 쪽이 정한다 (SideEffectExecutor 참고).
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
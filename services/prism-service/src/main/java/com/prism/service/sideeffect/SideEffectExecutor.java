@@ -0,0 +1,173 @@
+package com.prism.service.sideeffect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 커밋 후 부수 효과(Redis 카운터, STOMP 브로드캐스트 등) 실행기
+ *
+ * afterCommit()은 트랜잭션이 커밋된 뒤 작업을 고정 크기 풀(workers, 큐 queue-capacity)에 넘기기만 하므로
+ * API 응답 시간은 DB 쓰기에만 묶이고, 한 요청의 부수 효과들은 서로 병렬로 실행된다. 롤백되면 실행하지 않는다.
+ * - sink별 timeout(큐 대기 포함)이 지나면 작업을 취소(interrupt)한다
+ * - 한 작업의 실패/시간 초과는 다른 작업에 영향을 주지 않고, 로그와 prism.side-effects 지표로만 남는다
+ * - 큐가 가득 차면 작업을 버린다 (대시보드 카운터 등은 각자의 reconcile로 보정된다)
+ *
+ * 따라서 버려지거나 중간에 끊겨도 보정되는 best-effort 작업만 넘긴다.
+ * Agent 배정처럼 다시 보낼 경로가 없는 작업은 AgentDispatchQueue가 커밋 직후 호출 스레드에서 직접 실행하고,
+ * ActivityLog는 TaskUpdateWriteBehind.recordActivities로 재시도하며 쓴다.
+ */
+@Slf4j
+@Component
+public class SideEffectExecutor {
+
+    public enum Sink {
+        MONGO, REDIS, WEBSOCKET
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int workers;
+    private final int queueCapacity;
+    private final Map<Sink, Long> timeoutsMs = new EnumMap<>(Sink.class);
+
+    private final Map<Sink, Timer> durations = new EnumMap<>(Sink.class);
+    private final Map<Sink, Counter> failures = new EnumMap<>(Sink.class);
+    private final Map<Sink, Counter> timeouts = new EnumMap<>(Sink.class);
+    private final Map<Sink, Counter> rejections = new EnumMap<>(Sink.class);
+
+    private ThreadPoolExecutor executor;
+    private ScheduledThreadPoolExecutor watchdog;
+
+    public SideEffectExecutor(MeterRegistry meterRegistry,
+                              @Value("${prism.side-effects.workers:8}") int workers,
+                              @Value("${prism.side-effects.queue-capacity:10000}") int queueCapacity,
+                              @Value("${prism.side-effects.mongo-timeout-ms:5000}") long mongoTimeoutMs,
+                              @Value("${prism.side-effects.redis-timeout-ms:2000}") long redisTimeoutMs,
+                              @Value("${prism.side-effects.websocket-timeout-ms:1000}") long websocketTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        timeoutsMs.put(Sink.MONGO, mongoTimeoutMs);
+        timeoutsMs.put(Sink.REDIS, redisTimeoutMs);
+        timeoutsMs.put(Sink.WEBSOCKET, websocketTimeoutMs);
+        for (Sink sink : Sink.values()) {
+            String tag = sink.name().toLowerCase();
+            durations.put(sink, Timer.builder("prism.side-effects.duration").tag("sink", tag)
+                .description("Time from submission to completion of a post-commit side effect")
+                .register(meterRegistry));
+            failures.put(sink, outcome(tag, "failed"));
+            timeouts.put(sink, outcome(tag, "timeout"));
+            rejections.put(sink, outcome(tag, "rejected"));
+        }
+    }
+
+    private Counter outcome(String sink, String outcome) {
+        return Counter.builder("prism.side-effects").tag("sink", sink).tag("outcome", outcome)
+            .description("Post-commit side effects that did not complete")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "side-effect-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        watchdog = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "side-effect-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.setRemoveOnCancelPolicy(true);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Side effect workers did not stop in time");
+            executor.shutdownNow();
+        }
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에, 아니면 바로 풀에 넘긴다
+     */
+    public void afterCommit(Sink sink, Runnable action) {
+        AfterCommit.run(() -> submit(sink, action));
+    }
+
+    private void submit(Sink sink, Runnable action) {
+        SideEffect effect = new SideEffect(sink, action, System.nanoTime());
+        try {
+            effect.future = executor.submit(effect);
+        } catch (RejectedExecutionException e) {
+            rejections.get(sink).increment();
+            log.warn("Side effect queue full, dropped {} side effect", sink);
+            return;
+        }
+        try {
+            effect.timeout = watchdog.schedule(effect::cancelIfRunning, timeoutsMs.get(sink), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 종료 중: 시간 제한 없이 끝까지 실행한다
+        }
+    }
+
+    private class SideEffect implements Runnable {
+        private final Sink sink;
+        private final Runnable action;
+        private final long submittedAt;
+        private volatile Future<?> future;
+        private volatile ScheduledFuture<?> timeout;
+
+        SideEffect(Sink sink, Runnable action, long submittedAt) {
+            this.sink = sink;
+            this.action = action;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                failures.get(sink).increment();
+                log.error("{} side effect failed", sink, e);
+            } finally {
+                durations.get(sink).record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                ScheduledFuture<?> scheduled = timeout;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+            }
+        }
+
+        void cancelIfRunning() {
+            Future<?> running = future;
+            if (running != null && running.cancel(true)) {
+                timeouts.get(sink).increment();
+                log.warn("{} side effect timed out after {} ms", sink, timeoutsMs.get(sink));
+            }
+        }
+    }
+}
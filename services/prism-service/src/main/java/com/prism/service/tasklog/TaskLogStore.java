@@ -0,0 +1,193 @@
+package com.prism.service.tasklog;
+
+import com.prism.domain.TaskLogSegment;
+import com.prism.dto.TaskLogResponse;
+import com.prism.repository.TaskLogSegmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Task 로그 append-only 저장소
+ *
+ * 로그를 붙일 때 기존 로그를 읽지 않고 새 세그먼트만 INSERT 하므로 append 비용이 로그 크기와 무관하다.
+ * 다음 sequence/offset은 Task별 tail 캐시에 유지하고, 캐시에 없을 때만 마지막 세그먼트를 조회한다.
+ */
+@Slf4j
+@Service
+public class TaskLogStore {
+
+    private static final String INSERT_SQL = "INSERT INTO task_log_segments " +
+        "(task_id, sequence_no, start_offset, end_offset, content, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskLogSegmentRepository segmentRepository;
+    private final int maxReadBytes;
+
+    private final Map<String, LogTail> tails = new ConcurrentHashMap<>();
+
+    public TaskLogStore(JdbcTemplate jdbcTemplate,
+                        TaskLogSegmentRepository segmentRepository,
+                        @Value("${prism.task-logs.max-read-bytes:262144}") int maxReadBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.segmentRepository = segmentRepository;
+        this.maxReadBytes = maxReadBytes;
+    }
+
+    /**
+     * 여러 Task의 로그를 한 번의 batch INSERT로 붙인다. 호출자의 트랜잭션 안에서 실행된다.
+     * 트랜잭션이 실패하면 호출자가 {@link #forget(Collection)}으로 tail 캐시를 버려야 한다.
+     *
+     * @param textByTask Task ID -> 새로 붙일 로그 (기존 로그와는 줄바꿈으로 구분된다)
+     */
+    public void appendAll(Map<String, String> textByTask) {
+        if (textByTask.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<TaskLogSegment> segments = new ArrayList<>(textByTask.size());
+        for (Map.Entry<String, String> entry : textByTask.entrySet()) {
+            LogTail tail = tails.computeIfAbsent(entry.getKey(), this::loadTail);
+            String content = tail.nextOffset() > 0 ? "\n" + entry.getValue() : entry.getValue();
+            long endOffset = tail.nextOffset() + content.getBytes(StandardCharsets.UTF_8).length;
+            segments.add(TaskLogSegment.builder()
+                .taskId(entry.getKey())
+                .sequenceNo(tail.nextSequence())
+                .startOffset(tail.nextOffset())
+                .endOffset(endOffset)
+                .content(content)
+                .createdAt(now)
+                .build());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, segments, segments.size(), (ps, segment) -> {
+            ps.setString(1, segment.getTaskId());
+            ps.setLong(2, segment.getSequenceNo());
+            ps.setLong(3, segment.getStartOffset());
+            ps.setLong(4, segment.getEndOffset());
+            ps.setString(5, segment.getContent());
+            ps.setTimestamp(6, Timestamp.valueOf(segment.getCreatedAt()));
+        });
+
+        for (TaskLogSegment segment : segments) {
+            tails.put(segment.getTaskId(), new LogTail(segment.getSequenceNo() + 1, segment.getEndOffset()));
+        }
+    }
+
+    /**
+     * tail 캐시를 버린다 (쓰기 실패, 또는 더 이상 로그가 붙지 않는 Task)
+     */
+    public void forget(Collection<String> taskIds) {
+        taskIds.forEach(tails::remove);
+    }
+
+    /**
+     * offset 바이트부터 최대 maxBytes 만큼 읽는다. 멀티바이트 문자 중간에서 자르지 않는다.
+     */
+    public TaskLogResponse read(String taskId, long offset, int maxBytes) {
+        return readRange(taskId, Math.max(0, offset), clampBudget(maxBytes), totalBytes(taskId));
+    }
+
+    /**
+     * 로그의 마지막 maxBytes 를 읽는다.
+     */
+    public TaskLogResponse tail(String taskId, int maxBytes) {
+        int budget = clampBudget(maxBytes);
+        long totalBytes = totalBytes(taskId);
+        return readRange(taskId, Math.max(0, totalBytes - budget), budget, totalBytes);
+    }
+
+    private TaskLogResponse readRange(String taskId, long from, int budget, long totalBytes) {
+        if (from >= totalBytes) {
+            return chunk(taskId, totalBytes, totalBytes, totalBytes, "");
+        }
+
+        // 세그먼트 크기는 가변이므로 바이트 예산과 별개로 개수도 제한해서 읽는다
+        List<TaskLogSegment> segments = segmentRepository.findFromOffset(taskId, from, PageRequest.of(0, 64));
+
+        StringBuilder sb = new StringBuilder();
+        long start = from;
+        long position = from;
+        boolean first = true;
+        for (TaskLogSegment segment : segments) {
+            byte[] bytes = segment.getContent().getBytes(StandardCharsets.UTF_8);
+            int begin = (int) Math.max(0, position - segment.getStartOffset());
+            if (first) {
+                begin = alignForward(bytes, begin);
+                start = segment.getStartOffset() + begin;
+                first = false;
+            }
+            int end = bytes.length;
+            long remaining = budget - (segment.getStartOffset() + begin - start);
+            if (end - begin > remaining) {
+                end = alignBackward(bytes, begin + (int) remaining);
+            }
+            sb.append(new String(bytes, begin, end - begin, StandardCharsets.UTF_8));
+            position = segment.getStartOffset() + end;
+            if (end < bytes.length) {
+                break;
+            }
+        }
+        return chunk(taskId, start, position, totalBytes, sb.toString());
+    }
+
+    private long totalBytes(String taskId) {
+        return segmentRepository.findFirstByTaskIdOrderBySequenceNoDesc(taskId)
+            .map(TaskLogSegment::getEndOffset)
+            .orElse(0L);
+    }
+
+    private static TaskLogResponse chunk(String taskId, long offset, long nextOffset, long totalBytes, String content) {
+        return TaskLogResponse.builder()
+            .taskId(taskId)
+            .offset(offset)
+            .nextOffset(nextOffset)
+            .totalBytes(totalBytes)
+            .content(content)
+            .build();
+    }
+
+    // 최소 4바이트: UTF-8 문자 하나는 항상 읽을 수 있어야 offset이 전진한다
+    private int clampBudget(int maxBytes) {
+        return Math.max(4, Math.min(maxBytes, maxReadBytes));
+    }
+
+    private LogTail loadTail(String taskId) {
+        return segmentRepository.findFirstByTaskIdOrderBySequenceNoDesc(taskId)
+            .map(last -> new LogTail(last.getSequenceNo() + 1, last.getEndOffset()))
+            .orElse(new LogTail(0, 0));
+    }
+
+    // UTF-8 continuation byte(10xxxxxx)는 문자의 시작이 될 수 없다
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static int alignForward(byte[] bytes, int index) {
+        while (index < bytes.length && isContinuation(bytes[index])) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int alignBackward(byte[] bytes, int index) {
+        while (index > 0 && index < bytes.length && isContinuation(bytes[index])) {
+            index--;
+        }
+        return index;
+    }
+
+    private record LogTail(long nextSequence, long nextOffset) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.prism.service.update;
+
+import com.prism.grpc.UpdateTaskStatusRequest;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 아직 DB에 반영되지 않은 Task 업데이트 (Task당 1개로 병합됨)
+ *
+ * 병합 규칙 (last-writer-wins):
+ * - status, git 필드: 비어있지 않은 마지막 값
+ * - 로그: 수신 순서대로 이어붙임
+ * - startedAt: 처음 IN_PROGRESS를 받은 시각, completedAt: 마지막 DONE 시각
+ * - lastActivityId: 마지막으로 접수된 ActivityLog id
+ */
+@Getter
+public class PendingTaskUpdate {
+    private final String taskId;
+    private String status;
+    private String gitBranch;
+    private String gitCommitHash;
+    private String gitPrUrl;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime updatedAt;
+    private String lastActivityId;
+    private final List<String> logLines = new ArrayList<>();
+
+    public PendingTaskUpdate(String taskId, LocalDateTime updatedAt) {
+        this.taskId = taskId;
+        this.updatedAt = updatedAt;
+    }
+
+    public static PendingTaskUpdate from(UpdateTaskStatusRequest request, LocalDateTime receivedAt) {
+        PendingTaskUpdate update = new PendingTaskUpdate(request.getTaskId(), receivedAt);
+        update.status = emptyToNull(request.getStatus());
+        update.gitBranch = emptyToNull(request.getGitBranch());
+        update.gitCommitHash = emptyToNull(request.getGitCommitHash());
+        update.gitPrUrl = emptyToNull(request.getGitPrUrl());
+        if ("IN_PROGRESS".equals(update.status)) {
+            update.startedAt = receivedAt;
+        } else if ("DONE".equals(update.status)) {
+            update.completedAt = receivedAt;
+        }
+        if (!request.getDetails().isEmpty()) {
+            update.logLines.add(request.getDetails());
+        }
+        return update;
+    }
+
+    /**
+     * 더 최신 업데이트를 이 객체에 병합한다.
+     * ConcurrentHashMap.merge의 remapping 함수 안에서만 호출되므로 같은 Task에 대해 동시에 실행되지 않는다.
+     */
+    public PendingTaskUpdate mergedWith(PendingTaskUpdate newer) {
+        if (newer.status != null) {
+            status = newer.status;
+        }
+        if (newer.gitBranch != null) {
+            gitBranch = newer.gitBranch;
+        }
+        if (newer.gitCommitHash != null) {
+            gitCommitHash = newer.gitCommitHash;
+        }
+        if (newer.gitPrUrl != null) {
+            gitPrUrl = newer.gitPrUrl;
+        }
+        if (startedAt == null) {
+            startedAt = newer.startedAt;
+        }
+        if (newer.completedAt != null) {
+            completedAt = newer.completedAt;
+        }
+        updatedAt = newer.updatedAt;
+        if (newer.lastActivityId != null) {
+            lastActivityId = newer.lastActivityId;
+        }
+        logLines.addAll(newer.logLines);
+        return this;
+    }
+
+    void activityRecorded(String activityId) {
+        lastActivityId = activityId;
+    }
+
+    public boolean hasLog() {
+        return !logLines.isEmpty();
+    }
+
+    public String joinedLog() {
+        return String.join("\n", logLines);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,483 @@
+package com.prism.service.update;
+
+import com.prism.domain.ActivityLog;
+import com.prism.repository.ActivityLogRepository;
+import com.prism.service.DashboardCounters;
+import com.prism.service.activity.ActivityRollupService;
+import com.prism.service.dispatch.AgentLoadBalancer;
+import com.prism.service.hierarchy.TaskHierarchyService;
+import com.prism.service.search.TaskSearchIndex;
+import com.prism.service.sideeffect.AfterCommit;
+import com.prism.service.tasklog.TaskLogStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * gRPC Task 상태 업데이트용 write-behind 버퍼
+ *
+ * 업데이트를 Task별로 병합해 두었다가 max-latency-ms마다(또는 대기 Task 수가 batch-size에 도달하면)
+ * JDBC batch UPDATE, 로그 세그먼트 batch INSERT, Mongo insertMany(+ 시간 버킷 롤업) 한 번씩으로 내려쓰고,
+ * 커밋 후 legacy status 전이만큼 대시보드 카운터와 Agent 부하(AgentLoadBalancer)를 갱신한다.
+ * 종료 시에는 남은 업데이트를 모두 flush 한다.
+ *
+ * ActivityLog:
+ * - Task 생성 이벤트처럼 Task 업데이트 없이 남길 ActivityLog도 recordActivities로 같은 경로(재시도 포함)를 탄다
+ * - flush에서 찾지 못한 Task(접수 후 확인 사이에 사라진 id)의 ActivityLog는 버린다
+ * - Mongo 쓰기가 실패하면 다음 flush에서 다시 쓴다. id를 접수 시 미리 정해 두고 재시도는 save(id 기준 upsert)로
+ *   하므로 일부만 들어간 batch를 다시 써도 중복되지 않는다. 재시도 대기는 MAX_RETRY_ACTIVITIES로 상한을 둔다
+ *
+ * 동시성:
+ * - 같은 Task의 업데이트는 접수 시 ConcurrentHashMap.merge로 순서대로 병합되고, flush에서는 taskId 해시로 정해진
+ *   lane(단일 스레드) 하나가 쓴다. 서로 다른 lane은 다른 Task 행만 다루므로 병렬로 각자 트랜잭션을 커밋한다.
+ * - 행을 잠그지 않고 Task.version으로 낙관적 검사를 한다 (WHERE id = ? AND version = ?).
+ *   다른 인스턴스나 JPA 쓰기와 겹쳐 갱신되지 않은 행은 새로 읽어 다시 쓰고, 그래도 안 되면 다음 flush로 넘긴다.
+ */
+@Slf4j
+@Component
+public class TaskUpdateWriteBehind {
+
+    private static final String UPDATE_SQL = "UPDATE tasks SET " +
+        "status = COALESCE(?, status), " +
+        "started_at = COALESCE(started_at, ?), " +
+        "completed_at = COALESCE(?, completed_at), " +
+        "git_branch = COALESCE(?, git_branch), " +
+        "git_commit_hash = COALESCE(?, git_commit_hash), " +
+        "git_pr_url = COALESCE(?, git_pr_url), " +
+        "git_pr_status = COALESCE(?, git_pr_status), " +
+        "updated_at = ?, " +
+        "last_activity_id = COALESCE(?, last_activity_id), " +
+        "version = version + 1 " +
+        "WHERE id = ? AND version = ?";
+
+    // 버전 충돌 시 한 flush 안에서 다시 읽어 쓰는 최대 횟수 (남은 것은 다음 flush로 넘긴다)
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    // Mongo 장애 동안 다시 쓰려고 들고 있는 ActivityLog 최대 수 (넘으면 오래된 것부터 버린다)
+    private static final int MAX_RETRY_ACTIVITIES = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ActivityLogRepository activityLogRepository;
+    private final TaskLogStore taskLogStore;
+    private final DashboardCounters dashboardCounters;
+    private final ActivityRollupService activityRollupService;
+    private final AgentLoadBalancer agentLoadBalancer;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskHierarchyService taskHierarchyService;
+    private final long maxLatencyMs;
+    private final int batchSize;
+    private final int laneCount;
+
+    private final ConcurrentHashMap<String, PendingTaskUpdate> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ActivityLog> pendingActivities = new ConcurrentLinkedQueue<>();
+    // 쓰기에 실패한 ActivityLog (flushLock 안에서만 다룬다)
+    private final List<ActivityLog> retryActivities = new ArrayList<>();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean(false);
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService[] lanes;
+
+    public TaskUpdateWriteBehind(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ActivityLogRepository activityLogRepository,
+                                 TaskLogStore taskLogStore,
+                                 DashboardCounters dashboardCounters,
+                                 ActivityRollupService activityRollupService,
+                                 AgentLoadBalancer agentLoadBalancer,
+                                 TaskSearchIndex taskSearchIndex,
+                                 TaskHierarchyService taskHierarchyService,
+                                 @Value("${prism.task-updates.max-latency-ms:200}") long maxLatencyMs,
+                                 @Value("${prism.task-updates.batch-size:500}") int batchSize,
+                                 @Value("${prism.task-updates.lanes:4}") int laneCount) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.activityLogRepository = activityLogRepository;
+        this.taskLogStore = taskLogStore;
+        this.dashboardCounters = dashboardCounters;
+        this.activityRollupService = activityRollupService;
+        this.agentLoadBalancer = agentLoadBalancer;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskHierarchyService = taskHierarchyService;
+        this.maxLatencyMs = maxLatencyMs;
+        this.batchSize = batchSize;
+        this.laneCount = Math.max(1, laneCount);
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-update-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String name = "task-update-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, maxLatencyMs, maxLatencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Task update writer did not stop in time, flushing anyway");
+        }
+        flush();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    public void submit(PendingTaskUpdate update, ActivityLog activity) {
+        if (activity.getId() == null) {
+            activity.setId(new ObjectId().toHexString());
+        }
+        update.activityRecorded(activity.getId());
+        pending.merge(update.getTaskId(), update, PendingTaskUpdate::mergedWith);
+        pendingActivities.add(activity);
+
+        if (pending.size() >= batchSize && earlyFlushRequested.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    earlyFlushRequested.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // 종료 중: shutdown()의 마지막 flush가 처리한다
+                earlyFlushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Task 업데이트 없이 ActivityLog만 다음 flush에서 쓴다 (트랜잭션 안이면 커밋 후에 접수한다).
+     * SideEffectExecutor와 달리 버리거나 중간에 끊지 않고, 실패하면 submit과 같이 다음 flush에서 다시 쓴다.
+     */
+    public void recordActivities(List<ActivityLog> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        for (ActivityLog activity : activities) {
+            if (activity.getId() == null) {
+                activity.setId(new ObjectId().toHexString());
+            }
+        }
+        AfterCommit.run(() -> pendingActivities.addAll(activities));
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 대기 중인 업데이트를 모두 내려쓴다. 동시에 두 번 실행되지 않는다.
+     * Task 업데이트는 lane별로 나눠 병렬로 쓰고, 모든 lane이 끝날 때까지 기다린다.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            // 업데이트보다 먼저 꺼내야, 여기 담긴 ActivityLog의 업데이트가 이번 flush에서 반드시 확인된다
+            List<ActivityLog> activities = drainActivities();
+            Set<String> missing = ConcurrentHashMap.newKeySet();
+            List<PendingTaskUpdate> updates = drainUpdates();
+            if (!updates.isEmpty()) {
+                writeLanes(updates, missing);
+            }
+
+            if (!missing.isEmpty()) {
+                activities.removeIf(activity -> missing.contains(activity.getTaskId()));
+            }
+            writeActivities(activities);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeActivities(List<ActivityLog> activities) {
+        List<ActivityLog> written = new ArrayList<>();
+        if (!retryActivities.isEmpty()) {
+            List<ActivityLog> retries = new ArrayList<>(retryActivities);
+            retryActivities.clear();
+            try {
+                activityLogRepository.saveAll(retries);
+                log.info("Wrote {} previously failed activity logs", retries.size());
+                written.addAll(retries);
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} activity logs, retrying on next flush", retries.size(), e);
+                retryLater(retries);
+            }
+        }
+        if (!activities.isEmpty()) {
+            try {
+                activityLogRepository.insert(activities);
+                written.addAll(activities);
+            } catch (RuntimeException e) {
+                log.error("Failed to insert {} activity logs, retrying on next flush", activities.size(), e);
+                retryLater(activities);
+            }
+        }
+        recordRollup(written);
+    }
+
+    // 롤업은 쓰기가 성공한 ActivityLog에 대해 한 번만 더한다 (실패해도 다시 더하지 않는다).
+    // 차트 캐시는 롤업 뒤에 ActivityRollupService가 비우므로 flush당 한 번만 부른다
+    private void recordRollup(List<ActivityLog> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        try {
+            activityRollupService.record(activities);
+        } catch (RuntimeException e) {
+            log.error("Failed to roll up {} activity logs", activities.size(), e);
+        }
+    }
+
+    private void retryLater(List<ActivityLog> failed) {
+        retryActivities.addAll(failed);
+        int overflow = retryActivities.size() - MAX_RETRY_ACTIVITIES;
+        if (overflow > 0) {
+            retryActivities.subList(0, overflow).clear();
+            log.error("Dropped {} activity logs waiting for retry", overflow);
+        }
+    }
+
+    public int retryingActivityCount() {
+        flushLock.lock();
+        try {
+            return retryActivities.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Task update flush failed", e);
+        }
+    }
+
+    private List<PendingTaskUpdate> drainUpdates() {
+        List<PendingTaskUpdate> drained = new ArrayList<>(pending.size());
+        for (String taskId : pending.keySet()) {
+            PendingTaskUpdate update = pending.remove(taskId);
+            if (update != null) {
+                drained.add(update);
+            }
+        }
+        return drained;
+    }
+
+    private void writeLanes(List<PendingTaskUpdate> updates, Set<String> missing) {
+        List<List<PendingTaskUpdate>> byLane = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            byLane.add(new ArrayList<>());
+        }
+        for (PendingTaskUpdate update : updates) {
+            byLane.get(Math.floorMod(update.getTaskId().hashCode(), laneCount)).add(update);
+        }
+
+        List<Future<?>> running = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            List<PendingTaskUpdate> laneUpdates = byLane.get(i);
+            if (laneUpdates.isEmpty()) {
+                continue;
+            }
+            try {
+                running.add(lanes[i].submit(() -> writeLane(laneUpdates, missing)));
+            } catch (RejectedExecutionException e) {
+                // 종료 후 호출: 호출 스레드에서 직접 쓴다
+                writeLane(laneUpdates, missing);
+            }
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                log.error("Task update lane failed", e.getCause());
+            }
+        }
+    }
+
+    private void writeLane(List<PendingTaskUpdate> updates, Set<String> missing) {
+        List<PendingTaskUpdate> remaining = updates;
+        try {
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+                remaining = writeTasks(remaining, missing);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} task updates, re-queueing", remaining.size(), e);
+            taskLogStore.forget(remaining.stream().map(PendingTaskUpdate::getTaskId).toList());
+        }
+        if (!remaining.isEmpty()) {
+            log.warn("Re-queueing {} task updates for the next flush", remaining.size());
+            requeue(remaining);
+        }
+    }
+
+    private List<ActivityLog> drainActivities() {
+        List<ActivityLog> drained = new ArrayList<>();
+        ActivityLog activity;
+        while ((activity = pendingActivities.poll()) != null) {
+            drained.add(activity);
+        }
+        return drained;
+    }
+
+    private void requeue(List<PendingTaskUpdate> failed) {
+        // 실패한 업데이트가 더 오래된 것이므로, 그 사이 들어온 업데이트를 그 위에 병합한다
+        for (PendingTaskUpdate update : failed) {
+            pending.merge(update.getTaskId(), update, (current, older) -> older.mergedWith(current));
+        }
+    }
+
+    /**
+     * 한 트랜잭션으로 쓰고, 그 사이 다른 쓰기로 version이 바뀌어 반영되지 않은 업데이트를 돌려준다.
+     * 없는 Task의 업데이트는 버리고 id를 missing에 담는다.
+     */
+    private List<PendingTaskUpdate> writeTasks(List<PendingTaskUpdate> updates, Set<String> missing) {
+        DashboardCounters.Delta counterDelta = new DashboardCounters.Delta();
+        List<Runnable> loadTransitions = new ArrayList<>();
+        List<Runnable> branchChanges = new ArrayList<>();
+        List<TaskHierarchyService.StatusChange> subtaskStatusChanges = new ArrayList<>();
+        List<String> finished = new ArrayList<>();
+        List<PendingTaskUpdate> conflicted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            // 카운터 delta 계산용 이전 status와 낙관적 검사용 version을 읽는다 (행을 잠그지 않는다)
+            Map<String, VersionedTask> current = readVersions(updates);
+            List<PendingTaskUpdate> existing = new ArrayList<>(current.size());
+            for (PendingTaskUpdate update : updates) {
+                if (current.containsKey(update.getTaskId())) {
+                    existing.add(update);
+                } else {
+                    log.warn("Task not found: {}", update.getTaskId());
+                    missing.add(update.getTaskId());
+                }
+            }
+
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, existing, batchSize, (ps, update) -> {
+                bindCommonColumns(ps, update);
+                ps.setString(10, update.getTaskId());
+                ps.setLong(11, current.get(update.getTaskId()).version());
+            });
+
+            Map<String, String> logs = new HashMap<>();
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    PendingTaskUpdate update = existing.get(index++);
+                    // 드라이버가 건별 결과를 주지 않으면(SUCCESS_NO_INFO) 반영된 것으로 본다
+                    if (count == 0) {
+                        conflicted.add(update);
+                        continue;
+                    }
+                    VersionedTask previous = current.get(update.getTaskId());
+                    if (update.getStatus() != null) {
+                        counterDelta.statusChanged(previous.status(), update.getStatus());
+                        loadTransitions.add(() ->
+                            agentLoadBalancer.statusChanged(previous.agentId(), previous.status(), update.getStatus()));
+                        if (previous.parentTaskId() != null) {
+                            subtaskStatusChanges.add(new TaskHierarchyService.StatusChange(
+                                update.getTaskId(), previous.status(), update.getStatus()));
+                        }
+                    }
+                    if (update.getGitBranch() != null) {
+                        branchChanges.add(() -> taskSearchIndex.updateGitBranch(
+                            update.getTaskId(), update.getGitBranch(), previous.version() + 1));
+                    }
+                    if (update.hasLog()) {
+                        logs.put(update.getTaskId(), update.joinedLog());
+                    }
+                    if ("DONE".equals(update.getStatus()) || "FAILED".equals(update.getStatus())) {
+                        finished.add(update.getTaskId());
+                    }
+                }
+            }
+            taskLogStore.appendAll(logs);
+        });
+        dashboardCounters.apply(counterDelta);
+        loadTransitions.forEach(Runnable::run);
+        branchChanges.forEach(Runnable::run);
+        taskHierarchyService.statusChanged(subtaskStatusChanges);
+        taskLogStore.forget(finished);
+        if (!conflicted.isEmpty()) {
+            log.debug("{} task updates lost a version race, retrying", conflicted.size());
+        }
+        log.debug("Flushed {} coalesced task updates", updates.size() - conflicted.size());
+        return conflicted;
+    }
+
+    private record VersionedTask(String status, String agentId, String parentTaskId, long version) {
+    }
+
+    private Map<String, VersionedTask> readVersions(List<PendingTaskUpdate> updates) {
+        Map<String, VersionedTask> tasks = new HashMap<>();
+        for (int from = 0; from < updates.size(); from += batchSize) {
+            List<PendingTaskUpdate> chunk = updates.subList(from, Math.min(from + batchSize, updates.size()));
+            String sql = "SELECT id, status, assigned_to, parent_task_id, version FROM tasks WHERE id IN (" +
+                String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql,
+                rs -> {
+                    tasks.put(rs.getString(1), new VersionedTask(rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getLong(5)));
+                },
+                chunk.stream().map(PendingTaskUpdate::getTaskId).toArray());
+        }
+        return tasks;
+    }
+
+    private static void bindCommonColumns(PreparedStatement ps, PendingTaskUpdate update) throws SQLException {
+        ps.setString(1, update.getStatus());
+        ps.setTimestamp(2, toTimestamp(update.getStartedAt()));
+        ps.setTimestamp(3, toTimestamp(update.getCompletedAt()));
+        ps.setString(4, update.getGitBranch());
+        ps.setString(5, update.getGitCommitHash());
+        ps.setString(6, update.getGitPrUrl());
+        ps.setString(7, update.getGitPrUrl() != null ? "OPEN" : null); // Assume OPEN if URL is sent
+        ps.setTimestamp(8, toTimestamp(update.getUpdatedAt()));
+        ps.setString(9, update.getLastActivityId());
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }}
+}
@@ -0,0 +1,264 @@
+package com.prism.service.usage;
+
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.DashboardCounters;
+import com.prism.service.activity.ActivityRollupService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Daemon이 보고한 LLM 토큰 사용량 누적기
+ *
+ * record()는 (분, Agent, Task)별 LongAdder에 더하기만 하므로 업데이트 스레드끼리 락이나 CAS 재시도 경합이 없다.
+ * flush-interval-ms마다 누적분을 꺼내(sumThenReset)
+ * 1) Task -> project, Agent -> provider/단가를 한 번씩 조회해 (날짜, Agent, Provider, Project)로 합친 뒤
+ * 2) token_usage_daily에 batch upsert(+=)하고
+ * 3) 대시보드 카운터(전체 토큰/비용)와 분/시/일 Activity 버킷의 cost에 더한다.
+ * 합계와 cost 차트는 원본 이벤트를 훑지 않는다. upsert는 한 트랜잭션으로 묶어 중간에 실패하면 전부 롤백하고,
+ * 실패한 누적분은 다음 flush에 다시 시도한다 (일부 행만 반영된 채 다시 더해지지 않도록).
+ */
+@Slf4j
+@Component
+public class UsageAccumulator {
+
+    private static final String UPSERT_SQL = "INSERT INTO token_usage_daily " +
+        "(usage_date, agent_id, provider_id, project_id, prompt_tokens, completion_tokens, cost) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE " +
+        "prompt_tokens = prompt_tokens + VALUES(prompt_tokens), " +
+        "completion_tokens = completion_tokens + VALUES(completion_tokens), " +
+        "cost = cost + VALUES(cost)";
+
+    private static final String NONE = "";
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskRepository taskRepository;
+    private final AgentRepository agentRepository;
+    private final DashboardCounters dashboardCounters;
+    private final ActivityRollupService activityRollupService;
+    private final long flushIntervalMs;
+
+    private final ConcurrentHashMap<UsageKey, UsageCell> cells = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+
+    public UsageAccumulator(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            TaskRepository taskRepository,
+                            AgentRepository agentRepository,
+                            DashboardCounters dashboardCounters,
+                            ActivityRollupService activityRollupService,
+                            @Value("${prism.usage.flush-interval-ms:5000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskRepository = taskRepository;
+        this.agentRepository = agentRepository;
+        this.dashboardCounters = dashboardCounters;
+        this.activityRollupService = activityRollupService;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    private record UsageKey(LocalDateTime minute, String agentId, String taskId) {
+    }
+
+    private static class UsageCell {
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+    }
+
+    private record Drained(UsageKey key, long promptTokens, long completionTokens) {
+    }
+
+    private record ProviderRate(String providerId, BigDecimal costPer1kTokens) {
+        static final ProviderRate NONE = new ProviderRate(UsageAccumulator.NONE, null);
+
+        BigDecimal costOf(long tokens) {
+            if (costPer1kTokens == null) {
+                return BigDecimal.ZERO;
+            }
+            return costPer1kTokens.multiply(BigDecimal.valueOf(tokens)).movePointLeft(3)
+                .setScale(6, RoundingMode.HALF_UP);
+        }
+    }
+
+    private record DailyKey(LocalDate date, String agentId, String providerId, String projectId) {
+    }
+
+    private static class DailyUsage {
+        private long promptTokens;
+        private long completionTokens;
+        private BigDecimal cost = BigDecimal.ZERO;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-usage-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("Token usage writer did not stop in time, flushing anyway");
+        }
+        flush();
+    }
+
+    /**
+     * @param promptTokens 직전 업데이트 이후 사용한 prompt 토큰 수
+     * @param completionTokens 직전 업데이트 이후 사용한 completion 토큰 수
+     */
+    public void record(String agentId, String taskId, long promptTokens, long completionTokens, LocalDateTime at) {
+        // uint64가 long 범위를 넘으면 음수가 된다. 잘못된 값은 버린다
+        if (promptTokens < 0 || completionTokens < 0 || (promptTokens == 0 && completionTokens == 0)) {
+            return;
+        }
+        UsageKey key = new UsageKey(at.truncatedTo(ChronoUnit.MINUTES), agentId, taskId);
+        UsageCell cell = cells.get(key);
+        if (cell == null) {
+            cell = cells.computeIfAbsent(key, k -> new UsageCell());
+        }
+        cell.promptTokens.add(promptTokens);
+        cell.completionTokens.add(completionTokens);
+    }
+
+    /**
+     * 누적분을 모두 내려쓴다. 동시에 두 번 실행되지 않는다.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Drained> drained = drain();
+            if (drained.isEmpty()) {
+                return;
+            }
+            try {
+                write(drained);
+            } catch (RuntimeException e) {
+                log.error("Failed to flush token usage of {} task-minutes, re-queueing", drained.size(), e);
+                drained.forEach(d -> record(d.key().agentId(), d.key().taskId(),
+                    d.promptTokens(), d.completionTokens(), d.key().minute()));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Token usage flush failed", e);
+        }
+    }
+
+    private List<Drained> drain() {
+        // 셀은 그대로 두고 값만 0으로 돌린다 (sumThenReset은 셀 단위 getAndSet이라 동시 add를 잃지 않는다).
+        // 분이 지나 더 이상 쓰이지 않는 빈 셀만 제거한다
+        LocalDateTime staleBefore = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(1);
+        List<Drained> drained = new ArrayList<>();
+        for (Map.Entry<UsageKey, UsageCell> entry : cells.entrySet()) {
+            long prompt = entry.getValue().promptTokens.sumThenReset();
+            long completion = entry.getValue().completionTokens.sumThenReset();
+            if (prompt != 0 || completion != 0) {
+                drained.add(new Drained(entry.getKey(), prompt, completion));
+            } else if (entry.getKey().minute().isBefore(staleBefore)) {
+                cells.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    private void write(List<Drained> drained) {
+        Map<String, String> projects = lookup(drained.stream().map(d -> d.key().taskId()).collect(Collectors.toSet()),
+            taskRepository::findProjectIds, row -> row[1] != null ? (String) row[1] : NONE);
+        Map<String, ProviderRate> rates = lookup(drained.stream().map(d -> d.key().agentId()).collect(Collectors.toSet()),
+            agentRepository::findProviderRates,
+            row -> row[1] != null ? new ProviderRate((String) row[1], (BigDecimal) row[2]) : ProviderRate.NONE);
+
+        Map<DailyKey, DailyUsage> daily = new LinkedHashMap<>();
+        Map<LocalDateTime, Double> costByMinute = new HashMap<>();
+        long totalTokens = 0;
+        BigDecimal totalCost = BigDecimal.ZERO;
+        for (Drained d : drained) {
+            ProviderRate rate = rates.getOrDefault(d.key().agentId(), ProviderRate.NONE);
+            long tokens = d.promptTokens() + d.completionTokens();
+            BigDecimal cost = rate.costOf(tokens);
+
+            DailyUsage usage = daily.computeIfAbsent(new DailyKey(d.key().minute().toLocalDate(), d.key().agentId(),
+                rate.providerId(), projects.getOrDefault(d.key().taskId(), NONE)), k -> new DailyUsage());
+            usage.promptTokens += d.promptTokens();
+            usage.completionTokens += d.completionTokens();
+            usage.cost = usage.cost.add(cost);
+
+            costByMinute.merge(d.key().minute(), cost.doubleValue(), Double::sum);
+            totalTokens += tokens;
+            totalCost = totalCost.add(cost);
+        }
+
+        // autocommit이면 batch 중간 실패 시 앞쪽 행이 이미 반영돼 재시도가 이중으로 더한다
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.batchUpdate(UPSERT_SQL, daily.entrySet(), daily.size(), (ps, entry) -> {
+                ps.setDate(1, Date.valueOf(entry.getKey().date()));
+                ps.setString(2, entry.getKey().agentId());
+                ps.setString(3, entry.getKey().providerId());
+                ps.setString(4, entry.getKey().projectId());
+                ps.setLong(5, entry.getValue().promptTokens);
+                ps.setLong(6, entry.getValue().completionTokens);
+                ps.setBigDecimal(7, entry.getValue().cost);
+            }));
+
+        dashboardCounters.apply(new DashboardCounters.Delta()
+            .usageRecorded(totalTokens, totalCost.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValue()));
+        activityRollupService.recordCost(costByMinute);
+        log.debug("Flushed token usage of {} task-minutes into {} daily rows", drained.size(), daily.size());
+    }
+
+    private static <V> Map<String, V> lookup(Set<String> ids,
+                                             Function<List<String>, List<Object[]>> query,
+                                             Function<Object[], V> value) {
+        List<String> all = new ArrayList<>(ids);
+        Map<String, V> result = new HashMap<>();
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK_SIZE) {
+            for (Object[] row : query.apply(all.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, all.size())))) {
+                result.put((String) row[0], value.apply(row));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.prism.repository;
+
+import com.prism.domain.DocumentPublishJob;
+import com.prism.domain.enums.PublishJobStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 발행 Job 선점/중복 방지 쿼리 (H2)
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class DocumentPublishJobRepositoryTest {
+
+    private static final String ACTIVE_KEY = DocumentPublishJob.activeKey("task-1", "notion");
+
+    @Autowired
+    private DocumentPublishJobRepository jobRepository;
+
+    @Test
+    void claim_ShouldSucceedOnceUntilLeaseExpires() {
+        String jobId = queuedJob().getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        assertEquals(1, claim(jobId, "a", now, now.plusMinutes(5)));
+        assertEquals(0, claim(jobId, "b", now.plusMinutes(1), now.plusMinutes(6)));
+        // a가 멈춘 뒤 lease가 지나면 다른 인스턴스가 다시 선점한다
+        assertEquals(1, claim(jobId, "b", now.plusMinutes(6), now.plusMinutes(11)));
+
+        DocumentPublishJob job = jobRepository.findById(jobId).orElseThrow();
+        assertEquals(PublishJobStatus.RUNNING, job.getStatus());
+        assertEquals("b", job.getClaimToken());
+        assertEquals(2, job.getAttempts());
+    }
+
+    @Test
+    void claim_ShouldWaitForRetryTime() {
+        DocumentPublishJob queued = queuedJob();
+        LocalDateTime now = LocalDateTime.now();
+        queued.setNextAttemptAt(now.plusSeconds(30));
+        jobRepository.saveAndFlush(queued);
+
+        assertEquals(0, claim(queued.getId(), "a", now, now.plusMinutes(5)));
+        assertEquals(1, claim(queued.getId(), "a", now.plusSeconds(31), now.plusMinutes(5)));
+    }
+
+    @Test
+    void release_ShouldOnlyApplyForCurrentClaim() {
+        String jobId = queuedJob().getId();
+        LocalDateTime now = LocalDateTime.now();
+        claim(jobId, "a", now, now.minusSeconds(1));
+        claim(jobId, "b", now, now.plusMinutes(5));
+
+        assertEquals(0, jobRepository.release(jobId, "a", PublishJobStatus.SUCCEEDED, "page-a", null, null, null, now));
+        assertEquals(1, jobRepository.release(jobId, "b", PublishJobStatus.SUCCEEDED, "page-b", null, null, null, now));
+
+        DocumentPublishJob job = jobRepository.findById(jobId).orElseThrow();
+        assertEquals(PublishJobStatus.SUCCEEDED, job.getStatus());
+        assertEquals("page-b", job.getPageId());
+        assertNull(job.getActiveKey());
+    }
+
+    @Test
+    void activeKey_ShouldAllowOneActiveJobPerTaskAndDestination() {
+        String jobId = queuedJob().getId();
+        LocalDateTime now = LocalDateTime.now();
+        claim(jobId, "a", now, now.plusMinutes(5));
+        jobRepository.release(jobId, "a", PublishJobStatus.FAILED, null, "boom", null, null, now);
+
+        // 끝난 Job은 activeKey가 비므로 새 Job을 만들 수 있다
+        queuedJob();
+        assertThrows(DataIntegrityViolationException.class, this::queuedJob);
+    }
+
+    private DocumentPublishJob queuedJob() {
+        return jobRepository.saveAndFlush(DocumentPublishJob.builder()
+            .taskId("task-1")
+            .destination("notion")
+            .activeKey(ACTIVE_KEY)
+            .build());
+    }
+
+    private int claim(String jobId, String token, LocalDateTime now, LocalDateTime leaseUntil) {
+        return jobRepository.claim(jobId, token, leaseUntil, now, PublishJobStatus.QUEUED, PublishJobStatus.RUNNING);
+    }
+}
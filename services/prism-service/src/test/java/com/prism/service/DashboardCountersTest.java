@@ -0,0 +1,95 @@
+package com.prism.service;
+
+import com.prism.repository.TaskRepository;
+import com.prism.repository.TokenUsageDailyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCountersTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private TokenUsageDailyRepository tokenUsageDailyRepository;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @InjectMocks
+    private DashboardCounters dashboardCounters;
+
+    @Test
+    void snapshot_ShouldParseCounterHash() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(DashboardCounters.KEY)).thenReturn(Map.<Object, Object>of(
+            "total", "3",
+            "status:TODO", "2",
+            "status:DONE", "1",
+            "status:IN_PROGRESS", "0",
+            "taskStatus:CREATED", "3",
+            "gitPhase:NONE", "3",
+            "tokens", "1500",
+            "costMicros", "3000"
+        ));
+
+        DashboardCounters.Snapshot snapshot = dashboardCounters.snapshot();
+
+        assertEquals(3L, snapshot.total());
+        assertEquals(Map.of("TODO", 2L, "DONE", 1L), snapshot.byStatus());
+        assertEquals(Map.of("CREATED", 3L), snapshot.byTaskStatus());
+        assertEquals(Map.of("NONE", 3L), snapshot.byGitPhase());
+        assertEquals(1500L, snapshot.totalTokens());
+        assertEquals(0.003, snapshot.totalCost(), 1e-9);
+    }
+
+    @Test
+    void snapshot_ShouldReconcileWhenHashIsEmpty() {
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(DashboardCounters.KEY)).thenReturn(Map.of());
+        when(taskRepository.count()).thenReturn(2L);
+        when(taskRepository.countTasksByStatus()).thenReturn(List.<Object[]>of(new Object[]{"TODO", 2L}));
+        when(taskRepository.countTasksByTaskStatus()).thenReturn(List.of());
+        when(taskRepository.countTasksByGitPhase()).thenReturn(List.of());
+        when(tokenUsageDailyRepository.sumTotals())
+            .thenReturn(List.<Object[]>of(new Object[]{1500L, new BigDecimal("0.003000")}));
+
+        DashboardCounters.Snapshot snapshot = dashboardCounters.snapshot();
+
+        assertEquals(2L, snapshot.total());
+        assertEquals(Map.of("TODO", 2L), snapshot.byStatus());
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(DashboardCounters.KEY)),
+            eq("total"), eq("2"), eq("status:TODO"), eq("2"), eq("tokens"), eq("1500"), eq("costMicros"), eq("3000"));
+    }
+
+    @Test
+    void delta_ShouldCancelOutNoOpTransitions() {
+        DashboardCounters.Delta delta = new DashboardCounters.Delta()
+            .statusChanged("TODO", "IN_PROGRESS")
+            .statusChanged("IN_PROGRESS", "TODO");
+        DashboardCounters.Delta same = new DashboardCounters.Delta().statusChanged("DONE", "DONE");
+
+        assertTrue(delta.isEmpty());
+        assertTrue(same.isEmpty());
+        assertFalse(new DashboardCounters.Delta().statusChanged("TODO", "DONE").isEmpty());
+    }
+}
@@ -1,16 +1,22 @@
 package com.prism.service;
 
-import com.prism.repository.TaskRepository;
+import com.prism.domain.ActivityBucket;
+import com.prism.domain.enums.BucketGranularity;
 import com.prism.repository.ActivityLogRepository;
-import com.prism.domain.Task;
+import com.prism.repository.TokenUsageDailyRepository;
+import com.prism.service.activity.ActivityRollupService;
+import com.prism.service.presence.AgentPresenceRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,21 +24,34 @@ import static org.junit.jupiter.api.Assertions.*;
 public class DashboardServiceTest {
 
     @Mock
-    private TaskRepository taskRepository;
+    private ActivityLogRepository activityLogRepository;
 
     @Mock
-    private ActivityLogRepository activityLogRepository;
+    private DashboardCounters dashboardCounters;
+
+    @Mock
+    private ActivityRollupService activityRollupService;
+
+    @Mock
+    private AgentPresenceRegistry agentPresenceRegistry;
+
+    @Mock
+    private TokenUsageDailyRepository tokenUsageDailyRepository;
 
     @InjectMocks
     private DashboardService dashboardService;
 
     @Test
     public void testGetStats() {
-        when(taskRepository.count()).thenReturn(10L);
-        when(taskRepository.countTasksByStatus()).thenReturn(List.of(
-            new Object[]{"TODO", 1L},
-            new Object[]{"DONE", 1L}
+        when(dashboardCounters.snapshot()).thenReturn(new DashboardCounters.Snapshot(
+            10L,
+            Map.of("TODO", 1L, "DONE", 1L),
+            Map.of("CREATED", 10L),
+            Map.of("NONE", 10L),
+            12000L,
+            24_125_000L
         ));
+        when(agentPresenceRegistry.onlineCount()).thenReturn(2);
 
         Map<String, Object> stats = dashboardService.getStats();
 
@@ -40,12 +59,28 @@ public class DashboardServiceTest {
         Map<String, Long> byStatus = (Map<String, Long>) stats.get("tasksByStatus");
         assertEquals(1L, byStatus.get("TODO"));
         assertEquals(1L, byStatus.get("DONE"));
+        assertEquals(2, stats.get("activeAgents"));
+        assertEquals(12000L, stats.get("totalTokens"));
+        assertEquals(24.13, stats.get("totalCost"));
     }
 
     @Test
     public void testGetChartData() {
-        Map<String, Object> data = dashboardService.getChartData("activity");
-        assertNotNull(data.get("labels"));
-        assertNotNull(data.get("datasets"));
+        when(activityRollupService.series(eq(BucketGranularity.HOUR), any(), any())).thenReturn(List.of(
+            ActivityBucket.builder().bucketStart(LocalDateTime.of(2025, 1, 1, 9, 0)).count(4).build(),
+            ActivityBucket.builder().bucketStart(LocalDateTime.of(2025, 1, 1, 10, 0)).count(0).build()
+        ));
+
+        Map<String, Object> data = dashboardService.getChartData("activity", BucketGranularity.HOUR, "2h");
+
+        assertEquals(List.of("01-01 09:00", "01-01 10:00"), data.get("labels"));
+        List<Map<String, Object>> datasets = (List<Map<String, Object>>) data.get("datasets");
+        assertEquals(List.of(4L, 0L), datasets.get(0).get("data"));
+    }
+
+    @Test
+    public void testGetChartData_RejectsTooManyBuckets() {
+        assertThrows(IllegalArgumentException.class,
+            () -> dashboardService.getChartData("activity", BucketGranularity.MINUTE, "30d"));
     }
 }
@@ -0,0 +1,39 @@
+package com.prism.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_ShouldRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 1, 1, 10, 0, 0, 123_000_000), "a|b");
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encode_ShouldRoundTripWithDepth() {
+        KeysetCursor cursor = new KeysetCursor(12, LocalDateTime.of(2025, 1, 1, 10, 0), "task-1");
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+        assertNull(KeysetCursor.decode(new KeysetCursor(LocalDateTime.of(2025, 1, 1, 10, 0), "task-1").encode()).depth());
+    }
+
+    @Test
+    void decodeOrNull_ShouldTreatBlankAsFirstPage() {
+        assertNull(KeysetCursor.decodeOrNull(null));
+        assertNull(KeysetCursor.decodeOrNull(" "));
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.prism.service;
+
+import com.prism.domain.*;
+import com.prism.domain.enums.TaskStatus;
+import com.prism.dto.AgentResponse;
+import com.prism.dto.TaskDetailResponse;
+import com.prism.dto.TaskPageResponse;
+import com.prism.dto.TaskResponse;
+import com.prism.repository.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 목록/상세/승인대기 조회가 Task 수와 무관하게 SQL 1회로 끝나는지 검증 (N+1 회귀 방지)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskQueryStatementCountTest {
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private AgentService agentService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private AgentRepository agentRepository;
+    @Autowired
+    private AiProviderRepository aiProviderRepository;
+    @Autowired
+    private OrganizationRepository organizationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private ActivityLogRepository activityLogRepository; // Mock Mongo
+
+    @MockitoBean
+    private ActivityBucketRepository activityBucketRepository; // Mock Mongo
+
+    @MockitoBean
+    private StringRedisTemplate redisTemplate; // Mock Redis
+
+    @MockitoBean
+    private SimpMessagingTemplate messagingTemplate; // Mock Websocket
+
+    private Statistics statistics;
+    private String taskId;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+        agentRepository.deleteAll();
+
+        Organization org = organizationRepository.save(Organization.builder().name("Count Org").build());
+        User user = userRepository.save(User.builder().username("count_user").email("count@example.com").organization(org).build());
+        Project project = projectRepository.save(Project.builder().name("Count Project").keyName("CNT").organization(org).createdBy(user).build());
+        AiProvider provider = aiProviderRepository.save(AiProvider.builder().name("Count Provider").build());
+
+        List<Agent> agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            agents.add(agentRepository.save(Agent.builder()
+                .name("Agent " + i)
+                .role("BACKEND")
+                .provider(provider)
+                .organization(org)
+                .createdBy(user)
+                .build()));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Task task = taskRepository.save(Task.builder()
+                .title("Task " + i)
+                .priority("HIGH")
+                .taskStatus(i % 2 == 0 ? TaskStatus.GENERATED : TaskStatus.CREATED)
+                .assignedTo(agents.get(i % agents.size()))
+                .project(project)
+                .createdBy(user)
+                .build());
+            taskId = task.getId();
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        // 다른 테스트의 deleteAll()이 FK에 걸리지 않도록 직접 만든 데이터를 정리한다
+        taskRepository.deleteAll();
+        agentRepository.deleteAll();
+    }
+
+    @Test
+    void getAllTasks_ShouldUseSingleStatement() {
+        TaskPageResponse page = taskService.getAllTasks(null, null, null, "HIGH", null, null, 50);
+
+        assertEquals(10, page.getItems().size());
+        page.getItems().forEach(t -> {
+            assertNotNull(t.getAssignedToName());
+            assertNotNull(t.getProjectName());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTask_ShouldUseSingleStatement() {
+        TaskDetailResponse detail = taskService.getTask(taskId);
+
+        assertNotNull(detail.getTask().getAssignedToName());
+        assertNotNull(detail.getTask().getProjectName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPendingApprovalTasks_ShouldUseSingleStatement() {
+        List<TaskResponse> pending = taskService.getPendingApprovalTasks(null);
+
+        assertEquals(5, pending.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllAgents_ShouldUseSingleStatement() {
+        List<AgentResponse> agents = agentService.getAllAgents();
+
+        assertEquals(3, agents.size());
+        agents.forEach(a -> assertNotNull(a.getProviderName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,22 +1,45 @@
 package com.prism.service;
 
 import com.prism.domain.*;
+import com.prism.dto.BulkCreateTaskResponse;
 import com.prism.dto.CreateTaskRequest;
+import com.prism.dto.TaskDetailResponse;
+import com.prism.dto.TaskPageResponse;
 import com.prism.dto.TaskResponse;
+import com.prism.dto.TaskRollupResponse;
+import com.prism.dto.TaskSubtreeResponse;
+import com.prism.dto.TimelinePageResponse;
 import com.prism.repository.*;
+import com.prism.service.dispatch.AgentDispatchQueue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -25,6 +48,9 @@ class TaskServiceIntegrationTest {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private TaskBulkService taskBulkService;
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -34,10 +60,17 @@ class TaskServiceIntegrationTest {
     private UserRepository userRepository;
     @Autowired
     private ProjectRepository projectRepository;
+    @Autowired
+    private AgentRepository agentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @MockitoBean
     private ActivityLogRepository activityLogRepository; // Mock Mongo
 
+    @MockitoBean
+    private ActivityBucketRepository activityBucketRepository; // Mock Mongo
+
     @MockitoBean
     private StringRedisTemplate redisTemplate; // Mock Redis
 
@@ -49,6 +82,7 @@ class TaskServiceIntegrationTest {
     @BeforeEach
     void setUp() {
         taskRepository.deleteAll();
+        agentRepository.deleteAll();
         projectRepository.deleteAll();
         userRepository.deleteAll();
         organizationRepository.deleteAll();
@@ -78,10 +112,176 @@ class TaskServiceIntegrationTest {
         assertNotNull(persisted);
         assertEquals("HIGH", persisted.getPriority());
 
-        // Verify WebSocket broadcast
-        verify(messagingTemplate).convertAndSend(any(String.class), any(TaskResponse.class));
+        // Verify WebSocket broadcast (커밋 후 비동기)
+        verify(messagingTemplate, timeout(2000)).convertAndSend(any(String.class), any(TaskResponse.class));
+
+        // Verify Activity Log attempt (write-behind의 다음 flush)
+        verify(activityLogRepository, timeout(2000)).insert(anyList());
+    }
+
+    @Test
+    void createTask_ShouldDispatchAssignedTaskOnCommittingThread() {
+        Agent agent = agentRepository.save(Agent.builder().name("Dispatch Bot").role("BACKEND").build());
+        CreateTaskRequest request = new CreateTaskRequest();
+        request.setTitle("Assigned Task");
+        request.setProjectId(projectId);
+        request.setAssignedTo(agent.getId());
+
+        TaskResponse response = taskService.createTask(request);
+
+        // SideEffectExecutor(버려질 수 있는 sink)를 거치지 않으므로 반환 시점에 이미 XADD가 끝나 있다
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(AgentDispatchQueue.streamKey(agent.getId()))),
+            any(), any(), eq(response.getId()), eq("Assigned Task"), any());
+    }
+
+    @Test
+    void createTasks_ShouldInsertValidItemsAndReportFailures() {
+        CreateTaskRequest first = new CreateTaskRequest();
+        first.setTitle("Bulk 1");
+        first.setProjectId(projectId);
+        CreateTaskRequest invalid = new CreateTaskRequest();
+        invalid.setTitle("Bulk 2");
+        invalid.setProjectId("missing-project");
+        CreateTaskRequest defaultProject = new CreateTaskRequest();
+        defaultProject.setTitle("Bulk 3");
+        defaultProject.setPriority("HIGH");
+
+        BulkCreateTaskResponse response = taskBulkService.createTasks(List.of(first, invalid, defaultProject));
+
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertEquals("Invalid Project ID", response.getResults().get(1).getError());
+
+        Task persisted = taskRepository.findById(response.getResults().get(2).getTask().getId()).orElseThrow();
+        assertEquals("Bulk 3", persisted.getTitle());
+        assertEquals("HIGH", persisted.getPriority());
+        assertEquals(2, taskRepository.count());
+
+        // ActivityLog는 커밋 후 한 번에 저장한다
+        verify(activityLogRepository, timeout(2000)).insert(anyList());
+    }
+
+    @Test
+    void getAllTasks_ShouldPageWithCursor() {
+        for (int i = 0; i < 5; i++) {
+            CreateTaskRequest request = new CreateTaskRequest();
+            request.setTitle("Task " + i);
+            request.setPriority("LOW");
+            request.setProjectId(projectId);
+            taskService.createTask(request);
+        }
+
+        Set<String> seen = new HashSet<>();
+        TaskPageResponse page = taskService.getAllTasks(null, null, null, "LOW", null, null, 2);
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        page.getItems().forEach(t -> seen.add(t.getId()));
 
-        // Verify Activity Log attempt
-        verify(activityLogRepository).save(any(ActivityLog.class));
+        page = taskService.getAllTasks(null, null, null, "LOW", null, page.getNextCursor(), 2);
+        assertEquals(2, page.getItems().size());
+        page.getItems().forEach(t -> seen.add(t.getId()));
+
+        page = taskService.getAllTasks(null, null, null, "LOW", null, page.getNextCursor(), 2);
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        page.getItems().forEach(t -> seen.add(t.getId()));
+
+        assertEquals(5, seen.size());
+    }
+
+    @Test
+    void getTimeline_ShouldContinueFromCursor() {
+        CreateTaskRequest request = new CreateTaskRequest();
+        request.setTitle("Chatty Task");
+        request.setProjectId(projectId);
+        String taskId = taskService.createTask(request).getId();
+
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<ActivityLog> newest = List.of(
+            ActivityLog.builder().id("a3").taskId(taskId).action("C").timestamp(now).build(),
+            ActivityLog.builder().id("a2").taskId(taskId).action("B").timestamp(now.minusSeconds(1)).build(),
+            ActivityLog.builder().id("a1").taskId(taskId).action("A").timestamp(now.minusSeconds(2)).build());
+        when(activityLogRepository.findTimeline(taskId, null, null, 3)).thenReturn(newest);
+        when(activityLogRepository.findTimeline(taskId, now.minusSeconds(1), "a2", 3)).thenReturn(newest.subList(2, 3));
+
+        TimelinePageResponse first = taskService.getTimeline(taskId, null, 2);
+        assertEquals(List.of("C", "B"), first.getItems().stream().map(TaskDetailResponse.ActivityLogDTO::getAction).toList());
+        assertTrue(first.isHasMore());
+
+        TimelinePageResponse second = taskService.getTimeline(taskId, first.getNextCursor(), 2);
+        assertEquals(List.of("A"), second.getItems().stream().map(TaskDetailResponse.ActivityLogDTO::getAction).toList());
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void taskHierarchy_ShouldListSubtreeAndRollUpStatuses() {
+        String root = createTask("Epic", null);
+        String child = createTask("Story", root);
+        String grandchild = createTask("Subtask", child);
+        BulkCreateTaskResponse bulk = taskBulkService.createTasks(
+            List.of(taskRequest("Bulk story", root), taskRequest("Orphan", "missing-task")));
+        assertEquals("Invalid Parent Task ID", bulk.getResults().get(1).getError());
+        jdbcTemplate.update("UPDATE tasks SET status = 'DONE' WHERE id = ?", grandchild);
+
+        TaskSubtreeResponse subtree = taskService.getSubtree(root, null, null, 50);
+        assertEquals(List.of(1, 1, 2), subtree.getItems().stream().map(TaskSubtreeResponse.Node::getDepth).toList());
+        assertEquals(grandchild, subtree.getItems().get(2).getTask().getId());
+        assertEquals(child, subtree.getItems().get(2).getTask().getParentTaskId());
+        assertEquals(2, taskService.getSubtree(root, 1, null, 50).getItems().size());
+
+        // (depth, createdAt, id) 커서로 이어 읽으면 빠짐없이 같은 순서가 된다
+        TaskSubtreeResponse firstPage = taskService.getSubtree(root, null, null, 2);
+        assertTrue(firstPage.isHasMore());
+        TaskSubtreeResponse secondPage = taskService.getSubtree(root, null, firstPage.getNextCursor(), 2);
+        assertFalse(secondPage.isHasMore());
+        assertNull(secondPage.getNextCursor());
+        assertEquals(subtree.getItems().stream().map(node -> node.getTask().getId()).toList(),
+            Stream.concat(firstPage.getItems().stream(), secondPage.getItems().stream())
+                .map(node -> node.getTask().getId()).toList());
+
+        TaskRollupResponse rollup = taskService.getRollup(root);
+        assertEquals(3, rollup.getTotal());
+        assertEquals(1, rollup.getCompleted());
+        assertEquals(3L, rollup.getByTaskStatus().get("CREATED"));
+        assertEquals(1, taskService.getRollup(child).getTotal());
+    }
+
+    @Test
+    void moveTask_ShouldRelinkSubtreeAndRejectCycles() {
+        String first = createTask("First", null);
+        String second = createTask("Second", null);
+        String child = createTask("Child", first);
+        String grandchild = createTask("Grandchild", child);
+
+        IllegalArgumentException cycle = assertThrows(IllegalArgumentException.class,
+            () -> taskService.moveTask(first, grandchild));
+        assertEquals("Cannot move a task under its own subtree", cycle.getMessage());
+
+        assertEquals(second, taskService.moveTask(child, second).getParentTaskId());
+        assertTrue(taskService.getSubtree(first, null, null, 50).getItems().isEmpty());
+        assertEquals(List.of(1, 2), taskService.getSubtree(second, null, null, 50).getItems().stream()
+            .map(TaskSubtreeResponse.Node::getDepth).toList());
+        assertEquals(2, taskService.getRollup(second).getTotal());
+
+        assertNull(taskService.moveTask(child, null).getParentTaskId());
+        assertEquals(0, taskService.getRollup(second).getTotal());
+        assertEquals(List.of(grandchild), taskService.getSubtree(child, null, null, 50).getItems().stream()
+            .map(node -> node.getTask().getId()).toList());
+    }
+
+    private String createTask(String title, String parentTaskId) {
+        return taskService.createTask(taskRequest(title, parentTaskId)).getId();
+    }
+
+    private CreateTaskRequest taskRequest(String title, String parentTaskId) {
+        CreateTaskRequest request = new CreateTaskRequest();
+        request.setTitle(title);
+        request.setProjectId(projectId);
+        request.setParentTaskId(parentTaskId);
+        return request;
     }
 }
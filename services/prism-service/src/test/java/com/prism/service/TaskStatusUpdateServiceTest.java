@@ -0,0 +1,76 @@
+package com.prism.service;
+
+import com.prism.grpc.UpdateTaskStatusRequest;
+import com.prism.repository.TaskRepository;
+import com.prism.service.broadcast.TopicBroadcaster;
+import com.prism.service.update.TaskUpdateWriteBehind;
+import com.prism.service.usage.UsageAccumulator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStatusUpdateServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private TaskUpdateWriteBehind taskUpdateWriteBehind;
+    @Mock
+    private TopicBroadcaster topicBroadcaster;
+    @Mock
+    private UsageAccumulator usageAccumulator;
+
+    @InjectMocks
+    private TaskStatusUpdateService service;
+
+    @Test
+    void applyUpdate_ShouldRejectUnknownTaskWithoutSideEffects() {
+        when(taskRepository.existsById("missing")).thenReturn(false);
+
+        assertFalse(service.applyUpdate(request("missing")));
+
+        verifyNoInteractions(taskUpdateWriteBehind, topicBroadcaster, usageAccumulator);
+    }
+
+    @Test
+    void applyUpdate_ShouldCheckExistenceOncePerTask() {
+        when(taskRepository.existsById("task-1")).thenReturn(true);
+
+        assertTrue(service.applyUpdate(request("task-1")));
+        assertTrue(service.applyUpdate(request("task-1")));
+
+        verify(taskRepository, times(1)).existsById("task-1");
+        verify(taskUpdateWriteBehind, times(2)).submit(any(), any());
+        verify(topicBroadcaster, times(2)).publish(anyString(), anyMap(), any());
+    }
+
+    @Test
+    void applyUpdate_ShouldRejectEmptyTaskIdWithoutQuery() {
+        assertFalse(service.applyUpdate(request("")));
+
+        verify(taskRepository, never()).existsById(anyString());
+    }
+
+    private static UpdateTaskStatusRequest request(String taskId) {
+        return UpdateTaskStatusRequest.newBuilder()
+            .setTaskId(taskId)
+            .setAgentId("agent-1")
+            .setStatus("IN_PROGRESS")
+            .setDetails("step")
+            .build();
+    }
+}
@@ -0,0 +1,121 @@
+package com.prism.service.activity;
+
+import com.prism.domain.ActivityBucket;
+import com.prism.domain.ActivityLog;
+import com.prism.domain.enums.BucketGranularity;
+import com.prism.repository.ActivityBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityRollupServiceTest {
+
+    @Mock
+    private ActivityBucketRepository activityBucketRepository;
+
+    private Cache charts;
+    private ActivityRollupService activityRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        charts = cacheManager.getCache("dashboardCharts");
+        activityRollupService = new ActivityRollupService(activityBucketRepository, cacheManager, 48, 90);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_ShouldMergeActivitiesIntoBucketDeltas() {
+        LocalDateTime base = LocalDateTime.of(2025, 3, 10, 14, 5, 30);
+        activityRollupService.record(List.of(
+            activity("TASK_CREATED", base, null),
+            activity("TASK_STATUS_UPDATE", base.plusSeconds(10), Map.of("cost", 0.25)),
+            activity("TASK_STATUS_UPDATE", base.plusMinutes(1), Map.of("cost", 0.5))
+        ));
+
+        ArgumentCaptor<Collection<ActivityBucket>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(activityBucketRepository).incrementAll(captor.capture());
+        Map<String, ActivityBucket> deltas = captor.getValue().stream()
+            .collect(Collectors.toMap(ActivityBucket::getId, Function.identity()));
+
+        // 분 버킷 2개 + 시간 버킷 1개 + 일 버킷 1개
+        assertEquals(4, deltas.size());
+        ActivityBucket firstMinute = deltas.get("MINUTE:2025-03-10T14:05");
+        assertEquals(2, firstMinute.getCount());
+        assertEquals(0.25, firstMinute.getCost(), 1e-9);
+
+        ActivityBucket hour = deltas.get("HOUR:2025-03-10T14:00");
+        assertEquals(3, hour.getCount());
+        assertEquals(0.75, hour.getCost(), 1e-9);
+        assertEquals(Map.of("TASK_CREATED", 1L, "TASK_STATUS_UPDATE", 2L), hour.getActions());
+
+        assertEquals(3, deltas.get("DAY:2025-03-10T00:00").getCount());
+    }
+
+    @Test
+    void record_ShouldClearChartCacheOnlyAfterBucketsAreIncremented() {
+        charts.put("activity:MINUTE:null", Map.of());
+        AtomicBoolean cachedDuringIncrement = new AtomicBoolean();
+        doAnswer(invocation -> {
+            cachedDuringIncrement.set(charts.get("activity:MINUTE:null") != null);
+            return null;
+        }).when(activityBucketRepository).incrementAll(any());
+
+        activityRollupService.record(List.of(activity("TASK_CREATED", LocalDateTime.now(), null)));
+
+        assertTrue(cachedDuringIncrement.get());
+        assertNull(charts.get("activity:MINUTE:null"));
+    }
+
+    @Test
+    void record_ShouldKeepChartCacheWhenRollupFails() {
+        charts.put("activity:MINUTE:null", Map.of());
+        doThrow(new IllegalStateException("mongo down")).when(activityBucketRepository).incrementAll(any());
+
+        activityRollupService.record(List.of(activity("TASK_CREATED", LocalDateTime.now(), null)));
+
+        assertNotNull(charts.get("activity:MINUTE:null"));
+    }
+
+    @Test
+    void series_ShouldFillEmptyBucketsWithZero() {
+        LocalDateTime from = LocalDateTime.of(2025, 3, 10, 0, 0);
+        when(activityBucketRepository.findRange("HOUR:2025-03-10T00:00", "HOUR:2025-03-10T03:00")).thenReturn(List.of(
+            ActivityBucket.builder().id("HOUR:2025-03-10T01:00").granularity(BucketGranularity.HOUR)
+                .bucketStart(from.plusHours(1)).count(7).build()
+        ));
+
+        List<ActivityBucket> series = activityRollupService.series(BucketGranularity.HOUR, from, from.plusHours(3));
+
+        assertEquals(List.of(0L, 7L, 0L), series.stream().map(ActivityBucket::getCount).toList());
+        assertEquals(from.plusHours(2), series.get(2).getBucketStart());
+    }
+
+    private static ActivityLog activity(String action, LocalDateTime timestamp, Map<String, Object> details) {
+        return ActivityLog.builder().action(action).timestamp(timestamp).details(details).build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.prism.service.broadcast;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionSendBuffersTest {
+
+    private final SessionSendBuffers buffers =
+        new SessionSendBuffers(new BroadcastMetrics(new SimpleMeterRegistry()), 2);
+
+    @AfterEach
+    void tearDown() {
+        buffers.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendMessage_ShouldDropSupersededFrameOfSameTopicBeforeOtherTopics() throws Exception {
+        WebSocketSession delegate = mock(WebSocketSession.class);
+        when(delegate.isOpen()).thenReturn(true);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(delegate).sendMessage(any());
+        WebSocketSession session = decorate(delegate);
+
+        session.sendMessage(frame("/topic/tasks/a", "a1"));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));  // a1은 느린 소켓에 걸려 있다
+        session.sendMessage(frame("/topic/tasks/b", "b1"));
+        session.sendMessage(frame("/topic/tasks/a", "a2"));
+        session.sendMessage(frame("/topic/tasks/a", "a3"));  // 버퍼 2개: 가장 오래된 b1이 아니라 a2를 버린다
+        release.countDown();
+
+        ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(delegate, timeout(5000).times(3)).sendMessage(sent.capture());
+        assertEquals(List.of("a1", "b1", "a3"), sent.getAllValues().stream()
+            .map(message -> ((TextMessage) message).getPayload())
+            .map(payload -> payload.substring(payload.indexOf("\n\n") + 2))
+            .toList());
+    }
+
+    @Test
+    void stateTopicOf_ShouldOnlyReturnPerTaskTopics() {
+        assertEquals("/topic/tasks/a", SessionSendBuffers.stateTopicOf(frame("/topic/tasks/a", "{}")));
+        assertNull(SessionSendBuffers.stateTopicOf(frame("/topic/tasks", "{}")));  // Task마다 다른 생성 이벤트
+        assertNull(SessionSendBuffers.stateTopicOf(new TextMessage("CONNECTED\nversion:1.2\n\n\0")));
+    }
+
+    private WebSocketSession decorate(WebSocketSession delegate) throws Exception {
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        buffers.decorate(handler).afterConnectionEstablished(delegate);
+        ArgumentCaptor<WebSocketSession> decorated = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler, times(1)).afterConnectionEstablished(decorated.capture());
+        return decorated.getValue();
+    }
+
+    private static TextMessage frame(String destination, String body) {
+        return new TextMessage("MESSAGE\ndestination:" + destination + "\nsubscription:sub-0\n\n" + body);
+    }
+}
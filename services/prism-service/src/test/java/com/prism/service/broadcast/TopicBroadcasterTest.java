@@ -0,0 +1,100 @@
+package com.prism.service.broadcast;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TopicBroadcasterTest {
+
+    private static final String TOPIC = "/topic/tasks/task-1";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TopicSubscriptions topicSubscriptions = new TopicSubscriptions();
+    private TopicBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new TopicBroadcaster(messagingTemplate, topicSubscriptions,
+            new BroadcastMetrics(meterRegistry), 100, 2, 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldConflateUpdatesIntoOneFrameOfCurrentState() {
+        topicSubscriptions.subscribed("session-1", "sub-0", TOPIC);
+
+        broadcaster.publish(TOPIC, Map.of("status", "IN_PROGRESS", "gitBranch", "feat/a"), "line 1");
+        broadcaster.publish(TOPIC, Map.of("status", "IN_PROGRESS"), "line 2");
+        broadcaster.publish(TOPIC, Map.of("status", "IN_PROGRESS"), "line 3");
+        broadcaster.flush();
+
+        broadcaster.publish(TOPIC, Map.of("status", "DONE", "gitBranch", "feat/a"), null);
+        broadcaster.flush();
+
+        ArgumentCaptor<Map<String, Object>> frames = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq(TOPIC), frames.capture());
+        Map<String, Object> first = frames.getAllValues().get(0);
+        assertEquals("IN_PROGRESS", first.get("status"));
+        assertEquals(List.of("line 2", "line 3"), first.get("events")); // 프레임당 2개, 오래된 것부터 버림
+        Map<String, Object> second = frames.getAllValues().get(1);
+        assertEquals("DONE", second.get("status"));
+        // 바뀌지 않은 필드도 싣는다: 앞 프레임을 잃은 세션도 이 프레임만으로 최신 상태가 된다
+        assertEquals("feat/a", second.get("gitBranch"));
+        assertEquals(List.of("status"), second.get("changed"));
+        assertFalse(second.containsKey("events"));
+
+        assertEquals(3.0, meterRegistry.counter("prism.ws.messages.conflated").count());
+        assertEquals(2, meterRegistry.summary("prism.ws.fanout").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldSendCurrentStateToNewSubscribers() {
+        broadcaster.publish(TOPIC, Map.of("status", "DONE", "gitBranch", "feat/a"), "finished");
+        broadcaster.flush();
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+        topicSubscriptions.subscribed("session-1", "sub-0", TOPIC);
+        broadcaster.flush();
+        broadcaster.flush();
+
+        ArgumentCaptor<Map<String, Object>> frames = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(1)).convertAndSend(eq(TOPIC), frames.capture());
+        assertEquals("DONE", frames.getValue().get("status"));
+        assertEquals("feat/a", frames.getValue().get("gitBranch"));
+        assertEquals(List.of(), frames.getValue().get("changed"));
+    }
+
+    @Test
+    void flush_ShouldSkipTopicsWithoutSubscribers() {
+        broadcaster.publish(TOPIC, Map.of("status", "IN_PROGRESS"), "line 1");
+        topicSubscriptions.subscribed("session-1", "sub-0", TOPIC);
+        topicSubscriptions.disconnected("session-1");
+
+        broadcaster.flush();
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        assertEquals(1.0, meterRegistry.counter("prism.ws.frames.skipped").count());
+    }
+}
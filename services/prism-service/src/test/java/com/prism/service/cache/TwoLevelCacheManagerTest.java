@@ -0,0 +1,93 @@
+package com.prism.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TwoLevelCacheManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TwoLevelCacheManager cacheManager =
+        new TwoLevelCacheManager(null, meterRegistry, 2, Duration.ofMinutes(1), 60_000, 5_000);
+
+    @Test
+    void get_ShouldLoadOnceAndRecordL1Stats() {
+        Cache cache = cacheManager.getCache("dashboardCharts");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v", cache.get("activity:DAY:7d", () -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertEquals("v", cache.get("activity:DAY:7d", () -> "other"));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "dashboardCharts").tag("result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void l1_ShouldBeBoundedBySize() {
+        Cache cache = cacheManager.getCache("dashboardCharts");
+        com.github.benmanes.caffeine.cache.Cache<?, ?> l1 =
+            (com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache();
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        l1.cleanUp();
+
+        assertEquals(2, l1.estimatedSize());
+    }
+
+    @Test
+    void onMessage_ShouldDropL1EntriesInvalidatedByOtherReplicas() {
+        Cache cache = cacheManager.getCache("dashboardCharts");
+        cache.put("activity:DAY:7d", "stale");
+        cache.put("cost:DAY:7d", "stale");
+
+        cacheManager.onMessage(message("other-replica|dashboardCharts|EVICT|activity:DAY:7d"), null);
+        assertNull(cache.get("activity:DAY:7d"));
+        assertEquals("stale", cache.get("cost:DAY:7d", String.class));
+
+        cacheManager.onMessage(message("other-replica|dashboardCharts|CLEAR|3"), null);
+        assertNull(cache.get("cost:DAY:7d"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generation_ShouldBeReReadWhenClearMessageWasMissed() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("prism:cache:dashboardCharts:generation")).thenReturn("0");
+        // 매 연산마다 generation을 다시 읽도록 주기 0
+        TwoLevelCacheManager redisBacked =
+            new TwoLevelCacheManager(redisTemplate, meterRegistry, 10, Duration.ofMinutes(1), 60_000, 0);
+        Cache cache = redisBacked.getCache("dashboardCharts");
+        cache.put("activity:DAY:7d", "stale");
+        assertEquals("stale", cache.get("activity:DAY:7d", String.class));
+
+        // 다른 replica가 clear() 했지만 CLEAR 메시지는 오지 않았다
+        when(valueOperations.get("prism:cache:dashboardCharts:generation")).thenReturn("1");
+
+        assertNull(cache.get("activity:DAY:7d"));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,66 @@
+package com.prism.service.dispatch;
+
+import com.prism.domain.Agent;
+import com.prism.domain.Task;
+import com.prism.dto.AgentDispatchStats;
+import com.prism.service.presence.AgentPresenceRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AgentDispatchQueueTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private AgentPresenceRegistry agentPresenceRegistry;
+    @Mock
+    private AssignmentWatchService assignmentWatchService;
+
+    private AgentDispatchQueue dispatchQueue;
+
+    @BeforeEach
+    void setUp() {
+        dispatchQueue = new AgentDispatchQueue(redisTemplate, agentPresenceRegistry, assignmentWatchService, 500);
+    }
+
+    @Test
+    void dispatch_ShouldAppendToAgentStreamWithCap() {
+        Task task = Task.builder().id("task-1").title("Fix login").build();
+        Agent agent = Agent.builder().id("agent-1").build();
+
+        dispatchQueue.dispatch(task, agent);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("prism:dispatch:agent-1")),
+            eq(AgentDispatchQueue.GROUP), eq("500"), eq("task-1"), eq("Fix login"), anyString());
+        verify(assignmentWatchService).notifyDispatched("agent-1");
+    }
+
+    @Test
+    void stats_ShouldParseScriptResult() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("prism:dispatch:agent-1")),
+            eq(AgentDispatchQueue.GROUP))).thenReturn(List.of(12L, 2L, -1L, 3500L));
+
+        AgentDispatchStats stats = dispatchQueue.stats("agent-1");
+
+        assertEquals(12L, stats.getStreamLength());
+        assertEquals(2L, stats.getPending());
+        assertNull(stats.getLag()); // -1: Redis가 lag를 계산할 수 없음
+        assertEquals(3500L, stats.getOldestPendingIdleMs());
+    }
+}
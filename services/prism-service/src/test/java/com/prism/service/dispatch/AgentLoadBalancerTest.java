@@ -0,0 +1,89 @@
+package com.prism.service.dispatch;
+
+import com.prism.domain.Agent;
+import com.prism.domain.enums.AgentCapability;
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.presence.AgentPresenceRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AgentLoadBalancerTest {
+
+    @Mock
+    private AgentRepository agentRepository;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private AgentPresenceRegistry agentPresenceRegistry;
+
+    private AgentLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        when(agentRepository.findAll()).thenReturn(List.of(
+            Agent.builder().id("busy").role("BACKEND").build(),
+            Agent.builder().id("idle").role("BACKEND").build(),
+            Agent.builder().id("no-tests").role("BACKEND").canRunTests(false).build(),
+            Agent.builder().id("frontend").role("FRONTEND").build()
+        ));
+        when(taskRepository.countOpenTasksByAgent()).thenReturn(List.of(
+            new Object[]{"busy", "IN_PROGRESS", 3L},
+            new Object[]{"idle", "TODO", 1L}
+        ));
+        when(agentPresenceRegistry.isOnline(anyString())).thenReturn(true);
+
+        loadBalancer = new AgentLoadBalancer(agentRepository, taskRepository, agentPresenceRegistry);
+        loadBalancer.reconcile();
+    }
+
+    @Test
+    void assign_ShouldPickLeastLoadedAgentWithCapabilities() {
+        Set<AgentCapability> required = Set.of(AgentCapability.WRITE_CODE, AgentCapability.RUN_TESTS);
+
+        assertEquals("idle", loadBalancer.assign("BACKEND", required).orElseThrow().getId());
+        // idle: 2, busy: 3 -> 다시 idle
+        assertEquals("idle", loadBalancer.assign("BACKEND", required).orElseThrow().getId());
+        // idle: 3, busy: 3 -> 더 오래전에 배정받은 busy
+        assertEquals("busy", loadBalancer.assign("BACKEND", required).orElseThrow().getId());
+    }
+
+    @Test
+    void assign_ShouldPreferOnlineAgents() {
+        when(agentPresenceRegistry.isOnline("idle")).thenReturn(false);
+        when(agentPresenceRegistry.isOnline("no-tests")).thenReturn(false);
+
+        assertEquals("busy", loadBalancer.assign("BACKEND", Set.of(AgentCapability.WRITE_CODE)).orElseThrow().getId());
+    }
+
+    @Test
+    void assign_ShouldReturnEmptyWhenNoAgentHasCapabilities() {
+        assertTrue(loadBalancer.assign("FRONTEND", Set.of(AgentCapability.DEPLOY)).isEmpty());
+    }
+
+    @Test
+    void statusChanged_ShouldMoveLoadBetweenCounters() {
+        loadBalancer.statusChanged("idle", "TODO", "IN_PROGRESS");
+        loadBalancer.statusChanged("busy", "IN_PROGRESS", "DONE");
+
+        AgentLoadBalancer.AgentLoad idle = loadBalancer.load("idle").orElseThrow();
+        assertEquals(0, idle.getQueued().get());
+        assertEquals(1, idle.getRunning().get());
+        assertEquals(2, loadBalancer.load("busy").orElseThrow().getRunning().get());
+    }
+}
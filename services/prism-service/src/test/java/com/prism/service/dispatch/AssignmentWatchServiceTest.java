@@ -0,0 +1,153 @@
+package com.prism.service.dispatch;
+
+import com.prism.domain.Agent;
+import com.prism.domain.Task;
+import com.prism.grpc.Assignment;
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskRepository;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AssignmentWatchServiceTest {
+
+    private static final String KEY = "prism:dispatch:agent-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private AgentRepository agentRepository;
+    @Mock
+    private ServerCallStreamObserver<Assignment> observer;
+
+    private AssignmentWatchService service;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+        when(agentRepository.findById("agent-1")).thenReturn(Optional.of(Agent.builder()
+            .id("agent-1").role("BACKEND").modelName("gpt-4o").build()));
+        when(observer.isReady()).thenReturn(true);
+        // 테스트에서는 notifyDispatched로만 읽게 주기를 길게 둔다
+        service = new AssignmentWatchService(redisTemplate, taskRepository, agentRepository, 60_000, 100);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void watch_ShouldSendOpenTasksSnapshotThenNewDispatches() {
+        when(streamOperations.reverseRange(eq(KEY), any(), any(Limit.class))).thenReturn(List.of(record("5-0", "task-0")));
+        when(taskRepository.findByFilters("TODO", null, "agent-1")).thenReturn(List.of(Task.builder()
+            .id("task-1").title("Open task").projectPath("/work/a").autoCommit(true).build()));
+        when(streamOperations.range(eq(KEY), argThat(after("5-0")), any(Limit.class)))
+            .thenReturn(List.of(record("6-0", "task-2")));
+        when(taskRepository.findAllById(any())).thenReturn(List.of(Task.builder().id("task-2").title("New task").build()));
+
+        service.watch("agent-1", "", observer);
+
+        ArgumentCaptor<Assignment> sent = ArgumentCaptor.forClass(Assignment.class);
+        verify(observer, timeout(2000).times(2)).onNext(sent.capture());
+        Assignment snapshot = sent.getAllValues().get(0);
+        assertTrue(snapshot.getSnapshot());
+        assertEquals("task-1", snapshot.getTaskId());
+        assertEquals("5-0", snapshot.getSequence());
+        assertEquals("/work/a", snapshot.getProjectPath());
+        assertTrue(snapshot.getAutoCommit());
+        assertEquals("gpt-4o", snapshot.getAgent().getModelName());
+        Assignment dispatched = sent.getAllValues().get(1);
+        assertFalse(dispatched.getSnapshot());
+        assertEquals("task-2", dispatched.getTaskId());
+        assertEquals("6-0", dispatched.getSequence());
+    }
+
+    @Test
+    void watch_ShouldResumeAfterLastReceivedSequence() {
+        when(streamOperations.range(eq(KEY), argThat(fromStart()), any(Limit.class)))
+            .thenReturn(List.of(record("3-0", "task-0")));
+        when(streamOperations.range(eq(KEY), argThat(after("6-0")), any(Limit.class)))
+            .thenReturn(List.of(record("7-0", "task-3")));
+        when(taskRepository.findAllById(any())).thenReturn(List.of(Task.builder().id("task-3").build()));
+
+        service.watch("agent-1", "6-0", observer);
+
+        ArgumentCaptor<Assignment> sent = ArgumentCaptor.forClass(Assignment.class);
+        verify(observer, timeout(2000)).onNext(sent.capture());
+        assertEquals("7-0", sent.getValue().getSequence());
+        verify(taskRepository, never()).findByFilters(anyString(), any(), anyString());
+    }
+
+    @Test
+    void watch_ShouldFallBackToSnapshotWhenResumePointWasTrimmed() {
+        when(streamOperations.range(eq(KEY), argThat(fromStart()), any(Limit.class)))
+            .thenReturn(List.of(record("10-0", "task-9")));
+        when(streamOperations.reverseRange(eq(KEY), any(), any(Limit.class))).thenReturn(List.of(record("12-0", "task-9")));
+        when(taskRepository.findByFilters("TODO", null, "agent-1")).thenReturn(List.of(Task.builder().id("task-9").build()));
+
+        service.watch("agent-1", "6-0", observer);
+
+        verify(taskRepository, timeout(2000)).findByFilters("TODO", null, "agent-1");
+        verify(observer, timeout(2000).times(1)).onNext(any(Assignment.class));
+    }
+
+    @Test
+    void compareIds_ShouldOrderByTimeThenSequence() {
+        assertTrue(AssignmentWatchService.compareIds("5-1", "5-0") > 0);
+        assertTrue(AssignmentWatchService.compareIds("5-9", "10-0") < 0);
+        assertEquals(0, AssignmentWatchService.compareIds("7-0", "7-0"));
+    }
+
+    private static ArgumentMatcher<Range<String>> after(String id) {
+        return range -> range != null && range.getLowerBound().getValue().map(id::equals).orElse(false)
+            && !range.getLowerBound().isInclusive();
+    }
+
+    private static ArgumentMatcher<Range<String>> fromStart() {
+        return range -> range != null && !range.getLowerBound().isBounded();
+    }
+
+    private static MapRecord<String, Object, Object> record(String id, String taskId) {
+        Map<Object, Object> body = Map.of("taskId", taskId, "title", "t", "dispatchedAt", "2025-01-01T10:00");
+        return StreamRecords.newRecord().in(KEY).withId(RecordId.of(id)).ofMap(body);
+    }
+}
@@ -0,0 +1,193 @@
+package com.prism.service.document;
+
+import com.prism.domain.DocumentPublishJob;
+import com.prism.domain.enums.PublishJobStatus;
+import com.prism.dto.PublishJobResponse;
+import com.prism.repository.DocumentPublishJobRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.integration.NotionClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DocumentPublishServiceTest {
+
+    private static final String TASK_ID = "task-1";
+
+    @Mock
+    private DocumentPublishJobRepository jobRepository;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private DocumentService documentService;
+    @Mock
+    private NotionClient notionClient;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, DocumentPublishJob> jobs = new ConcurrentHashMap<>();
+    private DocumentPublishService documentPublishService;
+
+    @BeforeEach
+    void setUp() {
+        // 재시도 backoff 1ms, 최대 3회
+        documentPublishService = new DocumentPublishService(jobRepository, taskRepository, documentService,
+            notionClient, transactionManager, 2, 1, 3, 1, 5, 60_000);
+        documentPublishService.start();
+
+        when(taskRepository.existsById(TASK_ID)).thenReturn(true);
+        when(jobRepository.findByActiveKey(anyString())).thenAnswer(invocation -> jobs.values().stream()
+            .filter(job -> invocation.getArgument(0).equals(job.getActiveKey())).findFirst());
+        when(jobRepository.saveAndFlush(any(DocumentPublishJob.class))).thenAnswer(invocation -> {
+            DocumentPublishJob job = invocation.getArgument(0);
+            job.setId("job-" + (jobs.size() + 1));
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        // 조건부 UPDATE를 흉내 낸다 (실제 쿼리는 DocumentPublishJobRepositoryTest)
+        when(jobRepository.claim(anyString(), anyString(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            DocumentPublishJob job = jobs.get(invocation.<String>getArgument(0));
+            LocalDateTime now = invocation.getArgument(3);
+            synchronized (job) {
+                boolean due = job.getStatus() == PublishJobStatus.QUEUED
+                    && (job.getNextAttemptAt() == null || !job.getNextAttemptAt().isAfter(now));
+                boolean expired = job.getStatus() == PublishJobStatus.RUNNING && job.getLeaseUntil().isBefore(now);
+                if (!due && !expired) {
+                    return 0;
+                }
+                job.setStatus(PublishJobStatus.RUNNING);
+                job.setClaimToken(invocation.getArgument(1));
+                job.setLeaseUntil(invocation.getArgument(2));
+                job.setAttempts(job.getAttempts() + 1);
+                job.setNextAttemptAt(null);
+                return 1;
+            }
+        });
+        when(jobRepository.release(anyString(), anyString(), any(), any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            DocumentPublishJob job = jobs.get(invocation.<String>getArgument(0));
+            synchronized (job) {
+                if (!invocation.getArgument(1).equals(job.getClaimToken())) {
+                    return 0;
+                }
+                job.setStatus(invocation.getArgument(2));
+                job.setPageId(invocation.getArgument(3));
+                job.setLastError(invocation.getArgument(4));
+                job.setNextAttemptAt(invocation.getArgument(5));
+                job.setActiveKey(invocation.getArgument(6));
+                job.setClaimToken(null);
+                job.setLeaseUntil(null);
+                return 1;
+            }
+        });
+        when(documentService.renderForPublish(TASK_ID)).thenReturn(new DocumentService.RenderedDocument("Task: T", "# T"));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        documentPublishService.shutdown();
+    }
+
+    @Test
+    void requestNotionPublish_ShouldRetryAndWriteBackPageId() throws InterruptedException {
+        when(notionClient.createPage("Task: T", "# T"))
+            .thenThrow(new RuntimeException("502 Bad Gateway"))
+            .thenReturn("page-1");
+
+        PublishJobResponse accepted = documentPublishService.requestNotionPublish(TASK_ID);
+        assertEquals(PublishJobStatus.QUEUED, accepted.getStatus());
+
+        verify(taskRepository, timeout(2000)).updateNotionPageId(eq(TASK_ID), eq("page-1"), any());
+        DocumentPublishJob job = awaitFinished(accepted.getJobId());
+        assertEquals(PublishJobStatus.SUCCEEDED, job.getStatus());
+        assertEquals(2, job.getAttempts());
+        assertEquals("page-1", job.getPageId());
+    }
+
+    @Test
+    void requestNotionPublish_ShouldFailAfterMaxAttempts() throws InterruptedException {
+        when(notionClient.createPage(anyString(), anyString())).thenThrow(new RuntimeException("rate limited"));
+
+        PublishJobResponse accepted = documentPublishService.requestNotionPublish(TASK_ID);
+
+        DocumentPublishJob job = awaitFinished(accepted.getJobId());
+        assertEquals(PublishJobStatus.FAILED, job.getStatus());
+        assertEquals(3, job.getAttempts());
+        assertEquals("rate limited", job.getLastError());
+        verify(taskRepository, never()).updateNotionPageId(anyString(), anyString(), any());
+    }
+
+    @Test
+    void requestNotionPublish_ShouldReuseActiveJob() {
+        when(notionClient.createPage(anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return "page-1";
+        });
+
+        PublishJobResponse first = documentPublishService.requestNotionPublish(TASK_ID);
+        PublishJobResponse second = documentPublishService.requestNotionPublish(TASK_ID);
+
+        assertEquals(first.getJobId(), second.getJobId());
+        assertEquals(1, jobs.size());
+    }
+
+    @Test
+    void resumedJob_ShouldNotRunWhileAnotherInstanceHoldsTheLease() {
+        // 다른 인스턴스가 실행 중인 Job (lease 유효)
+        jobs.put("job-1", DocumentPublishJob.builder()
+            .id("job-1").taskId(TASK_ID).destination(DocumentPublishService.NOTION)
+            .status(PublishJobStatus.RUNNING).attempts(1)
+            .activeKey(DocumentPublishJob.activeKey(TASK_ID, DocumentPublishService.NOTION))
+            .claimToken("other-instance").leaseUntil(LocalDateTime.now().plusMinutes(5))
+            .build());
+        when(jobRepository.findByStatusIn(any())).thenReturn(List.of(jobs.get("job-1")));
+
+        documentPublishService.resumeUnfinishedJobs();
+
+        verify(jobRepository, timeout(2000)).claim(eq("job-1"), anyString(), any(), any(), any(), any());
+        verify(notionClient, never()).createPage(anyString(), anyString());
+        assertEquals("other-instance", jobs.get("job-1").getClaimToken());
+        verify(jobRepository, never()).release(anyString(), anyString(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void requestNotionPublish_ShouldRejectUnknownTask() {
+        assertThrows(IllegalArgumentException.class, () -> documentPublishService.requestNotionPublish("missing"));
+    }
+
+    private DocumentPublishJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            DocumentPublishJob job = jobs.get(jobId);
+            if (job != null && job.getStatus().isFinished()) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " did not finish");
+    }
+}
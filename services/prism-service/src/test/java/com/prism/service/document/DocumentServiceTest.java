@@ -6,22 +6,27 @@ import com.prism.domain.Agent;
 import com.prism.domain.Project;
 import com.prism.repository.ActivityLogRepository;
 import com.prism.repository.TaskRepository;
-import com.prism.service.integration.NotionClient;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.contains;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,14 +37,16 @@ class DocumentServiceTest {
     private TaskRepository taskRepository;
     @Mock
     private ActivityLogRepository activityLogRepository;
-    @Mock
-    private NotionClient notionClient;
 
-    @InjectMocks
     private DocumentService documentService;
 
+    @BeforeEach
+    void setUp() {
+        documentService = new DocumentService(taskRepository, activityLogRepository, 1 << 20, 1 << 16);
+    }
+
     @Test
-    void publishTaskToNotion_ShouldGenerateMarkdown() {
+    void renderForPublish_ShouldGenerateMarkdown() {
         // Arrange
         String taskId = "task-123";
         Task task = Task.builder()
@@ -61,15 +68,86 @@ class DocumentServiceTest {
             .details(Map.of("info", "created"))
             .build();
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(activityLogRepository.findByTaskId(taskId)).thenReturn(List.of(log));
-        when(notionClient.createPage(anyString(), anyString())).thenReturn("page-id-123");
+        when(taskRepository.findWithAssociationsById(taskId)).thenReturn(Optional.of(task));
+        when(activityLogRepository.streamByTaskIdOrderByTimestampDescIdDesc(taskId)).thenReturn(Stream.of(log));
 
         // Act
-        documentService.publishTaskToNotion(taskId);
+        DocumentService.RenderedDocument document = documentService.renderForPublish(taskId);
 
         // Assert
-        verify(notionClient).createPage(eq("Task: Test Task"), contains("## Git Integration"));
-        verify(notionClient).createPage(eq("Task: Test Task"), contains("- **Branch:** `feat/test-task`"));
+        assertEquals("Task: Test Task", document.title());
+        assertTrue(document.markdown().contains("## Git Integration"));
+        assertTrue(document.markdown().contains("- **Branch:** `feat/test-task`"));
+        assertTrue(document.markdown().contains("TASK_CREATED"));
+    }
+
+    @Test
+    void exportMarkdown_ShouldReuseRenderingUntilTimelineChanges() throws IOException {
+        String taskId = "task-123";
+        Task task = Task.builder().id(taskId).title("Cached Task").version(1L).lastActivityId("a1").build();
+        ActivityLog first = ActivityLog.builder().id("a1").taskId(taskId).action("TASK_CREATED")
+            .timestamp(LocalDateTime.now()).details(Map.of("info", "created")).build();
+        ActivityLog second = ActivityLog.builder().id("a2").taskId(taskId).action("TASK_STATUS_UPDATE")
+            .timestamp(LocalDateTime.now()).build();
+
+        when(taskRepository.findWithAssociationsById(taskId)).thenReturn(Optional.of(task));
+        when(activityLogRepository.streamByTaskIdOrderByTimestampDescIdDesc(taskId)).thenReturn(Stream.of(first));
+        when(activityLogRepository.existsById("a1")).thenReturn(true);
+
+        DocumentService.MarkdownExport export = documentService.exportMarkdown(taskId);
+        String rendered = write(export);
+        DocumentService.MarkdownExport repeat = documentService.exportMarkdown(taskId);
+
+        assertEquals(export.version(), repeat.version());
+        assertEquals(64, export.version().length());
+        assertEquals(rendered, write(repeat));
+        assertTrue(rendered.contains("TASK_CREATED `{info=created}`"));
+        verify(activityLogRepository, times(1)).streamByTaskIdOrderByTimestampDescIdDesc(taskId);
+
+        // 새 이벤트가 기록되면 Task의 version/lastActivityId가 바뀌고 다시 렌더링한다
+        task.setVersion(2L);
+        task.setLastActivityId("a2");
+        when(activityLogRepository.streamByTaskIdOrderByTimestampDescIdDesc(taskId)).thenReturn(Stream.of(second, first));
+        when(activityLogRepository.existsById("a2")).thenReturn(true);
+
+        DocumentService.MarkdownExport updated = documentService.exportMarkdown(taskId);
+
+        assertNotEquals(export.version(), updated.version());
+        assertTrue(write(updated).contains("TASK_STATUS_UPDATE"));
+        verify(activityLogRepository, times(2)).streamByTaskIdOrderByTimestampDescIdDesc(taskId);
+    }
+
+    @Test
+    void exportMarkdown_ShouldNotTagOrCacheTimelineMissingTheLastRecordedEvent() throws IOException {
+        String taskId = "task-123";
+        Task task = Task.builder().id(taskId).title("Cached Task").version(2L).lastActivityId("a2").build();
+        ActivityLog first = ActivityLog.builder().id("a1").taskId(taskId).action("TASK_CREATED")
+            .timestamp(LocalDateTime.now()).build();
+        ActivityLog second = ActivityLog.builder().id("a2").taskId(taskId).action("TASK_STATUS_UPDATE")
+            .timestamp(LocalDateTime.now()).build();
+
+        when(taskRepository.findWithAssociationsById(taskId)).thenReturn(Optional.of(task));
+        // a2는 아직 Mongo에 쓰이지 않았다
+        when(activityLogRepository.existsById("a2")).thenReturn(false, true);
+        when(activityLogRepository.streamByTaskIdOrderByTimestampDescIdDesc(taskId))
+            .thenReturn(Stream.of(first), Stream.of(second, first));
+
+        DocumentService.MarkdownExport staleExport = documentService.exportMarkdown(taskId);
+        String stale = write(staleExport);
+        DocumentService.MarkdownExport completeExport = documentService.exportMarkdown(taskId);
+        String complete = write(completeExport);
+
+        // 빠진 본문에는 ETag용 version을 주지 않는다
+        assertNull(staleExport.version());
+        assertFalse(stale.contains("TASK_STATUS_UPDATE"));
+        assertNotNull(completeExport.version());
+        assertTrue(complete.contains("TASK_STATUS_UPDATE"));
+        verify(activityLogRepository, times(2)).streamByTaskIdOrderByTimestampDescIdDesc(taskId);
+    }
+
+    private static String write(DocumentService.MarkdownExport export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.body().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
     }
 }
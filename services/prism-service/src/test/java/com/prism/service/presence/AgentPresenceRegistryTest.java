@@ -0,0 +1,73 @@
+package com.prism.service.presence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AgentPresenceRegistryTest {
+
+    private static final long TTL_MS = 30_000;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private AgentPresenceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AgentPresenceRegistry(redisTemplate, TTL_MS);
+    }
+
+    @Test
+    void touch_ShouldMarkOnlineAndMirrorToRedis() {
+        Instant now = Instant.now();
+
+        registry.touch("agent-1", "0.1.0", "ONLINE", now);
+
+        assertTrue(registry.isOnline("agent-1"));
+        assertEquals(1, registry.onlineCount());
+        assertEquals("0.1.0", registry.get("agent-1").orElseThrow().version());
+        verify(redisTemplate).execute(any(RedisScript.class),
+            eq(List.of(AgentPresenceRegistry.agentKey("agent-1"), AgentPresenceRegistry.ONLINE_KEY)),
+            eq(String.valueOf(TTL_MS)), eq(String.valueOf(now.toEpochMilli() + TTL_MS)),
+            eq("0.1.0"), eq("ONLINE"), eq(now.toString()), eq("agent-1"));
+    }
+
+    @Test
+    void sweep_ShouldExpireSilentAgentsAndImportOtherReplicas() {
+        Instant now = Instant.now();
+        registry.touch("agent-1", "0.1.0", "IDLE", now);
+        long later = now.toEpochMilli() + TTL_MS + 1;
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.rangeByScoreWithScores(eq(AgentPresenceRegistry.ONLINE_KEY), anyDouble(), anyDouble()))
+            .thenReturn(Set.of(new DefaultTypedTuple<>("agent-2", (double) (later + TTL_MS))));
+
+        registry.sweep(later);
+
+        assertFalse(registry.isOnline("agent-1"));
+        assertTrue(registry.get("agent-1").isEmpty());
+        assertEquals(Set.of("agent-2"), registry.onlineAgentIds());
+    }
+}
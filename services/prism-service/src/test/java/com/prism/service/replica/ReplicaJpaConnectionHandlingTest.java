@@ -0,0 +1,157 @@
+package com.prism.service.replica;
+
+import com.prism.config.ReadReplicaConfig;
+import com.prism.domain.ReplicationHeartbeat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JPA 경로의 라우팅을 확인한다: 요청 동안 EntityManager 하나가 스레드에 묶여 있을 때(open-in-view) 트랜잭션마다
+ * 다시 라우팅되는지, 요청 밖 스레드의 repository 조회(암묵적 readOnly 트랜잭션)가 primary로 가는지.
+ * ReadReplicaConfig의 Hibernate 설정을 그대로 적용한 EntityManagerFactory를 내장 H2 두 개(primary/replica)에 붙인다.
+ */
+class ReplicaJpaConnectionHandlingTest {
+
+    interface HeartbeatRepository extends JpaRepository<ReplicationHeartbeat, Integer> {
+    }
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaLagMonitor lagMonitor;
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private HeartbeatRepository heartbeats;
+
+    @BeforeEach
+    void setUp() {
+        primary = database();
+        replica = database();
+        // replica에만 있는 행으로 읽기가 replica로 갔는지 구분한다
+        new JdbcTemplate(replica).update("INSERT INTO replication_heartbeat (id, beat_ms) VALUES (100, 0)");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ReplicaLagMonitor(primary, List.of(new ReplicaLagMonitor.Replica("replica-0", replica)),
+            meterRegistry, 2000, 60_000);
+
+        LazyConnectionDataSourceProxy dataSource =
+            new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, lagMonitor, meterRegistry));
+        dataSource.setDefaultAutoCommit(true);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+        new ReadReplicaConfig(10, 30_000).releaseConnectionsAfterTransaction().customize(properties);
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of(ReplicationHeartbeat.class.getName()));
+        factoryBean.setJpaPropertyMap(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        // SimpleJpaRepository의 @Transactional(readOnly = true)을 앱과 같이 적용한다
+        JpaRepositoryFactory repositoryFactory =
+            new JpaRepositoryFactory(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+            new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource())));
+        heartbeats = repositoryFactory.getRepository(HeartbeatRepository.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        if (entityManager != null) {
+            entityManager.close();
+        }
+        factoryBean.destroy();
+        ReadYourWrites.end();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void requestScopedEntityManager_ShouldWriteToPrimaryAfterReadingFromReplica() {
+        replicate();
+        // ReadYourWritesFilter와 OpenEntityManagerInViewInterceptor처럼 요청 동안 쓸 세션과 EntityManager를 묶어 둔다
+        ReadYourWrites.begin(false, () -> { });
+        entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+
+        // DocumentPublishService.requestNotionPublish처럼 읽기 전용 조회 뒤에 저장한다
+        assertEquals(2L, readOnly.execute(status -> entityManager
+            .createQuery("SELECT COUNT(h) FROM ReplicationHeartbeat h", Long.class)
+            .getSingleResult()));
+        readWrite.executeWithoutResult(status -> entityManager.persist(new ReplicationHeartbeat(2, 0)));
+
+        assertEquals(1, count(primary));
+        assertEquals(0, count(replica));
+    }
+
+    @Test
+    void repositoryRead_ShouldUsePrimaryOutsideRequest() {
+        replicate();
+
+        // gRPC/스케줄러 스레드가 방금 쓴 행을 finder(암묵적 readOnly 트랜잭션)로 다시 읽는다
+        heartbeats.save(new ReplicationHeartbeat(2, 0));
+
+        assertTrue(heartbeats.existsById(2));
+        assertEquals(0, count(replica));
+    }
+
+    private void replicate() {
+        new JdbcTemplate(replica).update("INSERT INTO replication_heartbeat (id, beat_ms) VALUES (1, ?)",
+            System.currentTimeMillis());
+        lagMonitor.check();
+    }
+
+    private static int count(EmbeddedDatabase database) {
+        return new JdbcTemplate(database)
+            .queryForObject("SELECT COUNT(*) FROM replication_heartbeat WHERE id = 2", Integer.class);
+    }
+
+    private static EmbeddedDatabase database() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_ms BIGINT NOT NULL)");
+        return database;
+    }
+}
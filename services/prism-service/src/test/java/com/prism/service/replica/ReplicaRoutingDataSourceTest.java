@@ -0,0 +1,150 @@
+package com.prism.service.replica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 내장 H2 두 개(primary/replica)로 라우팅을 확인한다. 복제는 heartbeat 값을 replica에 직접 써서 흉내 낸다.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaLagMonitor lagMonitor;
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        meterRegistry = new SimpleMeterRegistry();
+        // 테스트에서는 check()를 직접 부르므로 측정값이 오래되지 않게 주기를 길게 둔다
+        lagMonitor = new ReplicaLagMonitor(primary, List.of(new ReplicaLagMonitor.Replica("replica-0", replica)),
+            meterRegistry, 2000, 60_000);
+
+        LazyConnectionDataSourceProxy dataSource =
+            new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, lagMonitor, meterRegistry));
+        dataSource.setDefaultAutoCommit(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.end();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplicaWhenCaughtUp() {
+        replicate(0);
+        ReadYourWrites.begin(false, () -> { });
+
+        assertEquals("replica", readNode(readOnly));
+        assertEquals(1, meterRegistry.get("prism.datasource.reads").tag("target", "replica").counter().count());
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        replicate(0);
+
+        assertEquals("primary", readNode(readWrite));
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldFallBackToPrimaryWhenReplicaLags() {
+        replicate(60_000);
+        ReadYourWrites.begin(false, () -> { });
+
+        assertEquals("primary", readNode(readOnly));
+        assertEquals(1, meterRegistry.get("prism.datasource.reads").tag("reason", "lagging").counter().count());
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldFallBackToPrimaryWhenReplicaHasNoHeartbeat() {
+        lagMonitor.check();
+        ReadYourWrites.begin(false, () -> { });
+
+        assertEquals("primary", readNode(readOnly));
+        assertEquals(1, meterRegistry.get("prism.datasource.reads").tag("reason", "lagging").counter().count());
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUsePrimaryOutsideRequest() {
+        replicate(0);
+
+        // gRPC/스케줄러 스레드처럼 begin 하지 않은 스레드
+        assertEquals("primary", readNode(readOnly));
+        assertEquals(1, meterRegistry.get("prism.datasource.reads").tag("reason", "no-session").counter().count());
+    }
+
+    @Test
+    void readYourWrites_ShouldReadFromPrimaryAfterWriteInSameSession() {
+        replicate(0);
+        AtomicInteger firstWrites = new AtomicInteger();
+        ReadYourWrites.begin(false, firstWrites::incrementAndGet);
+
+        assertEquals("replica", readNode(readOnly));
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO marker (node) VALUES ('written')"));
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO marker (node) VALUES ('written')"));
+        assertEquals("primary", readNode(readOnly));
+        assertEquals(1, firstWrites.get());
+
+        ReadYourWrites.end();
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    @Test
+    void readYourWrites_ShouldReadFromPrimaryWhenSessionStartsSticky() {
+        replicate(0);
+        ReadYourWrites.begin(true, () -> { });
+
+        assertEquals("primary", readNode(readOnly));
+        assertEquals(1, meterRegistry.get("prism.datasource.reads").tag("reason", "read-your-writes").counter().count());
+    }
+
+    // primary의 heartbeat를 lagMs만큼 늦게 replica에 복제한 것처럼 만든 뒤 지연을 측정한다
+    private void replicate(long lagMs) {
+        new JdbcTemplate(replica).update("INSERT INTO replication_heartbeat (id, beat_ms) VALUES (1, ?)",
+            System.currentTimeMillis() - lagMs);
+        lagMonitor.check();
+    }
+
+    private String readNode(TransactionTemplate template) {
+        return template.execute(status ->
+            jdbcTemplate.queryForObject("SELECT node FROM marker ORDER BY id LIMIT 1", String.class));
+    }
+
+    private static EmbeddedDatabase database(String node) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_ms BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE marker (id BIGINT AUTO_INCREMENT PRIMARY KEY, node VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO marker (node) VALUES (?)", node);
+        return database;
+    }
+}
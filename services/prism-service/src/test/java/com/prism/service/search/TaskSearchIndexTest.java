@@ -0,0 +1,124 @@
+package com.prism.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class TaskSearchIndexTest {
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskSearchIndex(mock(JdbcTemplate.class), false, 5000, 2000, 60_000);
+        index.index(doc("task-1", "Fix login timeout", "Session expires too early on login page", "prism-web", null));
+        index.index(doc("task-2", "Add metrics", "Expose login counters to the dashboard", "prism-service", null));
+        index.index(doc("task-3", "Refactor dashboard", "Split chart widgets", "prism-web", "feature/charts"));
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveDescriptionMatches() {
+        TaskSearchIndex.SearchResult result = index.search("login", 0, 10);
+
+        assertEquals(2, result.total());
+        assertEquals(List.of("task-1", "task-2"), ids(result));
+        assertTrue(result.hits().get(0).score() > result.hits().get(1).score());
+    }
+
+    @Test
+    void search_ShouldRequireAllTerms() {
+        assertEquals(List.of("task-1"), ids(index.search("LOGIN web", 0, 10)));
+        assertEquals(0, index.search("login unknownterm", 0, 10).total());
+        assertEquals(0, index.search("  - ", 0, 10).total());
+    }
+
+    @Test
+    void search_ShouldPaginateWithStableTotal() {
+        TaskSearchIndex.SearchResult first = index.search("prism", 0, 2);
+        TaskSearchIndex.SearchResult second = index.search("prism", 2, 2);
+
+        assertEquals(3, first.total());
+        assertEquals(2, first.hits().size());
+        assertEquals(1, second.hits().size());
+        assertTrue(!ids(first).contains(second.hits().get(0).taskId()));
+    }
+
+    @Test
+    void updateGitBranch_ShouldReplaceOnlyBranchTerms() {
+        index.updateGitBranch("task-3", "bugfix/widgets", 1);
+
+        assertEquals(0, index.search("charts", 0, 10).total());
+        assertEquals(List.of("task-3"), ids(index.search("bugfix widgets", 0, 10)));
+        assertEquals(List.of("task-3"), ids(index.search("refactor", 0, 10)));
+    }
+
+    @Test
+    void index_ShouldIgnoreOlderVersions() {
+        index.updateGitBranch("task-3", "bugfix/widgets", 2);
+        index.index(new TaskSearchIndex.TaskDocument("task-3", "Stale title", null, null, null, 1));
+        index.updateGitBranch("task-3", "old/branch", 1);
+
+        assertEquals(0, index.search("stale", 0, 10).total());
+        assertEquals(0, index.search("old", 0, 10).total());
+        assertEquals(List.of("task-3"), ids(index.search("bugfix", 0, 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void catchUp_ShouldIndexTasksChangedByOtherInstances() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .build();
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+            jdbcTemplate.execute("CREATE TABLE tasks (id VARCHAR(36) PRIMARY KEY, title VARCHAR(255), " +
+                "description TEXT, target_repo VARCHAR(255), git_branch VARCHAR(255), version BIGINT, " +
+                "updated_at TIMESTAMP)");
+            TaskSearchIndex catchingUp = new TaskSearchIndex(jdbcTemplate, false, 1, 2000, 60_000);
+            LocalDateTime now = LocalDateTime.now();
+            // 다른 replica가 만든 Task 두 개 (페이지 크기 1로 keyset 이어 읽기도 확인한다)
+            jdbcTemplate.update("INSERT INTO tasks VALUES ('task-a', 'Fix login', null, 'prism-web', null, 0, ?)", now);
+            jdbcTemplate.update("INSERT INTO tasks VALUES ('task-b', 'Add login audit', null, 'prism-web', null, 0, ?)",
+                now);
+
+            assertEquals(2, catchingUp.catchUp(now.minusSeconds(1)));
+            assertEquals(2, catchingUp.search("login", 0, 10).total());
+
+            // 다른 replica의 write-behind가 branch를 바꿨다
+            jdbcTemplate.update("UPDATE tasks SET git_branch = 'feature/sso', version = 1, updated_at = ? " +
+                "WHERE id = 'task-a'", now.plusSeconds(1));
+            catchingUp.catchUp(now.minusSeconds(1));
+
+            assertEquals(List.of("task-a"), ids(catchingUp.search("sso", 0, 10)));
+            assertEquals(2, catchingUp.size());
+        } finally {
+            database.shutdown();
+        }
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseAndDropSingleAsciiCharacters() {
+        assertEquals(List.of("fix", "api", "v2", "로그인"),
+            TaskSearchIndex.tokenize("Fix a API-v2 로그인!", Integer.MAX_VALUE));
+    }
+
+    private static TaskSearchIndex.TaskDocument doc(String id, String title, String description, String repo,
+                                                    String branch) {
+        return new TaskSearchIndex.TaskDocument(id, title, description, repo, branch, 0);
+    }
+
+    private static List<String> ids(TaskSearchIndex.SearchResult result) {
+        return result.hits().stream().map(TaskSearchIndex.Hit::taskId).toList();
+    }
+}
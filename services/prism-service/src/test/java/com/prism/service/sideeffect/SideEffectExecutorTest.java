@@ -0,0 +1,114 @@
+package com.prism.service.sideeffect;
+
+import com.prism.service.sideeffect.SideEffectExecutor.Sink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SideEffectExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SideEffectExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new SideEffectExecutor(meterRegistry, 4, 100, 5000, 5000, 100);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void afterCommit_ShouldRunSinksConcurrentlyAndIsolateFailures() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        executor.afterCommit(Sink.REDIS, () -> {
+            throw new IllegalStateException("redis down");
+        });
+        executor.afterCommit(Sink.MONGO, () -> await(bothStarted));
+        executor.afterCommit(Sink.WEBSOCKET, () -> {
+            await(bothStarted);
+            done.countDown();
+        });
+        commit();
+
+        // 서로를 기다리는 두 작업이 모두 끝나려면 동시에 실행되어야 한다
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("prism.side-effects", "sink", "redis", "outcome", "failed").count());
+    }
+
+    @Test
+    void afterCommit_ShouldNotRunOnRollback() throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean();
+
+        TransactionSynchronizationManager.initSynchronization();
+        executor.afterCommit(Sink.MONGO, () -> ran.set(true));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        Thread.sleep(100);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void afterCommit_ShouldInterruptSideEffectAfterTimeout() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        executor.afterCommit(Sink.WEBSOCKET, () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        // 지표는 watchdog 스레드가 취소 직후 올린다
+        long deadline = System.currentTimeMillis() + 1000;
+        while (timeouts("websocket") < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, timeouts("websocket"));
+    }
+
+    private double timeouts(String sink) {
+        return meterRegistry.counter("prism.side-effects", "sink", sink, "outcome", "timeout").count();
+    }
+
+    private static void commit() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.prism.service.tasklog;
+
+import com.prism.domain.TaskLogSegment;
+import com.prism.dto.TaskLogResponse;
+import com.prism.repository.TaskLogSegmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskLogStoreTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TaskLogSegmentRepository segmentRepository;
+
+    private TaskLogStore taskLogStore;
+
+    @BeforeEach
+    void setUp() {
+        taskLogStore = new TaskLogStore(jdbcTemplate, segmentRepository, 1024);
+    }
+
+    @Test
+    void read_ShouldSpanSegmentsWithinByteBudget() {
+        TaskLogSegment first = segment(0, 0, "hello");
+        TaskLogSegment second = segment(1, 5, "\nworld");
+        when(segmentRepository.findFirstByTaskIdOrderBySequenceNoDesc("task-1")).thenReturn(Optional.of(second));
+        when(segmentRepository.findFromOffset(eq("task-1"), anyLong(), any())).thenReturn(List.of(first, second));
+
+        TaskLogResponse chunk = taskLogStore.read("task-1", 3, 5);
+
+        assertEquals("lo\nwo", chunk.getContent());
+        assertEquals(3, chunk.getOffset());
+        assertEquals(8, chunk.getNextOffset());
+        assertEquals(11, chunk.getTotalBytes());
+    }
+
+    @Test
+    void read_ShouldNotSplitMultiByteCharacters() {
+        TaskLogSegment only = segment(0, 0, "가나다"); // 3 bytes each
+        when(segmentRepository.findFirstByTaskIdOrderBySequenceNoDesc("task-1")).thenReturn(Optional.of(only));
+        when(segmentRepository.findFromOffset(eq("task-1"), anyLong(), any())).thenReturn(List.of(only));
+
+        TaskLogResponse chunk = taskLogStore.read("task-1", 1, 5);
+
+        assertEquals("나", chunk.getContent());
+        assertEquals(3, chunk.getOffset());
+        assertEquals(6, chunk.getNextOffset());
+    }
+
+    @Test
+    void tail_ShouldReturnLastBytes() {
+        TaskLogSegment first = segment(0, 0, "hello");
+        TaskLogSegment second = segment(1, 5, "\nworld");
+        when(segmentRepository.findFirstByTaskIdOrderBySequenceNoDesc("task-1")).thenReturn(Optional.of(second));
+        when(segmentRepository.findFromOffset(eq("task-1"), eq(6L), any())).thenReturn(List.of(second));
+
+        TaskLogResponse chunk = taskLogStore.tail("task-1", 5);
+
+        assertEquals("world", chunk.getContent());
+        assertEquals(11, chunk.getNextOffset());
+    }
+
+    private TaskLogSegment segment(long sequenceNo, long startOffset, String content) {
+        return TaskLogSegment.builder()
+            .taskId("task-1")
+            .sequenceNo(sequenceNo)
+            .startOffset(startOffset)
+            .endOffset(startOffset + content.getBytes(java.nio.charset.StandardCharsets.UTF_8).length)
+            .content(content)
+            .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.prism.service.update;
+
+import com.prism.grpc.UpdateTaskStatusRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PendingTaskUpdateTest {
+
+    @Test
+    void mergedWith_ShouldKeepLastValuesAndAppendLogs() {
+        LocalDateTime t1 = LocalDateTime.of(2025, 1, 1, 10, 0);
+        LocalDateTime t2 = t1.plusSeconds(1);
+        LocalDateTime t3 = t1.plusSeconds(2);
+
+        PendingTaskUpdate merged = PendingTaskUpdate.from(request("IN_PROGRESS", "started", "feat/a", ""), t1)
+            .mergedWith(PendingTaskUpdate.from(request("IN_PROGRESS", "committed", "", "abc123"), t2))
+            .mergedWith(PendingTaskUpdate.from(request("DONE", "done", "feat/b", ""), t3));
+
+        assertEquals("DONE", merged.getStatus());
+        assertEquals("feat/b", merged.getGitBranch());
+        assertEquals("abc123", merged.getGitCommitHash());
+        assertNull(merged.getGitPrUrl());
+        assertEquals(t1, merged.getStartedAt());
+        assertEquals(t3, merged.getCompletedAt());
+        assertEquals(t3, merged.getUpdatedAt());
+        assertEquals("started\ncommitted\ndone", merged.joinedLog());
+    }
+
+    private UpdateTaskStatusRequest request(String status, String details, String branch, String commit) {
+        return UpdateTaskStatusRequest.newBuilder()
+            .setTaskId("task-1")
+            .setAgentId("agent-1")
+            .setStatus(status)
+            .setDetails(details)
+            .setGitBranch(branch)
+            .setGitCommitHash(commit)
+            .build();
+    }
+}
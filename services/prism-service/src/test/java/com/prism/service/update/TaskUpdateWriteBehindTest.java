@@ -0,0 +1,285 @@
+package com.prism.service.update;
+
+import com.prism.domain.ActivityLog;
+import com.prism.grpc.UpdateTaskStatusRequest;
+import com.prism.repository.ActivityLogRepository;
+import com.prism.repository.TaskLogSegmentRepository;
+import com.prism.service.DashboardCounters;
+import com.prism.service.activity.ActivityRollupService;
+import com.prism.service.dispatch.AgentLoadBalancer;
+import com.prism.service.hierarchy.TaskHierarchyService;
+import com.prism.service.search.TaskSearchIndex;
+import com.prism.service.tasklog.TaskLogStore;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskUpdateWriteBehind 동시성 검증 (인메모리 H2)
+ */
+class TaskUpdateWriteBehindTest {
+
+    private static final int TASKS = 64;
+    private static final int PRODUCERS = 8;
+    private static final int UPDATES_PER_PRODUCER = 2000;
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final AgentLoadBalancer agentLoadBalancer = mock(AgentLoadBalancer.class);
+    private final ActivityLogRepository activityLogRepository = mock(ActivityLogRepository.class);
+    private TaskUpdateWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:write-behind-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE tasks (" +
+            "id VARCHAR(36) PRIMARY KEY, status VARCHAR(32), started_at TIMESTAMP, completed_at TIMESTAMP, " +
+            "git_branch VARCHAR(255), git_commit_hash VARCHAR(255), git_pr_url VARCHAR(255), " +
+            "git_pr_status VARCHAR(255), updated_at TIMESTAMP, assigned_to VARCHAR(36), parent_task_id VARCHAR(36), " +
+            "last_activity_id VARCHAR(24), version BIGINT DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE task_log_segments (" +
+            "id BIGINT AUTO_INCREMENT PRIMARY KEY, task_id VARCHAR(36) NOT NULL, sequence_no BIGINT NOT NULL, " +
+            "start_offset BIGINT NOT NULL, end_offset BIGINT NOT NULL, content CLOB, created_at TIMESTAMP, " +
+            "UNIQUE (task_id, sequence_no))");
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, status) VALUES (?, 'TODO')",
+            IntStream.range(0, TASKS).mapToObj(i -> new Object[]{taskId(i)}).toList());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writeBehind != null) {
+            writeBehind.shutdown();
+        }
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void concurrentUpdates_ShouldPersistEveryLogLineOnceAndInOrderPerTask() throws Exception {
+        writeBehind = newWriteBehind(jdbcTemplate, 50);
+        Set<String> laneThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> laneThreads.add(Thread.currentThread().getName()))
+            .when(agentLoadBalancer).statusChanged(any(), any(), anyString());
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(PRODUCERS + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            producers.add(pool.submit(() -> {
+                await(start);
+                for (int n = 0; n < UPDATES_PER_PRODUCER; n++) {
+                    String taskId = taskId((producer * 7 + n) % TASKS);
+                    writeBehind.submit(update(taskId, "p" + producer + ":" + n, "feat/p" + producer),
+                        ActivityLog.builder().taskId(taskId).action("STATUS_UPDATE").build());
+                }
+            }));
+        }
+        // 스케줄러와 별개로 flush를 계속 호출하고, 다른 writer(JPA 등)처럼 version을 올리는 쓰기를 섞는다
+        Future<?> flusher = pool.submit(() -> {
+            await(start);
+            while (producing.get()) {
+                writeBehind.flush();
+            }
+        });
+        Future<?> otherWriter = pool.submit(() -> {
+            await(start);
+            int n = 0;
+            while (producing.get()) {
+                jdbcTemplate.update("UPDATE tasks SET version = version + 1 WHERE id = ?", taskId(n++ % TASKS));
+            }
+        });
+
+        start.countDown();
+        for (Future<?> future : producers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        producing.set(false);
+        flusher.get(10, TimeUnit.SECONDS);
+        otherWriter.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+        while (writeBehind.pendingCount() > 0) {
+            writeBehind.flush();
+        }
+
+        int lines = 0;
+        for (int i = 0; i < TASKS; i++) {
+            String log = String.join("", jdbcTemplate.queryForList(
+                "SELECT content FROM task_log_segments WHERE task_id = ? ORDER BY sequence_no", String.class, taskId(i)));
+            int[] lastSeen = new int[PRODUCERS];
+            Arrays.fill(lastSeen, -1);
+            for (String line : log.split("\n")) {
+                String[] parts = line.substring(1).split(":");
+                int producer = Integer.parseInt(parts[0]);
+                int n = Integer.parseInt(parts[1]);
+                // 한 producer가 같은 Task에 보낸 로그는 보낸 순서대로, 한 번씩만 남는다
+                assertTrue(n > lastSeen[producer], "out of order or duplicated: " + line);
+                lastSeen[producer] = n;
+                lines++;
+            }
+            assertEquals("IN_PROGRESS", jdbcTemplate.queryForObject(
+                "SELECT status FROM tasks WHERE id = ?", String.class, taskId(i)));
+        }
+        assertEquals(PRODUCERS * UPDATES_PER_PRODUCER, lines);
+        assertTrue(laneThreads.size() > 1, "flushes should be spread across lanes: " + laneThreads);
+    }
+
+    @Test
+    void flush_ShouldRetryUpdateWhenVersionChangedConcurrently() {
+        AtomicInteger interleaved = new AtomicInteger();
+        // SELECT와 UPDATE 사이에 다른 writer가 같은 행을 갱신한 상황을 한 번 만든다
+        JdbcTemplate racing = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                if (sql.startsWith("UPDATE tasks") && interleaved.getAndIncrement() == 0) {
+                    jdbcTemplate.update("UPDATE tasks SET git_commit_hash = 'other', version = version + 1 WHERE id = ?",
+                        taskId(0));
+                }
+                return super.batchUpdate(sql, batchArgs, batchSize, pss);
+            }
+        };
+        writeBehind = newWriteBehind(racing, 60_000);
+
+        writeBehind.submit(update(taskId(0), "started", "feat/a"),
+            ActivityLog.builder().taskId(taskId(0)).action("STATUS_UPDATE").build());
+        writeBehind.flush();
+
+        assertEquals(2, interleaved.get());
+        assertEquals(0, writeBehind.pendingCount());
+        assertEquals("feat/a", jdbcTemplate.queryForObject(
+            "SELECT git_branch FROM tasks WHERE id = ?", String.class, taskId(0)));
+        assertEquals("other", jdbcTemplate.queryForObject(
+            "SELECT git_commit_hash FROM tasks WHERE id = ?", String.class, taskId(0)));
+        assertEquals(2L, jdbcTemplate.queryForObject(
+            "SELECT version FROM tasks WHERE id = ?", Long.class, taskId(0)));
+        assertEquals("started", jdbcTemplate.queryForObject(
+            "SELECT content FROM task_log_segments WHERE task_id = ?", String.class, taskId(0)));
+    }
+
+    @Test
+    void flush_ShouldDropActivitiesOfMissingTasks() {
+        writeBehind = newWriteBehind(jdbcTemplate, 60_000);
+
+        ActivityLog activity = ActivityLog.builder().taskId(taskId(0)).action("STATUS_UPDATE").build();
+        writeBehind.submit(update(taskId(0), "ok", "feat/a"), activity);
+        writeBehind.submit(update("missing-task", "lost", "feat/b"),
+            ActivityLog.builder().taskId("missing-task").action("STATUS_UPDATE").build());
+        writeBehind.flush();
+
+        verify(activityLogRepository).insert(argThat((List<ActivityLog> activities) -> activities != null
+            && activities.size() == 1 && taskId(0).equals(activities.get(0).getTaskId())));
+        assertEquals(0, writeBehind.pendingCount());
+        // 문서 캐시 version용으로 마지막 이벤트 id가 Task 행에 남는다
+        assertEquals(activity.getId(), jdbcTemplate.queryForObject(
+            "SELECT last_activity_id FROM tasks WHERE id = ?", String.class, taskId(0)));
+    }
+
+    @Test
+    void flush_ShouldRetryActivitiesAfterInsertFailure() {
+        writeBehind = newWriteBehind(jdbcTemplate, 60_000);
+        when(activityLogRepository.insert(anyList())).thenThrow(new IllegalStateException("mongo down"));
+
+        ActivityLog activity = ActivityLog.builder().taskId(taskId(0)).action("STATUS_UPDATE").build();
+        writeBehind.submit(update(taskId(0), "ok", "feat/a"), activity);
+        writeBehind.flush();
+        assertEquals(1, writeBehind.retryingActivityCount());
+
+        writeBehind.flush();
+        // 접수 시 정해 둔 id로 upsert 하므로 일부가 이미 들어갔어도 중복되지 않는다
+        verify(activityLogRepository).saveAll(argThat((List<ActivityLog> activities) -> activities != null
+            && activities.size() == 1 && activity.getId().equals(activities.get(0).getId())));
+        assertEquals(0, writeBehind.retryingActivityCount());
+    }
+
+    @Test
+    void recordActivities_ShouldQueueAfterCommitAndRetryOnFailure() {
+        writeBehind = newWriteBehind(jdbcTemplate, 60_000);
+        when(activityLogRepository.insert(anyList())).thenThrow(new IllegalStateException("mongo down"));
+
+        ActivityLog created = ActivityLog.builder().taskId(taskId(0)).action("TASK_CREATED").build();
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            writeBehind.recordActivities(List.of(created));
+            // 커밋 전에는 접수되지 않는다
+            writeBehind.flush();
+        });
+        verify(activityLogRepository, never()).insert(anyList());
+
+        writeBehind.flush();
+        assertEquals(1, writeBehind.retryingActivityCount());
+        writeBehind.flush();
+        verify(activityLogRepository).saveAll(argThat((List<ActivityLog> activities) -> activities != null
+            && activities.size() == 1 && created.getId().equals(activities.get(0).getId())));
+    }
+
+    private TaskUpdateWriteBehind newWriteBehind(JdbcTemplate template, long maxLatencyMs) {
+        TaskLogSegmentRepository segmentRepository = mock(TaskLogSegmentRepository.class);
+        when(segmentRepository.findFirstByTaskIdOrderBySequenceNoDesc(anyString())).thenReturn(Optional.empty());
+        TaskUpdateWriteBehind created = new TaskUpdateWriteBehind(template, new DataSourceTransactionManager(dataSource),
+            activityLogRepository, new TaskLogStore(template, segmentRepository, 262144),
+            mock(DashboardCounters.class), mock(ActivityRollupService.class), agentLoadBalancer,
+            new TaskSearchIndex(template, false, 5000, 2000, 60_000),
+            mock(TaskHierarchyService.class), maxLatencyMs, 100, 4);
+        created.start();
+        return created;
+    }
+
+    private static PendingTaskUpdate update(String taskId, String logLine, String branch) {
+        return PendingTaskUpdate.from(UpdateTaskStatusRequest.newBuilder()
+            .setTaskId(taskId)
+            .setAgentId("agent-1")
+            .setStatus("IN_PROGRESS")
+            .setDetails(logLine)
+            .setGitBranch(branch)
+            .build(), LocalDateTime.now());
+    }
+
+    private static String taskId(int i) {
+        return String.format("00000000-0000-0000-0000-%012d", i);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
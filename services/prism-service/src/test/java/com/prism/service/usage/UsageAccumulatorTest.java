@@ -0,0 +1,132 @@
+package com.prism.service.usage;
+
+import com.prism.repository.AgentRepository;
+import com.prism.repository.TaskRepository;
+import com.prism.service.DashboardCounters;
+import com.prism.service.activity.ActivityRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UsageAccumulatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private TaskRepository taskRepository;
+    @Mock
+    private AgentRepository agentRepository;
+    @Mock
+    private DashboardCounters dashboardCounters;
+    @Mock
+    private ActivityRollupService activityRollupService;
+
+    private final PreparedStatement ps = mock(PreparedStatement.class);
+    private UsageAccumulator accumulator;
+
+    @BeforeEach
+    void setUp() {
+        when(taskRepository.findProjectIds(anyCollection())).thenReturn(List.of(
+            new Object[]{"task-1", "project-1"},
+            new Object[]{"task-2", null}
+        ));
+        when(agentRepository.findProviderRates(anyCollection())).thenReturn(List.<Object[]>of(
+            new Object[]{"agent-1", "provider-1", new BigDecimal("0.0020")}
+        ));
+        accumulator = new UsageAccumulator(jdbcTemplate, transactionManager, taskRepository, agentRepository,
+            dashboardCounters, activityRollupService, 5000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldUpsertDailyTotalsPerAgentProviderAndProject() throws Exception {
+        doAnswer(invocation -> {
+            Collection<Object> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object row : rows) {
+                setter.setValues(ps, row);
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        LocalDateTime now = LocalDateTime.now();
+
+        accumulator.record("agent-1", "task-1", 1000, 500, now);
+        accumulator.record("agent-1", "task-1", 1000, 500, now);
+        accumulator.record("agent-1", "task-2", 300, 200, now);
+        accumulator.flush();
+
+        // task-1: 3000 토큰 x 0.002/1k, task-2: project 없음
+        verify(ps).setString(4, "project-1");
+        verify(ps).setLong(5, 2000L);
+        verify(ps).setLong(6, 1000L);
+        verify(ps).setBigDecimal(7, new BigDecimal("0.006000"));
+        verify(ps).setString(4, "");
+        verify(ps).setLong(5, 300L);
+        verify(ps).setBigDecimal(7, new BigDecimal("0.001000"));
+        verify(ps, times(2)).setString(3, "provider-1");
+        verify(dashboardCounters).apply(any(DashboardCounters.Delta.class));
+
+        ArgumentCaptor<Map<LocalDateTime, Double>> costs = ArgumentCaptor.forClass(Map.class);
+        verify(activityRollupService).recordCost(costs.capture());
+        assertEquals(0.007, costs.getValue().get(now.truncatedTo(ChronoUnit.MINUTES)), 1e-9);
+    }
+
+    @Test
+    void flush_ShouldRetryUsageWhenUpsertFails() {
+        doThrow(new RuntimeException("db down"))
+            .doReturn(new int[0][])
+            .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        accumulator.record("agent-1", "task-1", 1000, 500, LocalDateTime.now());
+        accumulator.flush();
+        accumulator.flush();
+        accumulator.flush();
+
+        // 실패한 batch는 통째로 롤백하고, 누적분은 두 번째 flush에서 다시 쓰고, 세 번째에는 쓸 것이 없다
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(dashboardCounters).apply(any(DashboardCounters.Delta.class));
+    }
+
+    @Test
+    void record_ShouldIgnoreEmptyUsage() {
+        accumulator.record("agent-1", "task-1", 0, 0, LocalDateTime.now());
+        accumulator.flush();
+
+        verifyNoInteractions(jdbcTemplate, dashboardCounters, activityRollupService);
+    }
+}